@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+# Platform ve sanal iş parçacığı modlarını aynı yük altında karşılaştırır (verim, iş parçacığı, RSS).
+# Sanal mod için JDK 21 gerekir: JAVA=/path/to/jdk21/bin/java ./compare-execution-modes.sh
+# Önce: (kök dizinde) mvn install -DskipTests && (benchmarks) mvn package
+set -euo pipefail
+
+JAVA=${JAVA:-java}
+JAR=${JAR:-target/benchmarks.jar}
+TARGETS=${TARGETS:-200}
+ROUNDS=${ROUNDS:-5}
+LATENCY_MS=${LATENCY_MS:-100}
+TESLA_PORT=${TESLA_PORT:-18080}
+TELEGRAM_PORT=${TELEGRAM_PORT:-18081}
+HEAP=${HEAP:--Xmx512m}
+
+"$JAVA" -Dlogback.configurationFile=logback-benchmark.xml -cp "$JAR" com.teslabot.bench.MockInventoryServer \
+    "$TESLA_PORT" "$TELEGRAM_PORT" "$LATENCY_MS" &
+SERVER_PID=$!
+trap 'kill $SERVER_PID 2>/dev/null || true' EXIT
+sleep 3
+
+# Aynı eşzamanlılık sınırları: platform modunda havuz boyutları, sanal modda yalnızca izin sayıları
+COMMON=(-DTESLA_POLL_THREADS=64 -DTESLA_PAGE_PARALLELISM=64 -DHTTP_MAX_REQUESTS=256
+        -DHTTP_MAX_REQUESTS_PER_HOST=256 -DHEDGE_BUDGET_RATIO=0 -DMETRICS_PORT=0)
+
+for MODE in platform virtual; do
+    "$JAVA" $HEAP -DEXECUTION_MODE=$MODE "${COMMON[@]}" -Dlogback.configurationFile=logback-benchmark.xml \
+        -cp "$JAR" com.teslabot.bench.ExecutionModeLoad \
+        "http://127.0.0.1:$TESLA_PORT/inventory-results" "http://127.0.0.1:$TELEGRAM_PORT" "$TARGETS" "$ROUNDS"
+done
@@ -0,0 +1,145 @@
+package com.teslabot.bench;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Aynı CLUSTER_DIR'i paylaşan N bot sürecini aynı hedefe karşı çalıştırır. Envanter zamanla kayar
+// (her saniye yeni VIN'ler); her VIN'in kümede tam bir kez bildirildiğini doğrular ve düğümlerin
+// birleşik yoklama hızını yazdırır. Tekrar varsa 1 ile çıkar. Düğüm günlükleri geçici dizinde kalır.
+//   java -cp target/benchmarks.jar com.teslabot.bench.ClusterStress [düğüm sayısı] [süre saniye]
+public final class ClusterStress {
+    private static final Pattern VIN_LINE = Pattern.compile("VIN: ([A-Z0-9]{17})");
+    // Kayan pencerede araç ayrıntıları konuma bağlı, fiyatlar dalgalanır; fiyat düşüşleri aynı VIN için
+    // meşru olarak tekrarlanabildiğinden yalnızca yeni araç bildirimleri sayılır
+    private static final String PRICE_DROP = "Fiyat Düşüşü";
+    private static final int CARS = MockBackends.PAGE_SIZE;
+
+    private ClusterStress() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+
+        long startMillis = System.currentTimeMillis();
+        AtomicInteger teslaRequests = new AtomicInteger();
+        MockWebServer tesla = MockBackends.newServer();
+        tesla.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                teslaRequests.incrementAndGet();
+                // Pencere saniyede bir araç kayar: en eski araç satılır, yeni bir VIN eklenir
+                int gen = (int) ((System.currentTimeMillis() - startMillis) / 1000);
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(new Buffer().write(InventoryFixtures.page(CARS, gen, CARS, "CLUSTR", 0)));
+            }
+        });
+        tesla.start();
+
+        Map<String, AtomicInteger> notified = new ConcurrentHashMap<>();
+        MockWebServer telegram = MockBackends.newServer();
+        telegram.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String form = request.getBody().readString(StandardCharsets.UTF_8);
+                String text = HttpUrl.get("http://localhost/?" + form).queryParameter("text");
+                if (text == null || text.contains(PRICE_DROP)) {
+                    return ok();
+                }
+                Matcher matcher = VIN_LINE.matcher(text);
+                while (matcher.find()) {
+                    notified.computeIfAbsent(matcher.group(1), vin -> new AtomicInteger()).incrementAndGet();
+                }
+                return ok();
+            }
+        });
+        telegram.start();
+
+        Path workDir = Files.createTempDirectory("cluster-stress");
+        Path clusterDir = workDir.resolve("cluster");
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            Path nodeDir = Files.createDirectories(workDir.resolve("node-" + i));
+            ProcessBuilder builder = new ProcessBuilder(java,
+                    "-cp", System.getProperty("java.class.path"), "com.teslabot.TeslaInventoryBot");
+            Map<String, String> env = builder.environment();
+            env.put("TESLA_API_URL", tesla.url("/inventory-results").toString());
+            env.put("TESLA_TARGETS", "DE:de:my:new");
+            env.put("TESLA_PAGE_SIZE", Integer.toString(MockBackends.PAGE_SIZE));
+            env.put("TELEGRAM_API_BASE_URL", telegram.url("").toString().replaceAll("/$", ""));
+            env.put("TELEGRAM_BOT_TOKEN", "bench-token");
+            env.put("TELEGRAM_CHAT_ID", "1");
+            env.put("TELEGRAM_CHAT_INTERVAL_MS", "0");
+            env.put("TELEGRAM_GLOBAL_INTERVAL_MS", "0");
+            env.put("TELEGRAM_QUEUE_CAPACITY", "1000000");
+            env.put("VIN_STORE_DIR", nodeDir.toString());
+            env.put("PROXY_LIST_FILE", nodeDir.resolve("no-proxies.txt").toString());
+            env.put("HISTORY_ENABLED", "false");
+            env.put("STATE_SNAPSHOT_ENABLED", "false");
+            env.put("CLUSTER_DIR", clusterDir.toString());
+            env.put("CLUSTER_NODE_ID", "node-" + i);
+            env.put("CLUSTER_HEARTBEAT_SECONDS", "1");
+            env.put("CLUSTER_LEASE_SECONDS", "3");
+            env.put("POLL_INTERVAL_SECONDS", "2");
+            env.put("POLL_MIN_INTERVAL_SECONDS", "2");
+            env.put("POLL_STABLE_MAX_INTERVAL_SECONDS", "2");
+            env.put("POLL_JITTER_PERCENT", "0");
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(nodeDir.resolve("bot.log").toFile());
+            processes.add(builder.start());
+        }
+
+        TimeUnit.SECONDS.sleep(seconds);
+        int requests = teslaRequests.get();
+        // SIGTERM: kapanış kancası kuyruktaki bildirimleri gönderip kiraları bırakır
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+        tesla.shutdown();
+        telegram.shutdown();
+
+        List<String> duplicates = new ArrayList<>();
+        for (Map.Entry<String, AtomicInteger> entry : notified.entrySet()) {
+            if (entry.getValue().get() > 1) {
+                duplicates.add(entry.getKey() + " x" + entry.getValue().get());
+            }
+        }
+        System.out.printf("%d düğüm, %d sn: %d Tesla isteği (%.2f/sn), %d farklı VIN bildirildi, %d tekrar, "
+                        + "günlükler: %s%n",
+                nodes, seconds, requests, requests / (double) seconds, notified.size(), duplicates.size(), workDir);
+        if (!duplicates.isEmpty()) {
+            System.out.println("Tekrar bildirilen VIN'ler: " + duplicates);
+            System.exit(1);
+        }
+    }
+
+    private static MockResponse ok() {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"ok\":true,\"result\":{}}");
+    }
+}
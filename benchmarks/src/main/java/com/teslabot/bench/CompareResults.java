@@ -0,0 +1,72 @@
+package com.teslabot.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// İki JMH JSON sonucunu (-rf json) karşılaştırır. Eşikten fazla yavaşlayan benchmark varsa 1 ile çıkar;
+// CI'da önceki sürümün sonucuna karşı regresyon kontrolü için kullanılır.
+//   java -cp target/benchmarks.jar com.teslabot.bench.CompareResults base.json new.json [eşik-yüzde]
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Kullanım: CompareResults <önceki.json> <yeni.json> [eşik-yüzde, varsayılan 10]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> base = index(mapper.readTree(new File(args[0])));
+        Map<String, JsonNode> current = index(mapper.readTree(new File(args[1])));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = base.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s yeni%n", entry.getKey());
+                continue;
+            }
+            double oldScore = before.path("primaryMetric").path("score").asDouble();
+            double newScore = entry.getValue().path("primaryMetric").path("score").asDouble();
+            String unit = entry.getValue().path("primaryMetric").path("scoreUnit").asText();
+            // thrpt modunda büyük değer iyidir, diğer modlarda (avgt, sample, ss) küçük değer
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            double change = oldScore == 0 ? 0 : (newScore - oldScore) / oldScore * 100.0;
+            double slowdown = higherIsBetter ? -change : change;
+            boolean regression = slowdown > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-70s %12.3f -> %12.3f %-8s %+7.1f%%%s%n", entry.getKey(), oldScore, newScore, unit,
+                    change, regression ? "  REGRESYON" : "");
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark %%%.1f eşiğinden fazla yavaşladı%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    // Anahtar: benchmark adı + parametreler
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replace("com.teslabot.bench.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            byKey.put(key.toString(), result);
+        }
+        return byKey;
+    }
+}
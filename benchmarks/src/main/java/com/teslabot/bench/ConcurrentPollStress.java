@@ -0,0 +1,135 @@
+package com.teslabot.bench;
+
+import com.teslabot.TeslaInventoryBot;
+import com.teslabot.WatchTarget;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Aynı hedef için çok sayıda eşzamanlı tur çalıştırır ve hiçbir VIN'in iki kez bildirilmediğini doğrular.
+// Her tur ilk sayfada yeni VIN'ler görür; Telegram'a giden tüm mesajlardaki "VIN: ..." satırları sayılır.
+// Tekrar varsa 1 ile çıkar.
+//   java -cp target/benchmarks.jar com.teslabot.bench.ConcurrentPollStress [iş parçacığı] [iş parçacığı başına tur]
+public final class ConcurrentPollStress {
+    private static final int TOTAL_MATCHES = 96;
+    private static final Pattern VIN_LINE = Pattern.compile("VIN: ([A-Z0-9]{17})");
+
+    private ConcurrentPollStress() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int pollsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        byte[][] fixedPages = new byte[TOTAL_MATCHES / MockBackends.PAGE_SIZE][];
+        for (int p = 1; p < fixedPages.length; p++) {
+            fixedPages[p] = InventoryFixtures.page(TOTAL_MATCHES, p * MockBackends.PAGE_SIZE, MockBackends.PAGE_SIZE,
+                    "LRWYGC", p);
+        }
+        AtomicInteger generation = new AtomicInteger();
+        MockWebServer tesla = MockBackends.newServer();
+        tesla.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                int page = MockBackends.page(request);
+                byte[] body;
+                if (page == 0) {
+                    // Her ilk sayfa isteği yeni bir nesil: daha önce görülmemiş VIN'ler
+                    int gen = generation.incrementAndGet();
+                    body = InventoryFixtures.page(TOTAL_MATCHES, gen * MockBackends.PAGE_SIZE,
+                            MockBackends.PAGE_SIZE, "STRESS", gen);
+                } else if (page < fixedPages.length) {
+                    body = fixedPages[page];
+                } else {
+                    return new MockResponse().setResponseCode(404);
+                }
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(new Buffer().write(body));
+            }
+        });
+        tesla.start();
+
+        Map<String, AtomicInteger> notified = new ConcurrentHashMap<>();
+        MockWebServer telegram = MockBackends.newServer();
+        telegram.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String form = request.getBody().readString(StandardCharsets.UTF_8);
+                String text = HttpUrl.get("http://localhost/?" + form).queryParameter("text");
+                Matcher matcher = VIN_LINE.matcher(text == null ? "" : text);
+                while (matcher.find()) {
+                    notified.computeIfAbsent(matcher.group(1), vin -> new AtomicInteger()).incrementAndGet();
+                }
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"ok\":true,\"result\":{}}");
+            }
+        });
+        telegram.start();
+
+        Path vinStoreDir = Files.createTempDirectory("poll-stress");
+        MockBackends.configureBot(tesla, telegram, vinStoreDir);
+        // Kuyruk dolup mesaj atlanırsa tekrar kontrolü eksik kalır
+        System.setProperty("TELEGRAM_QUEUE_CAPACITY", "1000000");
+        TeslaInventoryBot bot = new TeslaInventoryBot();
+        WatchTarget target = bot.getTargets().get(0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < pollsPerThread; i++) {
+                    bot.pollNow(target);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        pool.shutdown();
+        // Kuyruktaki bildirimler gönderilene kadar bekler
+        bot.stop();
+        tesla.shutdown();
+        telegram.shutdown();
+        MockBackends.deleteRecursively(vinStoreDir);
+
+        List<String> duplicates = new ArrayList<>();
+        for (Map.Entry<String, AtomicInteger> entry : notified.entrySet()) {
+            if (entry.getValue().get() > 1) {
+                duplicates.add(entry.getKey() + " x" + entry.getValue().get());
+            }
+        }
+        System.out.printf("%d iş parçacığı x %d tur, %d ms: %d nesil, %d farklı VIN bildirildi, %d tekrar%n",
+                threads, pollsPerThread, elapsedMillis, generation.get(), notified.size(), duplicates.size());
+        if (!duplicates.isEmpty()) {
+            System.out.println("Tekrar bildirilen VIN'ler: " + duplicates);
+            System.exit(1);
+        }
+    }
+}
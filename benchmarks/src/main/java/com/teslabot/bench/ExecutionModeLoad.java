@@ -0,0 +1,71 @@
+package com.teslabot.bench;
+
+import com.teslabot.ExecutionMode;
+import com.teslabot.TeslaInventoryBot;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.StringJoiner;
+
+// Çok sayıda hedefi MockInventoryServer'a karşı art arda tüm hedefler için tur atarak yoklar ve
+// EXECUTION_MODE'un (platform / virtual) verimini, iş parçacığı sayısını ve bellek kullanımını yazdırır.
+// Karşılaştırma için compare-execution-modes.sh iki modu aynı ayarlarla çalıştırır.
+//   java -DEXECUTION_MODE=virtual -cp target/benchmarks.jar com.teslabot.bench.ExecutionModeLoad \
+//        <tesla-url> <telegram-url> [hedef sayısı] [tur]
+public final class ExecutionModeLoad {
+
+    private ExecutionModeLoad() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String teslaUrl = args[0];
+        String telegramUrl = args[1];
+        int targets = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        Path vinStoreDir = Files.createTempDirectory("execution-mode-load");
+        MockBackends.configureBot(teslaUrl, telegramUrl, vinStoreDir);
+        StringJoiner spec = new StringJoiner(",");
+        for (int i = 0; i < targets; i++) {
+            spec.add(String.format("M%03d:de:my:new", i));
+        }
+        System.setProperty("TESLA_TARGETS", spec.toString());
+
+        TeslaInventoryBot bot = new TeslaInventoryBot();
+        // İlk tur (ilk çalıştırma bildirimleri, bağlantı kurulumu, JIT) ölçüme dahil değil
+        bot.pollAllNow();
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            bot.pollAllNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int peakThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+        long rssKb = procStatusKb("VmRSS");
+        long peakRssKb = procStatusKb("VmHWM");
+        bot.stop();
+        MockBackends.deleteRecursively(vinStoreDir);
+
+        System.out.printf("mode=%s java=%s targets=%d rounds=%d polls_per_sec=%.1f peak_platform_threads=%d "
+                        + "rss_mb=%.1f peak_rss_mb=%.1f%n",
+                ExecutionMode.getDefault(), System.getProperty("java.specification.version"), targets, rounds,
+                targets * rounds / seconds, peakThreads, rssKb / 1024.0, peakRssKb / 1024.0);
+    }
+
+    // Linux dışında -1
+    private static long procStatusKb(String field) {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.UTF_8)) {
+                if (line.startsWith(field + ":")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Yoksay
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,119 @@
+package com.teslabot.bench;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+// Tesla envanter yanıtı biçiminde sabit tohumlu örnek veri. Gerçek yanıtlardaki gibi botun okumadığı
+// alanlar (opsiyon kodları, görsel listeleri vb.) da eklenir ki ayrıştırıcının atlama maliyeti ölçülsün.
+final class InventoryFixtures {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final String[] TRIMS = {"Model Y Long Range All-Wheel Drive", "Model Y Rear-Wheel Drive",
+            "Model Y Performance All-Wheel Drive", "Model 3 Long Range Rear-Wheel Drive"};
+    private static final String[] TRIM_CODES = {"LRAWD", "MYRWD", "PAWD", "LRRWD"};
+    private static final String[] PAINTS = {"WHITE", "BLACK", "BLUE", "RED", "SILVER", "GRAY"};
+    private static final String[] INTERIORS = {"PREMIUM_BLACK", "PREMIUM_WHITE"};
+    private static final String[] OPTION_CODES = {"$APBS", "$IPB8", "$MDLY", "$MTY13", "$PPSW", "$SC04",
+            "$STY7S", "$TW01", "$WY19B", "$CPF0"};
+
+    private InventoryFixtures() {
+    }
+
+    static String[] trimCodes() {
+        return TRIM_CODES.clone();
+    }
+
+    static String[] paints() {
+        return PAINTS.clone();
+    }
+
+    static String[] interiors() {
+        return INTERIORS.clone();
+    }
+
+    static String vin(String prefix, int index) {
+        return String.format("%s%011d", prefix, index);
+    }
+
+    // totalMatches: yanıttaki toplam; cars: bu sayfadaki ilan sayısı; firstIndex: ilk ilanın sıra numarası
+    static byte[] page(int totalMatches, int firstIndex, int cars, String vinPrefix, long seed) {
+        Random random = new Random(seed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(cars * 4096 + 256);
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeFieldName("results");
+            json.writeStartArray();
+            for (int i = 0; i < cars; i++) {
+                writeCar(json, vin(vinPrefix, firstIndex + i), random);
+            }
+            json.writeEndArray();
+            json.writeStringField("total_matches_found", Integer.toString(totalMatches));
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeCar(JsonGenerator json, String vin, Random random) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("VIN", vin);
+        json.writeStringField("Model", "my");
+        int trim = random.nextInt(TRIMS.length);
+        json.writeArrayFieldStart("TRIM");
+        json.writeString(TRIM_CODES[trim]);
+        json.writeEndArray();
+        json.writeStringField("TrimName", TRIMS[trim]);
+        json.writeNumberField("Year", 2023 + random.nextInt(3));
+        json.writeNumberField("Price", 44990 + random.nextInt(20) * 500);
+        json.writeStringField("CurrencyCode", "EUR");
+        json.writeArrayFieldStart("PAINT");
+        json.writeString(PAINTS[random.nextInt(PAINTS.length)]);
+        json.writeEndArray();
+        json.writeArrayFieldStart("INTERIOR");
+        json.writeString(INTERIORS[random.nextInt(INTERIORS.length)]);
+        json.writeEndArray();
+        json.writeBooleanField("InTransit", random.nextBoolean());
+        // Botun kullanmadığı alanlar
+        json.writeStringField("City", "Berlin");
+        json.writeStringField("CountryCode", "DE");
+        json.writeNumberField("Odometer", random.nextInt(50));
+        json.writeStringField("OdometerType", "km");
+        json.writeBooleanField("IsDemo", false);
+        json.writeStringField("FactoryCode", random.nextBoolean() ? "GF4" : "GF3");
+        json.writeStringField("OptionCodeList", String.join(",", OPTION_CODES));
+        json.writeArrayFieldStart("OptionCodeData");
+        for (String code : OPTION_CODES) {
+            json.writeStartObject();
+            json.writeStringField("code", code);
+            json.writeStringField("group", "OPTIONS");
+            json.writeNumberField("price", random.nextInt(3000));
+            json.writeStringField("description", "Açıklama " + code + " lorem ipsum dolor sit amet");
+            json.writeStringField("long_name", "Uzun ad " + code);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeArrayFieldStart("CompositorViews");
+        for (String view : new String[]{"FRONT34", "SIDE", "REAR34", "INTERIOR"}) {
+            json.writeString(view);
+        }
+        json.writeEndArray();
+        json.writeObjectFieldStart("FlexibleOptionsData");
+        json.writeNumberField("TotalPrice", 1000 + random.nextInt(9000));
+        json.writeArrayFieldStart("Items");
+        for (int i = 0; i < 3; i++) {
+            json.writeStartObject();
+            json.writeStringField("Name", "Ek paket " + i);
+            json.writeNumberField("Price", random.nextInt(2000));
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,73 @@
+package com.teslabot.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teslabot.InventoryResponseParser;
+import com.teslabot.ResponseCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Envanter yanıtı ayrıştırma: akış ayrıştırıcı, eski readTree(String) yolu ve parmak izi maliyeti
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryParseBenchmark {
+
+    @Param({"24", "5000"})
+    public int results;
+
+    private byte[] body;
+    private ObjectMapper objectMapper;
+    private InventoryResponseParser parser;
+
+    @Setup
+    public void setup() {
+        body = InventoryFixtures.page(results, 0, results, "LRWYGC", 42);
+        objectMapper = new ObjectMapper();
+        parser = new InventoryResponseParser(objectMapper.getFactory());
+    }
+
+    @Benchmark
+    public InventoryResponseParser.Page streamingFromBytes() throws IOException {
+        return parser.parse(body);
+    }
+
+    @Benchmark
+    public InventoryResponseParser.Page streamingFromStream() throws IOException {
+        return parser.parse(new ByteArrayInputStream(body));
+    }
+
+    // Önceki yol: gövde String'e çevrilip tüm ağaç kurulur, ilanlar ağaçtan okunur
+    @Benchmark
+    public void legacyReadTree(Blackhole blackhole) throws IOException {
+        JsonNode page = objectMapper.readTree(new String(body, StandardCharsets.UTF_8));
+        blackhole.consume(page.path("total_matches_found").asInt());
+        for (JsonNode car : page.path("results")) {
+            blackhole.consume(car.path("VIN").asText(""));
+            blackhole.consume(car.path("Price").asDouble(0));
+        }
+    }
+
+    @Benchmark
+    public long fingerprint() {
+        return ResponseCache.fingerprint(body);
+    }
+}
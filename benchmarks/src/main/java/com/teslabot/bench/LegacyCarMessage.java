@@ -0,0 +1,82 @@
+package com.teslabot.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+// Karşılaştırma için MessageRenderer öncesi mesaj oluşturma kodunun kopyası
+// (araç başına String.format çağrıları ve her linkte System.getenv okuması)
+final class LegacyCarMessage {
+
+    private LegacyCarMessage() {
+    }
+
+    static String buildTeslaCarLink(String vin) {
+        String market = System.getenv("TESLA_MARKET");
+        String language = System.getenv("TESLA_LANGUAGE");
+
+        // Varsayılan değerler
+        if (market == null || market.isEmpty()) {
+            market = "DE";
+        }
+        if (language == null || language.isEmpty()) {
+            language = "de";
+        }
+
+        // Market ve language'i birleştir (örn: DE + de = de_DE)
+        String locale = language.toLowerCase() + "_" + market.toUpperCase();
+
+        return String.format(
+                "https://www.tesla.com/%s/my/order/%s?titleStatus=new&redirect=no#overview",
+                locale, vin);
+    }
+
+    static String buildCarDetailsMessage(JsonNode car) {
+        StringBuilder message = new StringBuilder();
+
+        // Temel bilgiler
+        String vin = car.path("VIN").asText("");
+        String model = car.path("Model").asText("");
+        String trimName = car.path("TrimName").asText("");
+        String year = car.path("Year").asText("");
+        String price = car.path("Price").asText("");
+        String currency = car.path("CurrencyCode").asText("");
+
+        // Başlık
+        message.append(String.format("%s %s %s\n", year, model, trimName));
+
+        // Fiyat bilgisi
+        if (price != null && !price.isEmpty()) {
+            message.append(String.format("Fiyat: %s %s\n", price, currency));
+        }
+
+        // VIN
+        if (vin != null && !vin.isEmpty()) {
+            message.append(String.format("VIN: %s\n", vin));
+        }
+
+        // Renk
+        JsonNode paint = car.path("PAINT");
+        if (paint.isArray() && paint.size() > 0) {
+            String paintColor = paint.get(0).asText();
+            if (paintColor != null && !paintColor.isEmpty()) {
+                message.append(String.format("Renk: %s\n", paintColor));
+            }
+        }
+
+        // İç mekan
+        JsonNode interior = car.path("INTERIOR");
+        if (interior.isArray() && interior.size() > 0) {
+            String interiorColor = interior.get(0).asText();
+            if (interiorColor != null && !interiorColor.isEmpty()) {
+                message.append(String.format("İç Mekan: %s\n", interiorColor));
+            }
+        }
+
+        // Tesla link
+        if (vin != null && !vin.isEmpty()) {
+            String carLink = buildTeslaCarLink(vin);
+            message.append(String.format("\nTesla'da Görüntüle: %s", carLink));
+        }
+
+        return message.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.teslabot.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.teslabot.InventoryCar;
+import com.teslabot.MessageRenderer;
+import com.teslabot.WatchTarget;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Araç mesajı oluşturma: eski String.format kodu ile MessageRenderer'ın üç biçimi
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageRenderBenchmark {
+
+    private JsonNode jsonCar;
+    private InventoryCar car;
+    private WatchTarget target;
+    private MessageRenderer plain;
+    private MessageRenderer markdown;
+    private MessageRenderer html;
+
+    @Setup
+    public void setup() {
+        ObjectNode node = new ObjectMapper().createObjectNode();
+        node.put("VIN", "LRWYGCEK1PC123456");
+        node.put("Model", "my");
+        node.put("TrimName", "Model Y Long Range All-Wheel Drive");
+        node.put("Year", 2024);
+        node.put("Price", 53935);
+        node.put("CurrencyCode", "EUR");
+        node.putArray("PAINT").add("WHITE");
+        node.putArray("INTERIOR").add("PREMIUM_BLACK");
+        node.put("InTransit", false);
+        jsonCar = node;
+        car = new InventoryCar("LRWYGCEK1PC123456", "my", "Model Y Long Range All-Wheel Drive", "2024", 53935,
+                "EUR", "WHITE", "PREMIUM_BLACK", false);
+        target = new WatchTarget("DE", "de", "my", "new");
+        plain = new MessageRenderer(MessageRenderer.Format.PLAIN);
+        markdown = new MessageRenderer(MessageRenderer.Format.MARKDOWN);
+        html = new MessageRenderer(MessageRenderer.Format.HTML);
+    }
+
+    @Benchmark
+    public String legacyStringFormat() {
+        return LegacyCarMessage.buildCarDetailsMessage(jsonCar);
+    }
+
+    @Benchmark
+    public String rendererPlain() {
+        return plain.renderCar(target, "tr", MessageRenderer.Headline.NEW_CAR, car);
+    }
+
+    @Benchmark
+    public String rendererMarkdown() {
+        return markdown.renderCar(target, "en", MessageRenderer.Headline.NEW_CAR, car);
+    }
+
+    @Benchmark
+    public String rendererHtml() {
+        return html.renderCar(target, "de", MessageRenderer.Headline.NEW_CAR, car);
+    }
+}
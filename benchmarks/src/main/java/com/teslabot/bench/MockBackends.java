@@ -0,0 +1,125 @@
+package com.teslabot.bench;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import javax.net.ServerSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Botun Tesla API'si ve Telegram yerine yerel MockWebServer'lara bağlanması için ortak kurulum
+final class MockBackends {
+    static final int PAGE_SIZE = 24;
+    private static final int DEFAULT_BACKLOG = 50; // ServerSocket varsayılanı
+    private static final Pattern OFFSET = Pattern.compile("\"offset\":(\\d+)");
+
+    private MockBackends() {
+    }
+
+    // MockWebServer başlık ve gövdeyi ayrı yazar; Nagle + gecikmeli ACK yerel bağlantıda her yanıta
+    // ~40 ms eklerdi ve ölçülen süreyi bottan bağımsız olarak domine ederdi
+    static MockWebServer newServer() {
+        MockWebServer server = new MockWebServer();
+        server.setServerSocketFactory(new ServerSocketFactory() {
+            @Override
+            public ServerSocket createServerSocket() throws IOException {
+                return new NoDelayServerSocket();
+            }
+
+            @Override
+            public ServerSocket createServerSocket(int port) throws IOException {
+                return bound(null, port, DEFAULT_BACKLOG);
+            }
+
+            @Override
+            public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+                return bound(null, port, backlog);
+            }
+
+            @Override
+            public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+                return bound(address, port, backlog);
+            }
+        });
+        return server;
+    }
+
+    // ServerSocket(port, backlog, address) ile aynı: address null ise tüm arayüzler
+    private static ServerSocket bound(InetAddress address, int port, int backlog) throws IOException {
+        ServerSocket socket = new NoDelayServerSocket();
+        try {
+            socket.bind(new InetSocketAddress(address, port), backlog);
+            return socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    // Her isteğe {"ok":true} dönen Telegram
+    static Dispatcher telegramOk() {
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"ok\":true,\"result\":{}}");
+            }
+        };
+    }
+
+    // İstekteki sayfa numarası (query parametresindeki offset / sayfa boyutu)
+    static int page(RecordedRequest request) {
+        String query = request.getRequestUrl().queryParameter("query");
+        Matcher matcher = OFFSET.matcher(query == null ? "" : query);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) / PAGE_SIZE : 0;
+    }
+
+    // Env sistem özelliklerine düşer; bot gerçek yapılandırma yoluyla bu sunuculara yönlenir
+    static void configureBot(MockWebServer tesla, MockWebServer telegram, Path vinStoreDir) {
+        configureBot(tesla.url("/inventory-results").toString(), telegram.url("").toString(), vinStoreDir);
+    }
+
+    static void configureBot(String teslaUrl, String telegramUrl, Path vinStoreDir) {
+        System.setProperty("TESLA_API_URL", teslaUrl);
+        System.setProperty("TESLA_TARGETS", "DE:de:my:new");
+        System.setProperty("TESLA_PAGE_SIZE", Integer.toString(PAGE_SIZE));
+        System.setProperty("TELEGRAM_API_BASE_URL", telegramUrl.replaceAll("/$", ""));
+        System.setProperty("TELEGRAM_BOT_TOKEN", "bench-token");
+        System.setProperty("TELEGRAM_CHAT_ID", "1");
+        System.setProperty("TELEGRAM_CHAT_INTERVAL_MS", "0");
+        System.setProperty("TELEGRAM_GLOBAL_INTERVAL_MS", "0");
+        System.setProperty("VIN_STORE_DIR", vinStoreDir.toString());
+        System.setProperty("PROXY_LIST_FILE", vinStoreDir.resolve("no-proxies.txt").toString());
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static final class NoDelayServerSocket extends ServerSocket {
+        NoDelayServerSocket() throws IOException {
+            super();
+        }
+
+        @Override
+        public Socket accept() throws IOException {
+            Socket socket = super.accept();
+            socket.setTcpNoDelay(true);
+            return socket;
+        }
+    }
+}
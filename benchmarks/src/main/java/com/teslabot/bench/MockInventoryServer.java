@@ -0,0 +1,54 @@
+package com.teslabot.bench;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import java.util.concurrent.TimeUnit;
+
+// Ayrı süreçte çalışan Tesla API'si ve Telegram taklidi; yük ölçümünde sunucunun iş parçacıkları ve
+// belleği ölçülen JVM'e karışmasın diye. Her yanıt verilen gecikmeyle döner (engelleyen G/Ç benzetimi).
+//   java -cp target/benchmarks.jar com.teslabot.bench.MockInventoryServer <tesla-port> <telegram-port> [gecikme-ms]
+public final class MockInventoryServer {
+    static final int TOTAL_MATCHES = 48;
+
+    private MockInventoryServer() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int teslaPort = Integer.parseInt(args[0]);
+        int telegramPort = Integer.parseInt(args[1]);
+        long latencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 100;
+
+        byte[][] pages = new byte[TOTAL_MATCHES / MockBackends.PAGE_SIZE][];
+        for (int p = 0; p < pages.length; p++) {
+            pages[p] = InventoryFixtures.page(TOTAL_MATCHES, p * MockBackends.PAGE_SIZE, MockBackends.PAGE_SIZE,
+                    "LRWYGC", p);
+        }
+        MockWebServer tesla = MockBackends.newServer();
+        tesla.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                int page = MockBackends.page(request);
+                if (page >= pages.length) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(new Buffer().write(pages[page]))
+                        .setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+        tesla.start(teslaPort);
+
+        MockWebServer telegram = MockBackends.newServer();
+        telegram.setDispatcher(MockBackends.telegramOk());
+        telegram.start(telegramPort);
+
+        System.out.printf("Tesla taklidi %s, Telegram taklidi %s (%d ms gecikme)%n",
+                tesla.url("/inventory-results"), telegram.url(""), latencyMillis);
+        Thread.currentThread().join();
+    }
+}
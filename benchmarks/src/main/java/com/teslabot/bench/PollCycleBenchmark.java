@@ -0,0 +1,115 @@
+package com.teslabot.bench;
+
+import com.teslabot.PollOutcome;
+import com.teslabot.TeslaInventoryBot;
+import com.teslabot.WatchTarget;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Uçtan uca kontrol turu: yerel MockWebServer'lar Tesla API'si ve Telegram yerine geçer, her çağrı
+// pollNow ile bir tur çalıştırır (istek, ayrıştırma, fark, VIN kontrolü, bildirim kuyruğu).
+// unchanged: her tur aynı yanıt; changed: turlar arasında yeni ilan ve fiyat değişikliği olan yanıtlar.
+// Bildirimler kuyruğa alındıktan sonra ayrı iş parçacığında gönderilir; ölçüme dahil değildir.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class PollCycleBenchmark {
+
+    private static final int TOTAL_MATCHES = 96;
+    private static final int VARIANTS = 4;
+
+    @Param({"unchanged", "changed"})
+    public String inventory;
+
+    private MockWebServer tesla;
+    private MockWebServer telegram;
+    private Path vinStoreDir;
+    private TeslaInventoryBot bot;
+    private WatchTarget target;
+
+    @Setup
+    public void setup() throws IOException {
+        byte[][][] pages = buildPages("changed".equals(inventory) ? VARIANTS : 1);
+        AtomicInteger cycle = new AtomicInteger(-1);
+
+        tesla = MockBackends.newServer();
+        tesla.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                int page = MockBackends.page(request);
+                // Yeni tur ilk sayfa isteğiyle başlar; diğer sayfalar aynı turun varyantından okunur
+                int current = page == 0 ? cycle.incrementAndGet() : Math.max(0, cycle.get());
+                byte[][] variant = pages[current % pages.length];
+                if (page >= variant.length) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(new Buffer().write(variant[page]));
+            }
+        });
+        tesla.start();
+
+        telegram = MockBackends.newServer();
+        telegram.setDispatcher(MockBackends.telegramOk());
+        telegram.start();
+
+        vinStoreDir = Files.createTempDirectory("poll-cycle-bench");
+        MockBackends.configureBot(tesla, telegram, vinStoreDir);
+        bot = new TeslaInventoryBot();
+        target = bot.getTargets().get(0);
+        // İlk tur (mevcut envanterin gönderimi) ölçüm dışında kalır
+        bot.pollNow(target);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        bot.stop();
+        tesla.shutdown();
+        telegram.shutdown();
+        MockBackends.deleteRecursively(vinStoreDir);
+    }
+
+    @Benchmark
+    public PollOutcome poll() {
+        return bot.pollNow(target);
+    }
+
+    // variants x sayfa; 0 dışındaki varyantlarda ilk sayfa farklı VIN'lerden oluşur, ikinci sayfanın
+    // fiyatları ve durumları farklı tohumla üretilir
+    private static byte[][][] buildPages(int variants) {
+        int pageCount = TOTAL_MATCHES / MockBackends.PAGE_SIZE;
+        byte[][][] pages = new byte[variants][pageCount][];
+        for (int v = 0; v < variants; v++) {
+            for (int p = 0; p < pageCount; p++) {
+                pages[v][p] = InventoryFixtures.page(TOTAL_MATCHES, p * MockBackends.PAGE_SIZE,
+                        MockBackends.PAGE_SIZE, p == 0 && v > 0 ? "NEWCA" + v : "LRWYGC", p * 31L + (p == 1 ? v : 0));
+            }
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,417 @@
+package com.teslabot.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.teslabot.ResponseCapture;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.MultipartReader;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Yakalama dosyasını (CAPTURE_FILE) yerel bir portta Tesla API'si olarak yeniden oynatır ve Telegram yerine
+// geçen ikinci bir sunucuda botun göndereceği mesajları kaydeder. Her istek, oynatma saatine göre o hedef ve
+// offset için en son kaydedilmiş yanıtı alır; saat gerçek zamanlı ya da --speed katı hızlı ilerler.
+// Gecikme ve hata (503, 429, bağlantı kopması, belirli bir aralıkta 429 fırtınası) eklenebilir. Çıkışta
+// her VIN'in ilk sunulduğu andan Telegram'a ulaştığı ana kadar geçen tespit gecikmesi özetlenir. Fotoğraflı
+// bildirimler için /media altında görsel yerine geçen bir gövde sunulur; Telegram taklidi sendPhoto ve
+// sendMediaGroup'a file_id döndürür ve yüklenen görselleri sayar.
+//   java -cp target/benchmarks.jar com.teslabot.bench.ReplayServer <yakalama-dosyası> [--port 18080]
+//        [--telegram-port 18081] [--speed 1] [--loop] [--latency-ms 0] [--jitter-ms 0] [--captured-latency]
+//        [--error-rate 0] [--throttle-rate 0] [--drop-rate 0] [--storm <başlangıç-bitiş sn>]
+//        [--sent telegram-sent.jsonl] [--duration <sn>]
+public final class ReplayServer {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern SERVED_VIN = Pattern.compile("\"VIN\":\"([A-Za-z0-9_]+)\"");
+    private static final Pattern SENT_VIN = Pattern.compile("VIN: ([A-Za-z0-9_]+)");
+    private static final Pattern PART_NAME = Pattern.compile("name=\"([^\"]*)\"");
+    private static final byte[] IMAGE = new byte[48 * 1024]; // MEDIA_IMAGE_URL için görsel yerine geçen gövde
+
+    private ReplayServer() {
+    }
+
+    // Hedef ve offset başına zamana göre sıralı kayıtlar. 304 kaydı kendi zamanında geçerli olur ama
+    // gövdesi aynı sayfanın önceki 200 yanıtından sunulur.
+    private static final class Timeline {
+        final Map<String, long[]> times = new HashMap<>();
+        final Map<String, ResponseCapture.Record[]> records = new HashMap<>();
+        final long start;
+        final long end;
+
+        Timeline(List<ResponseCapture.Record> all) {
+            List<ResponseCapture.Record> sorted = new ArrayList<>(all);
+            sorted.sort(Comparator.comparingLong(ResponseCapture.Record::getTimestampMillis));
+            Map<String, List<ResponseCapture.Record>> bySlot = new HashMap<>();
+            Map<String, List<Long>> timesBySlot = new HashMap<>();
+            for (ResponseCapture.Record record : sorted) {
+                String slot = slot(record.getTargetKey(), record.getOffset());
+                List<ResponseCapture.Record> served = bySlot.computeIfAbsent(slot, key -> new ArrayList<>());
+                ResponseCapture.Record previous = served.isEmpty() ? null : served.get(served.size() - 1);
+                boolean notModified = record.getStatus() == 304 && previous != null && previous.getStatus() == 200;
+                served.add(notModified ? previous : record);
+                timesBySlot.computeIfAbsent(slot, key -> new ArrayList<>()).add(record.getTimestampMillis());
+            }
+            for (Map.Entry<String, List<ResponseCapture.Record>> entry : bySlot.entrySet()) {
+                records.put(entry.getKey(), entry.getValue().toArray(new ResponseCapture.Record[0]));
+                times.put(entry.getKey(),
+                        timesBySlot.get(entry.getKey()).stream().mapToLong(Long::longValue).toArray());
+            }
+            this.start = sorted.get(0).getTimestampMillis();
+            this.end = sorted.get(sorted.size() - 1).getTimestampMillis();
+        }
+
+        // Oynatma anında geçerli olan kayıt: zamanı position'dan büyük olmayan son kayıt, yoksa ilki
+        ResponseCapture.Record at(String targetKey, int offset, long position) {
+            String slot = slot(targetKey, offset);
+            long[] slotTimes = times.get(slot);
+            if (slotTimes == null) {
+                return null;
+            }
+            int index = Arrays.binarySearch(slotTimes, position);
+            if (index < 0) {
+                index = -index - 2;
+            } else {
+                while (index + 1 < slotTimes.length && slotTimes[index + 1] == position) {
+                    index++;
+                }
+            }
+            return records.get(slot)[Math.max(0, index)];
+        }
+
+        static String slot(String targetKey, int offset) {
+            return targetKey + "#" + offset;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Kullanım: ReplayServer <yakalama-dosyası> [seçenekler]");
+            System.exit(2);
+        }
+        Path captureFile = Paths.get(args[0]);
+        Map<String, String> options = options(args);
+        int teslaPort = Integer.parseInt(options.getOrDefault("port", "18080"));
+        int telegramPort = Integer.parseInt(options.getOrDefault("telegram-port", "18081"));
+        double speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+        boolean loop = options.containsKey("loop");
+        long latencyMillis = Long.parseLong(options.getOrDefault("latency-ms", "0"));
+        long jitterMillis = Long.parseLong(options.getOrDefault("jitter-ms", "0"));
+        boolean capturedLatency = options.containsKey("captured-latency");
+        double errorRate = Double.parseDouble(options.getOrDefault("error-rate", "0"));
+        double throttleRate = Double.parseDouble(options.getOrDefault("throttle-rate", "0"));
+        double dropRate = Double.parseDouble(options.getOrDefault("drop-rate", "0"));
+        long[] storm = range(options.get("storm"));
+        Path sentFile = Paths.get(options.getOrDefault("sent", "telegram-sent.jsonl"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "0"));
+
+        List<ResponseCapture.Record> records = ResponseCapture.readAll(captureFile);
+        if (records.isEmpty()) {
+            System.err.println("Yakalama dosyasında kayıt yok: " + captureFile);
+            System.exit(1);
+        }
+        Timeline timeline = new Timeline(records);
+        long length = Math.max(1, timeline.end - timeline.start + 1);
+        // Oynatma saati ilk Tesla isteğiyle başlar; bot sunucudan sonra başlatılsa da yakalamanın başını görür
+        AtomicLong startNanos = new AtomicLong();
+        long launchedNanos = System.nanoTime();
+
+        Map<String, Long> firstServed = new ConcurrentHashMap<>();
+        Map<String, AtomicLong> statuses = new ConcurrentHashMap<>();
+        MockWebServer tesla = MockBackends.newServer();
+        tesla.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (request.getRequestUrl().encodedPath().startsWith("/media")) {
+                    statuses.computeIfAbsent("media", key -> new AtomicLong()).incrementAndGet();
+                    return new MockResponse()
+                            .setHeader("Content-Type", "image/jpeg")
+                            .setBody(new Buffer().write(IMAGE))
+                            .setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS);
+                }
+                long now = System.nanoTime();
+                startNanos.compareAndSet(0, now);
+                long elapsed = (long) (TimeUnit.NANOSECONDS.toMillis(now - startNanos.get()) * speed);
+                long offsetInCapture = loop ? elapsed % length : Math.min(elapsed, length - 1);
+                long position = timeline.start + offsetInCapture;
+                MockResponse response = respond(request, timeline, position, offsetInCapture / 1000, firstServed);
+                statuses.computeIfAbsent(status(response), key -> new AtomicLong()).incrementAndGet();
+                return response;
+            }
+
+            private MockResponse respond(RecordedRequest request, Timeline timeline, long position,
+                    long captureSecond, Map<String, Long> firstServed) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                if (storm != null && captureSecond >= storm[0] && captureSecond < storm[1]) {
+                    return new MockResponse().setResponseCode(429);
+                }
+                if (random.nextDouble() < dropRate) {
+                    return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START);
+                }
+                if (random.nextDouble() < errorRate) {
+                    return new MockResponse().setResponseCode(503);
+                }
+                if (random.nextDouble() < throttleRate) {
+                    return new MockResponse().setResponseCode(429);
+                }
+                String targetKey;
+                int offset;
+                try {
+                    JsonNode query = MAPPER.readTree(request.getRequestUrl().queryParameter("query"));
+                    JsonNode target = query.path("query");
+                    targetKey = target.path("market").asText() + "/" + target.path("model").asText() + "/"
+                            + target.path("condition").asText();
+                    offset = query.path("offset").asInt();
+                } catch (IOException | IllegalArgumentException | NullPointerException e) {
+                    return new MockResponse().setResponseCode(400);
+                }
+                ResponseCapture.Record record = timeline.at(targetKey, offset, position);
+                if (record == null) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                long delay = capturedLatency ? (long) (record.getLatencyMillis() / speed) : latencyMillis;
+                if (jitterMillis > 0) {
+                    delay += random.nextLong(jitterMillis + 1);
+                }
+                if (record.getStatus() < 0) {
+                    return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START);
+                }
+                if (record.getStatus() != 200) {
+                    return new MockResponse().setResponseCode(record.getStatus())
+                            .setHeadersDelay(delay, TimeUnit.MILLISECONDS);
+                }
+                byte[] body;
+                try {
+                    body = record.body();
+                } catch (IOException e) {
+                    return new MockResponse().setResponseCode(500);
+                }
+                long now = System.currentTimeMillis() + delay;
+                Matcher matcher = SERVED_VIN.matcher(new String(body, StandardCharsets.UTF_8));
+                while (matcher.find()) {
+                    firstServed.putIfAbsent(matcher.group(1), now);
+                }
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(new Buffer().write(body))
+                        .setHeadersDelay(delay, TimeUnit.MILLISECONDS);
+            }
+        });
+        tesla.start(teslaPort);
+
+        List<Long> detectionLatencies = Collections.synchronizedList(new ArrayList<>());
+        Map<String, AtomicLong> announced = new ConcurrentHashMap<>();
+        AtomicLong messages = new AtomicLong();
+        AtomicLong uploads = new AtomicLong();
+        AtomicLong fileIds = new AtomicLong();
+        BufferedWriter sent = Files.newBufferedWriter(sentFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        MockWebServer telegram = MockBackends.newServer();
+        telegram.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                long now = System.currentTimeMillis();
+                String method = request.getRequestUrl().pathSegments()
+                        .get(request.getRequestUrl().pathSize() - 1);
+                Map<String, String> fields = new HashMap<>();
+                int files;
+                try {
+                    files = readFields(request, fields);
+                } catch (IOException | IllegalArgumentException e) {
+                    return new MockResponse().setResponseCode(400);
+                }
+                uploads.addAndGet(files);
+                String text = fields.get("text") != null ? fields.get("text") : fields.get("caption");
+                JsonNode media = null;
+                if (fields.containsKey("media")) {
+                    try {
+                        media = MAPPER.readTree(fields.get("media"));
+                    } catch (IOException e) {
+                        return new MockResponse().setResponseCode(400);
+                    }
+                    StringBuilder captions = new StringBuilder();
+                    for (JsonNode item : media) {
+                        captions.append(item.path("caption").asText()).append('\n');
+                    }
+                    text = captions.toString();
+                }
+                messages.incrementAndGet();
+                ObjectNode line = MAPPER.createObjectNode();
+                line.put("at", now);
+                line.put("method", method);
+                line.put("chat_id", fields.get("chat_id"));
+                line.put("text", text);
+                line.put("uploads", files);
+                synchronized (sent) {
+                    try {
+                        sent.write(line.toString());
+                        sent.newLine();
+                        sent.flush();
+                    } catch (IOException e) {
+                        System.err.println("Mesaj kaydedilemedi: " + e.getMessage());
+                    }
+                }
+                Matcher matcher = SENT_VIN.matcher(text == null ? "" : text);
+                while (matcher.find()) {
+                    String vin = matcher.group(1);
+                    if (announced.computeIfAbsent(vin, key -> new AtomicLong()).incrementAndGet() == 1) {
+                        Long served = firstServed.get(vin);
+                        if (served != null) {
+                            detectionLatencies.add(Math.max(0, now - served));
+                        }
+                    }
+                }
+                // Fotoğraflar için Telegram gibi file_id döndürülür; bot sonraki gönderimlerde bunları kullanır
+                ObjectNode response = MAPPER.createObjectNode().put("ok", true);
+                if (media != null) {
+                    ArrayNode result = response.putArray("result");
+                    for (JsonNode item : media) {
+                        photo(result.addObject(), item.path("media").asText());
+                    }
+                } else if ("sendPhoto".equals(method)) {
+                    photo(response.putObject("result"), fields.getOrDefault("photo", "attach://photo"));
+                } else {
+                    response.putObject("result");
+                }
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(response.toString());
+            }
+
+            private void photo(ObjectNode message, String media) {
+                String fileId = media.startsWith("attach://") ? "replay-" + fileIds.incrementAndGet() : media;
+                message.putArray("photo").addObject().put("file_id", fileId);
+            }
+        });
+        telegram.start(telegramPort);
+
+        System.out.printf("%d kayıt, %d sn yakalama, %.1fx hız%s%n", records.size(),
+                TimeUnit.MILLISECONDS.toSeconds(length), speed, loop ? ", döngü" : "");
+        System.out.printf("TESLA_API_URL=%s TELEGRAM_API_BASE_URL=%s%n", tesla.url("/inventory-results"),
+                telegram.url("").toString().replaceAll("/$", ""));
+        System.out.printf("Fotoğraflı bildirim için: MEDIA_IMAGE_URL='%s'%n",
+                tesla.url("/media") + "?model={model}&options={paint},{interior},{trim}");
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            double seconds = (System.nanoTime() - launchedNanos) / 1e9;
+            long duplicates = announced.values().stream().filter(count -> count.get() > 1).count();
+            long[] latencies;
+            synchronized (detectionLatencies) {
+                latencies = detectionLatencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            }
+            System.out.printf("%.0f sn: Tesla yanıtları %s, %d Telegram mesajı (%.2f/sn), %d görsel yüklemesi, "
+                            + "%d VIN bildirildi, %d tekrar%n", seconds, statuses, messages.get(),
+                    messages.get() / seconds, uploads.get(), announced.size(), duplicates);
+            if (latencies.length > 0) {
+                System.out.printf("Tespit gecikmesi (ilk sunuluş -> Telegram): p50 %d ms, p95 %d ms, en fazla %d ms "
+                                + "(%d VIN)%n", percentile(latencies, 50), percentile(latencies, 95),
+                        latencies[latencies.length - 1], latencies.length);
+            }
+            try {
+                sent.close();
+                tesla.shutdown();
+                telegram.shutdown();
+            } catch (IOException e) {
+                System.err.println("Kapatılamadı: " + e.getMessage());
+            }
+        }));
+        if (durationSeconds > 0) {
+            TimeUnit.SECONDS.sleep(durationSeconds);
+            System.exit(0);
+        }
+        Thread.currentThread().join();
+    }
+
+    // Form ya da multipart gövdedeki alanlar; sonuç: yüklenen dosya sayısı
+    private static int readFields(RecordedRequest request, Map<String, String> fields) throws IOException {
+        MediaType type = MediaType.parse(String.valueOf(request.getHeader("Content-Type")));
+        if (type == null || !"multipart".equals(type.type())) {
+            HttpUrl form = HttpUrl.get("http://localhost/?" + request.getBody().readString(StandardCharsets.UTF_8));
+            for (String name : form.queryParameterNames()) {
+                fields.put(name, form.queryParameter(name));
+            }
+            return 0;
+        }
+        int files = 0;
+        try (MultipartReader reader = new MultipartReader(request.getBody(), type.parameter("boundary"))) {
+            MultipartReader.Part part;
+            while ((part = reader.nextPart()) != null) {
+                String disposition = String.valueOf(part.headers().get("Content-Disposition"));
+                Matcher name = PART_NAME.matcher(disposition);
+                if (disposition.contains("filename=")) {
+                    files++;
+                    part.body().readByteString();
+                } else if (name.find()) {
+                    fields.put(name.group(1), part.body().readUtf8());
+                }
+            }
+        }
+        return files;
+    }
+
+    private static String status(MockResponse response) {
+        if (response.getSocketPolicy() == SocketPolicy.DISCONNECT_AT_START) {
+            return "drop";
+        }
+        String status = response.getStatus();
+        String[] parts = status.split(" ");
+        return parts.length > 1 ? parts[1] : status;
+    }
+
+    // "--ad değer" çiftleri; değeri olmayan bayraklar (--loop) boş değerle
+    static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Beklenmeyen argüman: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(name, args[++i]);
+            } else {
+                options.put(name, "");
+            }
+        }
+        return options;
+    }
+
+    // "120-180" -> {120, 180}
+    private static long[] range(String value) {
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split("-");
+        return new long[]{Long.parseLong(parts[0].trim()), Long.parseLong(parts[1].trim())};
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
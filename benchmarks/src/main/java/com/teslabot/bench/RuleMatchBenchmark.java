@@ -0,0 +1,109 @@
+package com.teslabot.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teslabot.InventoryCar;
+import com.teslabot.InventoryResponseParser;
+import com.teslabot.RuleIndex;
+import com.teslabot.WatchRule;
+import com.teslabot.WatchTarget;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Bir ilanın binlerce abone kuralıyla eşleştirilmesi: ters indeks (RuleIndex) ve her kuralı tek tek
+// kontrol eden doğrusal tarama. Kurallar sabit tohumla üretilir; kurulumda iki yolun sonucu karşılaştırılır.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleMatchBenchmark {
+
+    @Param({"1000", "10000"})
+    public int rules;
+
+    private WatchTarget target;
+    private List<WatchRule> ruleList;
+    private RuleIndex index;
+    private List<InventoryCar> cars;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        target = new WatchTarget("DE", "de", "my", "new");
+        Random random = new Random(7);
+        String[] markets = {"DE", "FR", "NL", "TR"};
+        ruleList = new ArrayList<>(rules);
+        for (int i = 0; i < rules; i++) {
+            ruleList.add(new WatchRule("rule-" + i, Integer.toString(i % 500), markets[random.nextInt(markets.length)],
+                    "my", pick(random, InventoryFixtures.trimCodes()), pick(random, InventoryFixtures.paints()),
+                    pick(random, InventoryFixtures.interiors()), pick(random, new String[]{"2023", "2024", "2025"}),
+                    0, random.nextBoolean() ? 0 : 45000 + random.nextInt(10) * 1000L));
+        }
+        index = new RuleIndex(ruleList);
+        InventoryResponseParser parser = new InventoryResponseParser(new ObjectMapper().getFactory());
+        cars = parser.parse(InventoryFixtures.page(256, 0, 256, "LRWYGC", 42)).getCars();
+        for (InventoryCar car : cars) {
+            if (!new HashSet<>(index.match(target, car)).equals(new HashSet<>(linearMatch(car)))) {
+                throw new IllegalStateException("İndeks ve doğrusal tarama farklı sonuç verdi: " + car);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<WatchRule> index() {
+        return index.match(target, cars.get(next++ & 255));
+    }
+
+    @Benchmark
+    public List<WatchRule> linearScan() {
+        return linearMatch(cars.get(next++ & 255));
+    }
+
+    private List<WatchRule> linearMatch(InventoryCar car) {
+        List<WatchRule> matched = new ArrayList<>();
+        for (WatchRule rule : ruleList) {
+            if (rule.appliesTo(target) && accepts(rule.getTrims(), car.getTrim())
+                    && accepts(rule.getPaints(), car.getPaint()) && accepts(rule.getInteriors(), car.getInterior())
+                    && accepts(rule.getYears(), car.getYear()) && rule.matchesPrice(car.getPrice())) {
+                matched.add(rule);
+            }
+        }
+        return matched;
+    }
+
+    private static boolean accepts(Set<String> values, String value) {
+        return values.isEmpty() || values.contains(value.toUpperCase());
+    }
+
+    // Yarı olasılıkla kısıtsız, aksi halde bir ya da iki değer
+    private static Set<String> pick(Random random, String[] values) {
+        if (random.nextBoolean()) {
+            return Collections.emptySet();
+        }
+        Set<String> picked = new HashSet<>();
+        picked.add(values[random.nextInt(values.length)]);
+        if (random.nextBoolean()) {
+            picked.add(values[random.nextInt(values.length)]);
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,65 @@
+package com.teslabot.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teslabot.InventoryCar;
+import com.teslabot.InventoryEvent;
+import com.teslabot.InventoryResponseParser;
+import com.teslabot.InventorySnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// İki tur arasındaki fark: ilanların ~%2'si yeni, ~%2'sinin fiyatı değişmiş
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotDiffBenchmark {
+
+    @Param({"24", "5000"})
+    public int results;
+
+    private InventorySnapshot previous;
+    private List<InventoryCar> current;
+
+    @Setup
+    public void setup() throws IOException {
+        InventoryResponseParser parser = new InventoryResponseParser(new ObjectMapper().getFactory());
+        List<InventoryCar> before = parser.parse(InventoryFixtures.page(results, 0, results, "LRWYGC", 42)).getCars();
+        previous = InventorySnapshot.of(before);
+        current = new ArrayList<>(before.size());
+        int changed = Math.max(1, results / 50);
+        for (int i = 0; i < before.size(); i++) {
+            InventoryCar car = before.get(i);
+            if (i < changed) {
+                car = new InventoryCar(InventoryFixtures.vin("NEWCAR", i), car.getModel(), car.getTrimName(),
+                        car.getYear(), car.getPrice(), car.getCurrency(), car.getPaint(), car.getInterior(),
+                        car.isInTransit());
+            } else if (i < 2 * changed) {
+                car = new InventoryCar(car.getVin(), car.getModel(), car.getTrimName(), car.getYear(),
+                        car.getPrice() - 500, car.getCurrency(), car.getPaint(), car.getInterior(), car.isInTransit());
+            }
+            current.add(car);
+        }
+    }
+
+    @Benchmark
+    public List<InventoryEvent> snapshotAndDiff() {
+        return InventorySnapshot.of(current).diff(previous);
+    }
+}
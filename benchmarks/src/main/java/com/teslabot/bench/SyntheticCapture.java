@@ -0,0 +1,62 @@
+package com.teslabot.bench;
+
+import com.teslabot.ResponseCapture;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// ReplayServer için gerçek yakalama olmadan örnek senaryo dosyası üretir (DE/my/new, 10 saniyelik adımlar):
+// ilk çeyrekte sabit 48 araç, ardından tek adımda 100 yeni araç, yarıdan sonra son sayfanın gelip gittiği
+// dalgalanan toplam, dörtte üçte bir dakikalık 429 fırtınası ve sonda tekrar sabit envanter.
+//   java -cp target/benchmarks.jar com.teslabot.bench.SyntheticCapture <dosya> [süre dakika]
+public final class SyntheticCapture {
+    private static final String TARGET = "DE/my/new";
+    private static final String VIN_PREFIX = "REPLAY";
+    private static final long STEP_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final int BASELINE = 48;
+    private static final int BURST = 100;
+
+    private SyntheticCapture() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Kullanım: SyntheticCapture <dosya> [süre dakika]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        long minutes = args.length > 1 ? Long.parseLong(args[1]) : 10;
+        Files.deleteIfExists(file);
+
+        long duration = TimeUnit.MINUTES.toMillis(minutes);
+        long start = System.currentTimeMillis() - duration;
+        ResponseCapture capture = new ResponseCapture(file);
+        int steps = 0;
+        for (long at = 0; at < duration; at += STEP_MILLIS, steps++) {
+            double phase = at / (double) duration;
+            long timestamp = start + at;
+            if (phase >= 0.75 && at < duration * 3 / 4 + TimeUnit.MINUTES.toMillis(1)) {
+                capture.record(timestamp, TARGET, 0, 429, 40, null);
+                continue;
+            }
+            int total;
+            if (phase < 0.25) {
+                total = BASELINE;
+            } else if (phase >= 0.5 && phase < 2 / 3.0 && steps % 2 == 1) {
+                total = BASELINE + BURST - MockBackends.PAGE_SIZE; // Son sayfa geçici olarak kaybolur
+            } else {
+                total = BASELINE + BURST;
+            }
+            for (int offset = 0; offset < total; offset += MockBackends.PAGE_SIZE) {
+                int cars = Math.min(MockBackends.PAGE_SIZE, total - offset);
+                // Tohum sayfaya bağlı: aynı offset her adımda aynı araçları aynı fiyatla verir
+                byte[] body = InventoryFixtures.page(total, offset, cars, VIN_PREFIX, offset / MockBackends.PAGE_SIZE);
+                capture.record(timestamp, TARGET, offset, 200, 120 + offset / MockBackends.PAGE_SIZE * 15, body);
+            }
+        }
+        capture.close();
+        System.out.printf("%s: %d adım, %d dakika, %d bayt%n", file, steps, minutes, Files.size(file));
+    }
+}
@@ -0,0 +1,99 @@
+package com.teslabot.bench;
+
+import com.teslabot.VinStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Gönderilmiş VIN kontrolü: 10^4 - 10^6 kayıtlı depoda var olan / olmayan VIN ve yeni VIN ekleme
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class VinStoreBenchmark {
+
+    private static final int LOOKUP_KEYS = 4096; // 2'nin kuvveti, indeks maskelemesi için
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private Path directory;
+    private VinStore store;
+    private String[] present;
+    private String[] absent;
+    private int next;
+    private int added;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("vin-store-bench");
+        // Snapshot doğrudan yazılır; açılış, gerçek başlangıçtaki yükleme yolunu izler
+        long now = System.currentTimeMillis();
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve("sent_vins.txt"),
+                StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                writer.write(InventoryFixtures.vin("LRWYGC", i));
+                writer.write('\t');
+                writer.write(Long.toString(now));
+                writer.write('\n');
+            }
+        }
+        store = new VinStore(directory, 0, 32, 1000, Integer.MAX_VALUE, 60);
+        present = new String[LOOKUP_KEYS];
+        absent = new String[LOOKUP_KEYS];
+        for (int i = 0; i < LOOKUP_KEYS; i++) {
+            present[i] = InventoryFixtures.vin("LRWYGC", (int) ((i * 2654435761L) % size));
+            absent[i] = InventoryFixtures.vin("XP7YGC", i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean containsSent() {
+        return store.contains(present[next++ & (LOOKUP_KEYS - 1)]);
+    }
+
+    @Benchmark
+    public boolean containsNew() {
+        return store.contains(absent[next++ & (LOOKUP_KEYS - 1)]);
+    }
+
+    // Zaten gönderilmiş VIN: journal'a yazılmaz
+    @Benchmark
+    public boolean markSentDuplicate() {
+        return store.markSent(present[next++ & (LOOKUP_KEYS - 1)]);
+    }
+
+    // Yeni VIN: bellek + journal ekleme (fsync toplu)
+    @Benchmark
+    public boolean markSentNew() {
+        return store.markSent(InventoryFixtures.vin("5YJ3E1", added++));
+    }
+}
@@ -0,0 +1,80 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+// Botun çalışma saat aralığı (İstanbul saati). Açılışta bir kez parse edilir.
+public final class ActiveHours {
+    private static final Logger logger = LoggerFactory.getLogger(ActiveHours.class);
+
+    private final LocalTime start; // null: her zaman aktif
+    private final LocalTime end;
+    private final ZoneId zone;
+
+    public ActiveHours(LocalTime start, LocalTime end, ZoneId zone) {
+        this.start = start;
+        this.end = end;
+        this.zone = zone;
+    }
+
+    public static ActiveHours fromEnv() {
+        return parse(Env.get("BOT_ACTIVE_START", null), Env.get("BOT_ACTIVE_END", null),
+                ZoneId.of("Europe/Istanbul"));
+    }
+
+    public static ActiveHours parse(String start, String end, ZoneId zone) {
+        if (start == null || end == null || start.trim().isEmpty() || end.trim().isEmpty()) {
+            return new ActiveHours(null, null, zone); // Saat aralığı tanımlı değilse her zaman çalış
+        }
+        try {
+            return new ActiveHours(LocalTime.parse(start.trim()), LocalTime.parse(end.trim()), zone);
+        } catch (DateTimeParseException e) {
+            logger.warn("Çalışma saati okunamadı ({} - {}): {}. Bot her zaman çalışacak.", start, end, e.getMessage());
+            return new ActiveHours(null, null, zone);
+        }
+    }
+
+    public boolean isAlwaysActive() {
+        return start == null;
+    }
+
+    public boolean isActive(ZonedDateTime time) {
+        if (start == null) {
+            return true;
+        }
+        LocalTime now = time.withZoneSameInstant(zone).toLocalTime();
+        if (start.isBefore(end)) {
+            return !now.isBefore(start) && !now.isAfter(end);
+        }
+        // Gece yarısı aralığı (örn: 22:00 - 06:00)
+        return !now.isBefore(start) || !now.isAfter(end);
+    }
+
+    // Aktif aralık başlayana kadar kalan süre; aralık içindeyse sıfır
+    public Duration untilActive(ZonedDateTime time) {
+        if (isActive(time)) {
+            return Duration.ZERO;
+        }
+        ZonedDateTime local = time.withZoneSameInstant(zone);
+        ZonedDateTime next = local.with(start);
+        if (!next.isAfter(local)) {
+            next = next.plusDays(1);
+        }
+        return Duration.between(local, next);
+    }
+
+    public ZonedDateTime now() {
+        return ZonedDateTime.now(zone);
+    }
+
+    @Override
+    public String toString() {
+        return start == null ? "her zaman" : start + " - " + end;
+    }
+}
@@ -0,0 +1,311 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Her hedef için kendi aralığıyla çalışan zamanlayıcı. Envanter değişirken aralık kısalır,
+// durağan olduğunda ya da hatalar sürdüğünde uzar; her aralığa jitter eklenir.
+// Bir sonraki tur ancak önceki bittikten sonra planlandığı için turlar üst üste binmez.
+// Çalışma saatleri dışında her 10 saniyede uyanmak yerine bir sonraki aralık başına kadar beklenir.
+// Hedefin devre kesicisi açıldığında pause() ile turlar açık kalma süresi bitene kadar ertelenir.
+// Hedefler çalışırken eklenip çıkarılabilir; aralık sınırları setTiming ile değiştirilebilir.
+public class AdaptiveScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveScheduler.class);
+
+    private final ScheduledExecutorService timer;
+    private final ExecutorService workers;
+    private volatile Timing timing; // Yapılandırma yeniden yüklenince setTiming ile bütün olarak değişir
+
+    // Aralık sınırları, jitter ve çalışma saatleri
+    public static final class Timing {
+        // Timing.fromEnv()'in okuduğu anahtarlar (LiveConfig)
+        public static final List<String> KEYS = List.of("POLL_INTERVAL_SECONDS", "POLL_MIN_INTERVAL_SECONDS",
+                "POLL_STABLE_MAX_INTERVAL_SECONDS", "POLL_ERROR_MAX_INTERVAL_SECONDS", "POLL_JITTER_PERCENT",
+                "BOT_ACTIVE_START", "BOT_ACTIVE_END");
+
+        final ActiveHours activeHours;
+        final long baseMillis;
+        final long minMillis;
+        final long stableMaxMillis;
+        final long errorMaxMillis;
+        final double jitter;
+
+        public Timing(ActiveHours activeHours, long baseMillis, long minMillis, long stableMaxMillis,
+                long errorMaxMillis, double jitter) {
+            this.activeHours = activeHours;
+            this.baseMillis = Math.max(1, baseMillis);
+            this.minMillis = Math.max(1, Math.min(minMillis, this.baseMillis));
+            this.stableMaxMillis = Math.max(this.baseMillis, stableMaxMillis);
+            this.errorMaxMillis = Math.max(this.baseMillis, errorMaxMillis);
+            this.jitter = Math.max(0, Math.min(0.5, jitter));
+        }
+
+        public static Timing fromEnv() {
+            return fromEnv(ActiveHours.fromEnv());
+        }
+
+        public static Timing fromEnv(ActiveHours activeHours) {
+            return new Timing(activeHours,
+                    TimeUnit.SECONDS.toMillis(Env.getLong("POLL_INTERVAL_SECONDS", 10)),
+                    TimeUnit.SECONDS.toMillis(Env.getLong("POLL_MIN_INTERVAL_SECONDS", 3)),
+                    TimeUnit.SECONDS.toMillis(Env.getLong("POLL_STABLE_MAX_INTERVAL_SECONDS", 30)),
+                    TimeUnit.SECONDS.toMillis(Env.getLong("POLL_ERROR_MAX_INTERVAL_SECONDS", 300)),
+                    Env.getInt("POLL_JITTER_PERCENT", 10) / 100.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("temel %d ms, en az %d ms, durağan en fazla %d ms, hatada en fazla %d ms, "
+                    + "jitter %%%d, çalışma saatleri: %s", baseMillis, minMillis, stableMaxMillis, errorMaxMillis,
+                    Math.round(jitter * 100), activeHours);
+        }
+    }
+
+    // Küme modunda hedefin turlarını diğer düğümlerin turları arasına yerleştirmek için sonraki gecikmeyi
+    // düzeltir (ClusterCoordinator.align)
+    public interface PhaseAligner {
+        long align(String name, long nowMillis, long intervalMillis, long delayMillis);
+    }
+
+    private final Map<String, Cadence> cadences = new ConcurrentHashMap<>();
+    private volatile PhaseAligner phaseAligner;
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private volatile boolean stopped = false;
+
+    // Hedef başına aralık durumu
+    private final class Cadence {
+        final String name;
+        final Supplier<PollOutcome> poll;
+        volatile long intervalMillis;
+        volatile int consecutiveErrors = 0;
+        volatile long pausedUntil = 0;
+        // Aşağıdakiler cadence ile korunur: planlanmış bir tur ancak generation değişmediyse çalışır
+        boolean sleeping = false;
+        boolean removed = false;
+        long generation = 0;
+
+        Cadence(String name, Supplier<PollOutcome> poll, long intervalMillis, int consecutiveErrors) {
+            this.name = name;
+            this.poll = poll;
+            this.intervalMillis = intervalMillis;
+            this.consecutiveErrors = consecutiveErrors;
+        }
+
+        long next(PollOutcome outcome) {
+            Timing t = timing;
+            switch (outcome) {
+                case CHANGED:
+                    consecutiveErrors = 0;
+                    intervalMillis = Math.max(t.minMillis, Math.min(intervalMillis, t.baseMillis) / 2);
+                    break;
+                case ERROR:
+                    consecutiveErrors++;
+                    intervalMillis = Math.min(t.errorMaxMillis,
+                            t.baseMillis << Math.min(consecutiveErrors, 10));
+                    break;
+                case PAUSED:
+                    break;
+                default:
+                    if (consecutiveErrors > 0) {
+                        consecutiveErrors = 0;
+                        intervalMillis = t.baseMillis;
+                    } else {
+                        intervalMillis = Math.min(t.stableMaxMillis, Math.max(t.minMillis, intervalMillis * 5 / 4));
+                    }
+                    break;
+            }
+            return withJitter(t, intervalMillis);
+        }
+    }
+
+    public AdaptiveScheduler(ScheduledExecutorService timer, ExecutorService workers, ActiveHours activeHours) {
+        this(timer, workers, Timing.fromEnv(activeHours));
+    }
+
+    public AdaptiveScheduler(ScheduledExecutorService timer, ExecutorService workers, ActiveHours activeHours,
+            long baseMillis, long minMillis, long stableMaxMillis, long errorMaxMillis, double jitter) {
+        this(timer, workers, new Timing(activeHours, baseMillis, minMillis, stableMaxMillis, errorMaxMillis, jitter));
+    }
+
+    public AdaptiveScheduler(ScheduledExecutorService timer, ExecutorService workers, Timing timing) {
+        this.timer = timer;
+        this.workers = workers;
+        this.timing = timing;
+        logger.info("Kontrol aralığı: {}", timing);
+    }
+
+    // Hedefi zamanlamaya ekler; initialDelay ile hedeflerin aynı anda başlaması önlenir
+    public void add(String name, Supplier<PollOutcome> poll, long initialDelayMillis) {
+        add(name, poll, initialDelayMillis, timing.baseMillis, 0);
+    }
+
+    // Önceki çalışmadan kalan aralık ve hata sayısıyla devam eder; değerler güncel sınırlara çekilir
+    public void add(String name, Supplier<PollOutcome> poll, long initialDelayMillis, long intervalMillis,
+            int consecutiveErrors) {
+        long interval = clamp(timing, intervalMillis);
+        Cadence cadence = new Cadence(name, poll, interval, Math.max(0, consecutiveErrors));
+        Cadence previous = cadences.put(name, cadence);
+        if (previous != null) {
+            cancel(previous);
+        }
+        synchronized (cadence) {
+            schedule(cadence, initialDelayMillis);
+        }
+    }
+
+    // Hedef zamanlamadan çıkarılır; sürmekte olan tur tamamlanır ama yenisi planlanmaz
+    public void remove(String name) {
+        Cadence cadence = cadences.remove(name);
+        if (cadence != null) {
+            cancel(cadence);
+        }
+    }
+
+    private static void cancel(Cadence cadence) {
+        synchronized (cadence) {
+            cadence.removed = true;
+            cadence.generation++;
+        }
+    }
+
+    // Aralıklar yeni sınırlara çekilir ve sonraki turdan itibaren yeni değerlerle hesaplanır. Çalışma saatleri
+    // dışında bekleyen hedefler uyandırılır; yeni çalışma saatlerine göre ya hemen kontrol edilir ya da
+    // yeniden uyutulur.
+    public void setTiming(Timing timing) {
+        this.timing = timing;
+        for (Cadence cadence : cadences.values()) {
+            cadence.intervalMillis = clamp(timing, cadence.intervalMillis);
+            synchronized (cadence) {
+                if (cadence.sleeping && !cadence.removed) {
+                    cadence.generation++;
+                    schedule(cadence, 0);
+                }
+            }
+        }
+        logger.info("Kontrol aralığı güncellendi: {}", timing);
+    }
+
+    private static long clamp(Timing timing, long intervalMillis) {
+        return Math.max(timing.minMillis,
+                Math.min(Math.max(timing.stableMaxMillis, timing.errorMaxMillis), intervalMillis));
+    }
+
+    // Hedefin sonraki turu en erken untilMillis'te çalışır (ör. devre kesicinin deneme isteği zamanı)
+    public void pause(String name, long untilMillis) {
+        Cadence cadence = cadences.get(name);
+        if (cadence != null) {
+            cadence.pausedUntil = Math.max(cadence.pausedUntil, untilMillis);
+        }
+    }
+
+    public void setPhaseAligner(PhaseAligner phaseAligner) {
+        this.phaseAligner = phaseAligner;
+    }
+
+    public long getBaseMillis() {
+        return timing.baseMillis;
+    }
+
+    public long currentIntervalMillis(String name) {
+        Cadence cadence = cadences.get(name);
+        return cadence == null ? timing.baseMillis : cadence.intervalMillis;
+    }
+
+    // Hedef zamanlamada yoksa -1
+    public int consecutiveErrors(String name) {
+        Cadence cadence = cadences.get(name);
+        return cadence == null ? -1 : cadence.consecutiveErrors;
+    }
+
+    // cadence kilidi tutulurken çağrılır
+    private void schedule(Cadence cadence, long delayMillis) {
+        if (stopped || cadence.removed) {
+            return;
+        }
+        long generation = cadence.generation;
+        try {
+            timer.schedule(() -> tick(cadence, generation), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("[{}] Zamanlayıcı kapalı, tur planlanmadı", cadence.name);
+        }
+    }
+
+    private void tick(Cadence cadence, long generation) {
+        if (stopped) {
+            return;
+        }
+        synchronized (cadence) {
+            if (cadence.generation != generation || cadence.removed) {
+                return;
+            }
+            Timing t = timing;
+            Duration untilActive = t.activeHours.untilActive(t.activeHours.now());
+            if (!untilActive.isZero()) {
+                if (!cadence.sleeping) {
+                    logger.info("[{}] Çalışma saatleri dışında ({}). {} dakika sonra devam edilecek.", cadence.name,
+                            t.activeHours, untilActive.toMinutes());
+                    cadence.sleeping = true;
+                }
+                schedule(cadence, untilActive.toMillis() + withJitter(t, t.minMillis));
+                return;
+            }
+            cadence.sleeping = false;
+        }
+        try {
+            workers.execute(() -> run(cadence));
+        } catch (RejectedExecutionException e) {
+            logger.debug("[{}] İş havuzu kapalı, tur çalıştırılmadı", cadence.name);
+        }
+    }
+
+    private void run(Cadence cadence) {
+        PollOutcome outcome = PollOutcome.ERROR;
+        try {
+            outcome = cadence.poll.get();
+        } catch (RuntimeException e) {
+            logger.error("[{}] Kontrol sırasında beklenmeyen hata: {}", cadence.name, e.getMessage());
+        } finally {
+            polls.incrementAndGet();
+            if (outcome == PollOutcome.CHANGED) {
+                changes.incrementAndGet();
+            }
+            long delay = cadence.next(outcome);
+            long now = System.currentTimeMillis();
+            PhaseAligner aligner = phaseAligner;
+            if (aligner != null) {
+                delay = aligner.align(cadence.name, now, cadence.intervalMillis, delay);
+            }
+            delay = Math.max(delay, cadence.pausedUntil - now);
+            logger.debug("[{}] Sonuç: {}, sonraki kontrol {} ms sonra", cadence.name, outcome, delay);
+            synchronized (cadence) {
+                schedule(cadence, delay);
+            }
+        }
+    }
+
+    private static long withJitter(Timing timing, long millis) {
+        if (timing.jitter == 0) {
+            return millis;
+        }
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-timing.jitter, timing.jitter);
+        return Math.max(1, Math.round(millis * factor));
+    }
+
+    public void stop() {
+        stopped = true;
+        logger.info("Zamanlayıcı durduruldu: {} kontrol, {} değişiklik içeren tur", polls.get(), changes.get());
+    }
+}
@@ -0,0 +1,208 @@
+package com.teslabot;
+
+import java.util.concurrent.TimeUnit;
+
+// Kapalı / açık / yarı açık devre kesici. Son istekler kayan bir pencerede tutulur (en fazla windowSize
+// istek, windowMillis'ten eski olanlar sayılmaz); hata oranı eşiği aşınca ya da art arda engelleme
+// yanıtları (403/429/5xx) gelince devre açılır ve açık kalma süresi boyunca istek yapılmaz. Süre dolunca
+// tek bir deneme isteğine izin verilir (yarı açık): başarılıysa devre kapanır, değilse süre ikiye katlanarak
+// yeniden açılır. Hedefler ve proxy'ler ayrı ayarlarla kendi kesicisini kullanır.
+//
+// Yarı açık durumda aynı anda en fazla bir deneme isteği vardır ve deneme her zaman biter: sonucu
+// recordSuccess/recordFailure ile kaydedilir, sonuçsuz kalırsa releaseProbe ile bırakılır. Bunlardan hiçbiri
+// gelmezse (ör. istek gönderilmeden fırlatılan hata) deneme son açık kalma süresi kadar sonra kaybolmuş
+// sayılır ve tryAcquire yeni bir deneme verir; kesici yarı açıkta takılı kalmaz.
+public final class CircuitBreaker {
+
+    // Sıralama durum dosyasında sayı olarak saklanır; yalnızca sona ekleyin
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public static final class Settings {
+        final int windowSize;
+        final long windowMillis;
+        final int minCalls; // Oran hesaplanmadan önce penceredeki en az istek
+        final double failureRate;
+        final int consecutiveFailures; // Art arda bu kadar hata devreyi açar (0: kapalı)
+        final int severeFailures; // Art arda bu kadar engelleme yanıtı devreyi açar (0: kapalı)
+        final long baseOpenMillis;
+        final long maxOpenMillis;
+
+        public Settings(int windowSize, long windowMillis, int minCalls, double failureRate, int consecutiveFailures,
+                int severeFailures, long baseOpenMillis, long maxOpenMillis) {
+            this.windowSize = Math.max(1, windowSize);
+            this.windowMillis = Math.max(1, windowMillis);
+            this.minCalls = Math.max(1, Math.min(minCalls, this.windowSize));
+            this.failureRate = failureRate <= 0 ? 1.01 : Math.min(1, failureRate);
+            this.consecutiveFailures = Math.max(0, consecutiveFailures);
+            this.severeFailures = Math.max(0, severeFailures);
+            this.baseOpenMillis = Math.max(1, baseOpenMillis);
+            this.maxOpenMillis = Math.max(this.baseOpenMillis, maxOpenMillis);
+        }
+
+        // Hedef başına kesici: kısa pencerede yarıdan fazlası hatalıysa ya da art arda 3 engelleme yanıtında
+        public static Settings forTargets() {
+            return new Settings(
+                    Env.getInt("CIRCUIT_WINDOW_SIZE", 20),
+                    TimeUnit.MINUTES.toMillis(Env.getLong("CIRCUIT_WINDOW_MINUTES", 10)),
+                    Env.getInt("CIRCUIT_MIN_CALLS", 5),
+                    Env.getInt("CIRCUIT_FAILURE_RATE_PERCENT", 50) / 100.0,
+                    0,
+                    Env.getInt("CIRCUIT_SEVERE_FAILURES", 3),
+                    TimeUnit.SECONDS.toMillis(Env.getLong("CIRCUIT_OPEN_SECONDS", 60)),
+                    TimeUnit.MINUTES.toMillis(Env.getLong("CIRCUIT_MAX_OPEN_MINUTES", 30)));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("pencere %d istek / %d dk, en az %d istek, hata oranı %%%d, art arda %d hata, "
+                            + "art arda %d engelleme, açık kalma %d sn - %d dk", windowSize,
+                    TimeUnit.MILLISECONDS.toMinutes(windowMillis), minCalls, Math.round(Math.min(1, failureRate) * 100),
+                    consecutiveFailures, severeFailures, TimeUnit.MILLISECONDS.toSeconds(baseOpenMillis),
+                    TimeUnit.MILLISECONDS.toMinutes(maxOpenMillis));
+        }
+    }
+
+    private final Settings settings;
+    private final long[] times; // Halka tampon: isteğin zamanı
+    private final boolean[] failed;
+    private int next = 0;
+    private int size = 0;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private int consecutiveSevere = 0;
+    private int openCount = 0; // Arada başarılı istek olmadan kaç kez açıldı; açık kalma süresini belirler
+    private long openUntil = 0;
+    private long openMillis; // Son açık kalma süresi; deneme isteği en fazla bu kadar beklenir
+    private long probeStartedAt = 0;
+
+    public CircuitBreaker(Settings settings) {
+        this.settings = settings;
+        this.times = new long[settings.windowSize];
+        this.failed = new boolean[settings.windowSize];
+        this.openMillis = settings.baseOpenMillis;
+    }
+
+    // İstek yapılabilir mi; durumu değiştirmez (seçim ağırlığı vb. için)
+    public synchronized boolean isCallPermitted(long now) {
+        return state == State.CLOSED || (state == State.OPEN && now >= openUntil) || probeExpired(now);
+    }
+
+    // İstek yapılacaksa true. Açık kalma süresi dolduysa devre yarı açığa geçer ve yalnızca bu çağrı
+    // deneme isteği olarak geçer; sonucu gelene kadar (ya da deneme süresi dolana kadar) diğer çağrılar
+    // false alır.
+    public synchronized boolean tryAcquire(long now) {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if ((state == State.OPEN && now >= openUntil) || probeExpired(now)) {
+            state = State.HALF_OPEN;
+            probeStartedAt = now;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean probeExpired(long now) {
+        return state == State.HALF_OPEN && now - probeStartedAt >= openMillis;
+    }
+
+    // Deneme isteği sonuçsuz bitti (iptal edildi ya da hata isteğin kendisiyle ilgiliydi): devre yeniden
+    // açığa döner, açık kalma süresi zaten dolduğu için sonraki çağrı yeni deneme isteği alır
+    public synchronized void releaseProbe() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    // Geç gelen başarılı yanıt da (ör. açılmadan önce gönderilmiş istek) devreyi kapatır
+    public synchronized void recordSuccess(long now) {
+        add(now, false);
+        consecutiveFailures = 0;
+        consecutiveSevere = 0;
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            openCount = 0;
+            openUntil = 0;
+            size = 0;
+        }
+    }
+
+    // severe: 403/429/5xx gibi engellendiğimizi gösteren yanıt. Sonuç: devre bu hatayla açıldıysa açık
+    // kalma süresi (ms), açılmadıysa 0
+    public synchronized long recordFailure(boolean severe, long now) {
+        add(now, true);
+        consecutiveFailures++;
+        consecutiveSevere = severe ? consecutiveSevere + 1 : 0;
+        if (state == State.OPEN) {
+            return 0;
+        }
+        boolean open = state == State.HALF_OPEN
+                || (settings.consecutiveFailures > 0 && consecutiveFailures >= settings.consecutiveFailures)
+                || (settings.severeFailures > 0 && consecutiveSevere >= settings.severeFailures)
+                || failureRateExceeded(now);
+        if (!open) {
+            return 0;
+        }
+        openCount++;
+        long duration = Math.min(settings.maxOpenMillis, settings.baseOpenMillis << Math.min(openCount - 1, 16));
+        openMillis = duration;
+        openUntil = now + duration;
+        state = State.OPEN;
+        return duration;
+    }
+
+    private void add(long now, boolean failure) {
+        times[next] = now;
+        failed[next] = failure;
+        next = (next + 1) % times.length;
+        size = Math.min(size + 1, times.length);
+    }
+
+    private boolean failureRateExceeded(long now) {
+        int calls = 0;
+        int failures = 0;
+        for (int i = 0; i < size; i++) {
+            int index = (next - 1 - i + times.length) % times.length;
+            if (now - times[index] > settings.windowMillis) {
+                break;
+            }
+            calls++;
+            if (failed[index]) {
+                failures++;
+            }
+        }
+        return calls >= settings.minCalls && failures >= settings.failureRate * calls;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getOpenUntil() {
+        return openUntil;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized int getOpenCount() {
+        return openCount;
+    }
+
+    // Durum dosyasından geri yükleme. Yarım kalan deneme isteğinin sonucu bilinmediği için yarı açık
+    // devre açık olarak yüklenir; kayan pencere saklanmaz.
+    public synchronized void restore(State state, int consecutiveFailures, int openCount, long openUntil) {
+        this.state = state == State.CLOSED ? State.CLOSED : State.OPEN;
+        this.consecutiveFailures = Math.max(0, consecutiveFailures);
+        this.consecutiveSevere = 0;
+        this.openCount = Math.max(0, openCount);
+        this.openUntil = openUntil;
+        this.size = 0;
+    }
+}
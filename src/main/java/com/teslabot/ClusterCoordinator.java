@@ -0,0 +1,396 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Küme modu: aynı hedefleri izleyen birden fazla bot örneği ortak bir dizin (paylaşılan volume) üzerinden
+// çalışır. Her düğüm kira tablosunda kendini yeniler; her hedef, canlı düğüm sayısı kadar faz dilimine
+// bölünür ve her düğüm hedef başına bir dilim kiralar. Düğümler hedefi kendi diliminin fazında kontrol
+// eder, böylece toplam kontrol sıklığı düğüm sayısıyla artar. Bildirimler için VIN (ve fiyat düşüşü)
+// talepleri Files.createFile ile yapılır: dosyayı ilk oluşturan düğüm gönderir, diğerleri atlar.
+//
+// Kira tablosu (leases.txt) yalnızca cluster.lock dosya kilidi tutulurken okunup yazılır.
+public class ClusterCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+    private static final String LOCK_FILE = "cluster.lock";
+    private static final String LEASE_FILE = "leases.txt";
+    private static final String CLAIMS_DIR = "claims";
+
+    // Aynı JVM'deki düğümler aynı dosyayı kilitlemeye çalışırsa FileChannel.lock hata verir; önce bu
+    // nesne üzerinde beklenir
+    private static final Map<Path, Object> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    // Düğümün hedefteki dilimi: slot / slots aralığın ne kadarlık kaydırılacağını belirler
+    public static final class Assignment {
+        private final int slot;
+        private final int slots;
+
+        Assignment(int slot, int slots) {
+            this.slot = slot;
+            this.slots = slots;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
+
+        public int getSlots() {
+            return slots;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Assignment && ((Assignment) o).slot == slot && ((Assignment) o).slots == slots;
+        }
+
+        @Override
+        public int hashCode() {
+            return slot * 31 + slots;
+        }
+
+        @Override
+        public String toString() {
+            return slot + "/" + slots;
+        }
+    }
+
+    private static final class Lease {
+        final String shard;
+        final int slot;
+        final String node;
+        final long expiresAt;
+
+        Lease(String shard, int slot, String node, long expiresAt) {
+            this.shard = shard;
+            this.slot = slot;
+            this.node = node;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Path directory;
+    private final Path lockPath;
+    private final Path leasePath;
+    private final Path claimsDir;
+    private final String nodeId;
+    private final long heartbeatMillis;
+    private final long leaseMillis;
+    private final long claimTtlMillis;
+    private final long claimRetentionMillis;
+    private volatile List<String> shards; // Hedefler yeniden yüklenince setShards ile değişir
+    private final ScheduledExecutorService maintenance;
+    private volatile Map<String, Assignment> assignments = Collections.emptyMap();
+    private volatile int liveNodes = 1;
+
+    // CLUSTER_DIR tanımlı değilse null döner
+    public static ClusterCoordinator fromEnv(Collection<WatchTarget> targets) throws IOException {
+        String dir = Env.get("CLUSTER_DIR", null);
+        if (dir == null || dir.trim().isEmpty()) {
+            return null;
+        }
+        List<String> shards = new ArrayList<>();
+        for (WatchTarget target : targets) {
+            shards.add(target.key());
+        }
+        return new ClusterCoordinator(Paths.get(dir),
+                Env.get("CLUSTER_NODE_ID", Env.get("HOSTNAME", "node") + "-" + ProcessHandle.current().pid()),
+                TimeUnit.SECONDS.toMillis(Env.getLong("CLUSTER_HEARTBEAT_SECONDS", 5)),
+                TimeUnit.SECONDS.toMillis(Env.getLong("CLUSTER_LEASE_SECONDS", 20)),
+                TimeUnit.DAYS.toMillis(Env.getLong("VIN_TTL_DAYS", 0)),
+                TimeUnit.DAYS.toMillis(Env.getLong("CLUSTER_CLAIM_RETENTION_DAYS", 30)),
+                shards);
+    }
+
+    public ClusterCoordinator(Path directory, String nodeId, long heartbeatMillis, long leaseMillis,
+            long claimTtlMillis, long claimRetentionMillis, Collection<String> shards) throws IOException {
+        Files.createDirectories(directory.resolve(CLAIMS_DIR));
+        this.directory = directory;
+        this.lockPath = directory.resolve(LOCK_FILE);
+        this.leasePath = directory.resolve(LEASE_FILE);
+        this.claimsDir = directory.resolve(CLAIMS_DIR);
+        this.nodeId = nodeId.replaceAll("\\s", "_");
+        this.heartbeatMillis = Math.max(100, heartbeatMillis);
+        // Kira en az birkaç yenileme süresi dayanmalı; tek bir geciken yenileme dilimi kaybettirmez
+        this.leaseMillis = Math.max(this.heartbeatMillis * 3, leaseMillis);
+        this.claimTtlMillis = Math.max(0, claimTtlMillis);
+        // Süresi dolan talep zaten yeniden alınabildiği için TTL varsa talepler TTL'de silinir; yoksa talepler
+        // yalnızca aynı anda bulunan bildirimleri ayıklar ve kendi yaşlarına göre silinir (0 = hiç silinmez)
+        this.claimRetentionMillis = this.claimTtlMillis > 0 ? this.claimTtlMillis : Math.max(0, claimRetentionMillis);
+        this.shards = new ArrayList<>(shards);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cluster");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getLiveNodes() {
+        return liveNodes;
+    }
+
+    // İlk kira alınır, ardından periyodik yenileme başlar
+    public void start() {
+        logger.info("Küme modu: düğüm {}, dizin {}", nodeId, directory);
+        renewQuietly();
+        maintenance.scheduleWithFixedDelay(this::renewQuietly, heartbeatMillis, heartbeatMillis,
+                TimeUnit.MILLISECONDS);
+        if (claimRetentionMillis > 0) {
+            maintenance.scheduleWithFixedDelay(this::pruneClaims, 1, 24, TimeUnit.HOURS);
+        }
+    }
+
+    // Yeni hedeflerin dilimleri beklemeden alınır; çıkarılan hedeflerin kiraları sonraki yenilemede bırakılır
+    public void setShards(Collection<String> shards) {
+        this.shards = new ArrayList<>(shards);
+        try {
+            maintenance.execute(this::renewQuietly);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Küme bakımı kapalı, dilimler sonraki başlatmada alınacak");
+        }
+    }
+
+    // Kira henüz alınmadıysa null
+    public Assignment assignment(String shard) {
+        return assignments.get(shard);
+    }
+
+    // Hedefin ilk dilimini tutan düğüm; hedef başına tek gönderilmesi gereken özetler için
+    public boolean isPrimary(String shard) {
+        Assignment assignment = assignments.get(shard);
+        return assignment == null || assignment.slot == 0;
+    }
+
+    // AdaptiveScheduler.PhaseAligner: sonraki turu, aralık uzunluğundaki ızgarada düğümün dilimine denk gelen
+    // ana kaydırır (jitter yerine). Sonuç aralığın yarısından kısa, bir buçuk katından uzun olmaz.
+    public long align(String shard, long nowMillis, long intervalMillis, long delayMillis) {
+        Assignment assignment = assignments.get(shard);
+        if (assignment == null || assignment.slots <= 1 || intervalMillis <= 0) {
+            return delayMillis;
+        }
+        long offset = intervalMillis * assignment.slot / assignment.slots;
+        long target = nowMillis + intervalMillis;
+        long aligned = Math.round((double) (target - offset) / intervalMillis) * intervalMillis + offset;
+        if (aligned - nowMillis < intervalMillis / 2) {
+            aligned += intervalMillis;
+        }
+        return aligned - nowMillis;
+    }
+
+    // Anahtarı ilk talep eden düğüm true alır. VIN_TTL_DAYS tanımlıysa süresi dolan talep yeniden alınabilir.
+    public boolean claim(String key) {
+        Path file = claimPath(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Files.createFile(file);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return claimTtlMillis > 0 && reclaimIfExpired(file);
+        } catch (IOException e) {
+            // Ortak dizine erişilemiyorsa tekrar göndermek, bildirimi hiç göndermemekten iyidir
+            logger.error("Küme talebi yazılamadı ({}), yerel kayıtla devam ediliyor: {}", key, e.getMessage());
+            return true;
+        }
+    }
+
+    private boolean reclaimIfExpired(Path file) {
+        try {
+            return withLock(() -> {
+                long now = System.currentTimeMillis();
+                if (now - Files.getLastModifiedTime(file).toMillis() <= claimTtlMillis) {
+                    return false;
+                }
+                Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+                return true;
+            });
+        } catch (IOException e) {
+            logger.warn("Süresi dolan küme talebi yenilenemedi ({}): {}", file.getFileName(), e.getMessage());
+            return false;
+        }
+    }
+
+    // Dizin başına dosya sayısını sınırlamak için anahtarın özetine göre 256 alt dizine dağıtılır
+    private Path claimPath(String key) {
+        String name = key.replaceAll("[^A-Za-z0-9._-]", "_");
+        return claimsDir.resolve(String.format("%02x", key.hashCode() & 0xff)).resolve(name);
+    }
+
+    private void pruneClaims() {
+        long oldest = System.currentTimeMillis() - claimRetentionMillis;
+        int removed = 0;
+        try (DirectoryStream<Path> buckets = Files.newDirectoryStream(claimsDir)) {
+            for (Path bucket : buckets) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(bucket)) {
+                    for (Path file : files) {
+                        if (Files.getLastModifiedTime(file).toMillis() < oldest && Files.deleteIfExists(file)) {
+                            removed++;
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Eski küme talepleri silinemedi: {}", e.getMessage());
+        }
+        if (removed > 0) {
+            logger.info("{} eski küme talebi silindi", removed);
+        }
+    }
+
+    private void renewQuietly() {
+        try {
+            renew();
+        } catch (IOException e) {
+            logger.error("Küme kirası yenilenemedi: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Küme kirası yenilenirken beklenmeyen hata: {}", e.getMessage());
+        }
+    }
+
+    // Kendi düğüm kaydını yeniler, düşen düğümlerin kiralarını bırakır ve her hedef için dilim alır.
+    // Düğüm sayısı azaldıysa dilim sayısının dışında kalan kiralar küçük boş dilimlere taşınır.
+    void renew() throws IOException {
+        Map<String, Assignment> updated = withLock(() -> {
+            long now = System.currentTimeMillis();
+            Map<String, Long> nodes = new LinkedHashMap<>();
+            List<Lease> leases = new ArrayList<>();
+            readTable(nodes, leases);
+            nodes.values().removeIf(expiresAt -> expiresAt < now);
+            nodes.put(nodeId, now + leaseMillis);
+            leases.removeIf(lease -> lease.node.equals(nodeId) || !nodes.containsKey(lease.node)
+                    || lease.expiresAt < now);
+            int slots = nodes.size();
+            Map<String, Assignment> result = new LinkedHashMap<>();
+            for (String shard : shards) {
+                boolean[] taken = new boolean[slots];
+                for (Lease lease : leases) {
+                    if (lease.shard.equals(shard) && lease.slot < slots) {
+                        taken[lease.slot] = true;
+                    }
+                }
+                Assignment current = assignments.get(shard);
+                int slot = current != null && current.slot < slots && !taken[current.slot] ? current.slot : -1;
+                for (int i = 0; slot < 0 && i < slots; i++) {
+                    if (!taken[i]) {
+                        slot = i;
+                    }
+                }
+                if (slot < 0) {
+                    // Başka düğümlerin eski kiraları henüz düşmediyse son dilim paylaşılır
+                    slot = slots - 1;
+                }
+                leases.add(new Lease(shard, slot, nodeId, now + leaseMillis));
+                result.put(shard, new Assignment(slot, slots));
+            }
+            writeTable(nodes, leases);
+            liveNodes = slots;
+            return result;
+        });
+        if (!updated.equals(assignments)) {
+            logger.info("Küme: {} canlı düğüm, dilimler: {}", liveNodes, updated);
+        }
+        assignments = Collections.unmodifiableMap(updated);
+    }
+
+    private void readTable(Map<String, Long> nodes, List<Lease> leases) throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(leasePath, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        for (String line : lines) {
+            String[] fields = line.split("\t");
+            try {
+                if (fields.length == 3 && "node".equals(fields[0])) {
+                    nodes.put(fields[1], Long.parseLong(fields[2]));
+                } else if (fields.length == 5 && "lease".equals(fields[0])) {
+                    leases.add(new Lease(fields[1], Integer.parseInt(fields[2]), fields[3],
+                            Long.parseLong(fields[4])));
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Kira tablosunda geçersiz satır atlandı: {}", line);
+            }
+        }
+    }
+
+    private void writeTable(Map<String, Long> nodes, List<Lease> leases) throws IOException {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Long> node : nodes.entrySet()) {
+            out.append("node\t").append(node.getKey()).append('\t').append(node.getValue()).append('\n');
+        }
+        for (Lease lease : leases) {
+            out.append("lease\t").append(lease.shard).append('\t').append(lease.slot).append('\t')
+                    .append(lease.node).append('\t').append(lease.expiresAt).append('\n');
+        }
+        Path tmp = leasePath.resolveSibling(LEASE_FILE + "." + nodeId + ".tmp");
+        Files.write(tmp, out.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, leasePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    private <T> T withLock(LockedAction<T> action) throws IOException {
+        Object localLock = LOCAL_LOCKS.computeIfAbsent(lockPath.toAbsolutePath().normalize(), p -> new Object());
+        synchronized (localLock) {
+            try (FileChannel channel = FileChannel.open(lockPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    return action.run();
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    // Düğüm kaydı ve kiraları bırakılır; kalan düğümler bir sonraki yenilemede dilimleri yeniden dağıtır
+    public void close() {
+        maintenance.shutdownNow();
+        try {
+            withLock(() -> {
+                Map<String, Long> nodes = new LinkedHashMap<>();
+                List<Lease> leases = new ArrayList<>();
+                readTable(nodes, leases);
+                nodes.remove(nodeId);
+                leases.removeIf(lease -> lease.node.equals(nodeId));
+                writeTable(nodes, leases);
+                return null;
+            });
+            logger.info("Küme kiraları bırakıldı ({})", nodeId);
+        } catch (IOException e) {
+            logger.warn("Küme kiraları bırakılamadı, süreleri dolunca düşecek: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Bir tur içinde başlatılan alt görevlerin kapsamı (yapılandırılmış eşzamanlılık). Bir alt görev hata
+// verirse kardeşleri iptal edilir ve hata join'den fırlatılır; kapsam kapanınca bitmemiş görev kalmaz.
+// Java 21'deki StructuredTaskScope önizleme olduğundan aynı davranış ExecutorService üzerinde kurulur.
+// Future.cancel görev durmadan da "bitti" döndüğü için close() başlamış görevlerin gerçekten bitmesini
+// bekler (en fazla CLOSE_TIMEOUT_MILLIS; aşılırsa uyarı loglanır), başlamamış olanlar hiç çalışmaz.
+public final class CycleScope implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(CycleScope.class);
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    // Alt görevin sonucu; join başarıyla döndükten sonra okunur
+    public static final class Subtask<T> {
+        private final Future<T> future;
+
+        private Subtask(Future<T> future) {
+            this.future = future;
+        }
+
+        public T get() {
+            if (!future.isDone()) {
+                throw new IllegalStateException("Alt görev henüz bitmedi; önce join çağrılmalı");
+            }
+            try {
+                return future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Alt görev başarısız: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Görevin çalışmaya başlaması (ya da kapanışta hiç başlamayacağı) ve bitişi
+    private static final class Execution {
+        final AtomicBoolean claimed = new AtomicBoolean();
+        final CountDownLatch finished = new CountDownLatch(1);
+    }
+
+    private final ExecutorService executor;
+    private final List<Future<?>> tasks = new ArrayList<>();
+    private final List<Execution> executions = new ArrayList<>();
+    private Throwable failure;
+
+    public CycleScope(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public <T> Subtask<T> fork(Callable<T> task) {
+        Execution execution = new Execution();
+        Future<T> future = executor.submit(() -> {
+            if (!execution.claimed.compareAndSet(false, true)) {
+                throw new CancellationException("Kapsam kapandı");
+            }
+            try {
+                return task.call();
+            } catch (Exception e) {
+                fail(e);
+                throw e;
+            } finally {
+                execution.finished.countDown();
+            }
+        });
+        synchronized (this) {
+            tasks.add(future);
+            executions.add(execution);
+            if (failure != null) {
+                future.cancel(true);
+            }
+        }
+        return new Subtask<>(future);
+    }
+
+    // Tüm alt görevler bitene ya da ilk hata gelene kadar bekler
+    public void join() throws IOException {
+        List<Future<?>> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(tasks);
+        }
+        try {
+            for (Future<?> future : snapshot) {
+                try {
+                    future.get();
+                } catch (CancellationException e) {
+                    // Kardeşin hatası yüzünden iptal edildi; asıl hata aşağıda fırlatılır
+                } catch (ExecutionException e) {
+                    fail(e.getCause());
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Alt görevler beklenirken interrupt edildi");
+        }
+        Throwable cause;
+        synchronized (this) {
+            cause = failure;
+        }
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+        if (cause != null) {
+            throw new IOException("Alt görev başarısız: " + cause.getMessage(), cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+        List<Execution> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(executions);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+        boolean interrupted = false;
+        int unfinished = 0;
+        for (Execution execution : snapshot) {
+            if (execution.claimed.compareAndSet(false, true)) {
+                continue; // Henüz başlamamıştı, artık çalışmayacak
+            }
+            try {
+                if (!execution.finished.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    unfinished++;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+                unfinished++;
+            }
+        }
+        if (unfinished > 0) {
+            logger.warn("{} alt görev iptalden sonra {} ms içinde bitmedi", unfinished, CLOSE_TIMEOUT_MILLIS);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fail(Throwable cause) {
+        synchronized (this) {
+            if (failure == null) {
+                failure = cause;
+            }
+        }
+        cancelAll();
+    }
+
+    private synchronized void cancelAll() {
+        for (Future<?> future : tasks) {
+            future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.teslabot;
+
+import java.io.IOException;
+
+// Mesaj teslim hatası. retryAfterMillis > 0 ise hedef belirli bir süre beklenmesini istemiştir (429).
+public class DeliveryException extends IOException {
+    private final boolean retryable;
+    private final long retryAfterMillis;
+
+    public DeliveryException(String message, boolean retryable, long retryAfterMillis) {
+        super(message);
+        this.retryable = retryable;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public DeliveryException(String message, Throwable cause) {
+        super(message, cause);
+        this.retryable = true;
+        this.retryAfterMillis = 0;
+    }
+
+    public static DeliveryException permanent(String message) {
+        return new DeliveryException(message, false, 0);
+    }
+
+    public static DeliveryException retryable(String message) {
+        return new DeliveryException(message, true, 0);
+    }
+
+    public static DeliveryException rateLimited(String message, long retryAfterMillis) {
+        return new DeliveryException(message, true, retryAfterMillis);
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,123 @@
+package com.teslabot;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Environment variable okuma yardımcıları (varsayılan değer desteği ile).
+// BOT_CONFIG_FILE tanımlıysa dosyadaki aynı adlı anahtar environment'tan önce gelir (LiveConfig).
+// Environment'ta yoksa aynı adlı -D sistem özelliğine bakılır (benchmark ve yerel denemeler için).
+public final class Env {
+    private static final Logger logger = LoggerFactory.getLogger(Env.class);
+
+    private static volatile Config overrides = ConfigFactory.empty();
+    // Yeniden yüklemede yeni değerler önce yalnızca doğrulayan iş parçacığına görünür
+    private static final ThreadLocal<Config> preview = new ThreadLocal<>();
+
+    private Env() {
+    }
+
+    static void setOverrides(Config config) {
+        overrides = config;
+    }
+
+    // supplier çalışırken bu iş parçacığındaki okumalar config'i görür; diğer iş parçacıkları etkilenmez
+    static <T> T withOverrides(Config config, Supplier<T> supplier) {
+        preview.set(config);
+        try {
+            return supplier.get();
+        } finally {
+            preview.remove();
+        }
+    }
+
+    // Listeler virgülle birleştirilir: TESLA_TARGETS = ["TR:tr:my:new", "DE:de:my:new"]
+    static String fromConfig(Config config, String name) {
+        String path = ConfigUtil.joinPath(name);
+        if (!config.hasPath(path)) {
+            return null;
+        }
+        ConfigValue value = config.getValue(path);
+        if (value.valueType() == ConfigValueType.LIST) {
+            return ((List<?>) value.unwrapped()).stream().map(String::valueOf).collect(Collectors.joining(","));
+        }
+        if (value.valueType() == ConfigValueType.NULL) {
+            return null;
+        }
+        if (value.valueType() == ConfigValueType.OBJECT) {
+            logger.warn("{} bir değer olmalı, nesne yok sayıldı", name);
+            return null;
+        }
+        return String.valueOf(value.unwrapped());
+    }
+
+    public static String get(String name, String defaultValue) {
+        Config config = preview.get();
+        String value = fromConfig(config != null ? config : overrides, name);
+        if (value == null) {
+            value = System.getenv(name);
+        }
+        if (value == null) {
+            value = System.getProperty(name);
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return value.trim();
+    }
+
+    public static int getInt(String name, int defaultValue) {
+        String value = get(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.warn("{} geçersiz sayı: {}, varsayılan kullanılacak: {}", name, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String name, long defaultValue) {
+        String value = get(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            logger.warn("{} geçersiz sayı: {}, varsayılan kullanılacak: {}", name, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    // true/yes/1 ve false/no/0 kabul edilir
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = get(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        switch (value.toLowerCase()) {
+            case "true":
+            case "yes":
+            case "1":
+                return true;
+            case "false":
+            case "no":
+            case "0":
+                return false;
+            default:
+                logger.warn("{} geçersiz değer: {}, varsayılan kullanılacak: {}", name, value, defaultValue);
+                return defaultValue;
+        }
+    }
+}
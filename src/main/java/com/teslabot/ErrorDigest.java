@@ -0,0 +1,155 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Hata bildirimlerini tek mesajda toplar. Hedef başına hata durumu tutulur; her özet turunda yeni başlayan
+// hatalar, ERROR_DIGEST_REPEAT_MINUTES'tır süren hatalar ve düzelen hatalar tek bildirimde gönderilir.
+// Aynı anda birçok hedef ya da proxy hata verdiğinde koşul başına ayrı mesaj gitmez.
+public class ErrorDigest {
+    private static final Logger logger = LoggerFactory.getLogger(ErrorDigest.class);
+
+    private static final int MAX_LINES = 30; // Telegram mesaj sınırı için
+    private static final int MAX_MESSAGE_LENGTH = 200;
+
+    private final TelegramNotifier notifier;
+    private final long windowMillis;
+    private final long repeatMillis;
+    private final Map<String, Condition> conditions = new LinkedHashMap<>(); // this ile korunur
+
+    // Bir kaynağın (hedef) süren hata durumu
+    private static final class Condition {
+        final long firstSeenMillis;
+        long errors = 0; // Son bildirimden bu yana
+        long totalErrors = 0;
+        String lastMessage;
+        long lastReportedMillis = 0; // 0: henüz bildirilmedi
+        long pausedUntilMillis = 0;
+        boolean recovered = false;
+
+        Condition(long firstSeenMillis) {
+            this.firstSeenMillis = firstSeenMillis;
+        }
+    }
+
+    public ErrorDigest(TelegramNotifier notifier) {
+        this(notifier, TimeUnit.SECONDS.toMillis(Env.getLong("ERROR_DIGEST_SECONDS", 60)),
+                TimeUnit.MINUTES.toMillis(Env.getLong("ERROR_DIGEST_REPEAT_MINUTES", 30)));
+    }
+
+    public ErrorDigest(TelegramNotifier notifier, long windowMillis, long repeatMillis) {
+        this.notifier = notifier;
+        this.windowMillis = Math.max(1000, windowMillis);
+        this.repeatMillis = Math.max(this.windowMillis, repeatMillis);
+    }
+
+    public void start(ScheduledExecutorService scheduler) {
+        scheduler.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void recordError(String source, String message, long now) {
+        Condition condition = conditions.get(source);
+        if (condition == null || condition.recovered) {
+            // Özet gönderilmeden düzelip yeniden başlayan hata aynı satırda kalır
+            condition = condition == null ? new Condition(now) : condition;
+            condition.recovered = false;
+            conditions.put(source, condition);
+        }
+        condition.errors++;
+        condition.totalErrors++;
+        condition.lastMessage = message;
+    }
+
+    // Devre kesici açıldı: kontroller untilMillis'e kadar duraklatıldı
+    public synchronized void recordPaused(String source, long untilMillis) {
+        Condition condition = conditions.get(source);
+        if (condition != null) {
+            condition.pausedUntilMillis = untilMillis;
+        }
+    }
+
+    public synchronized void recordRecovered(String source) {
+        Condition condition = conditions.get(source);
+        if (condition != null) {
+            condition.recovered = true;
+            condition.pausedUntilMillis = 0;
+        }
+    }
+
+    public void flush() {
+        String text;
+        synchronized (this) {
+            text = build(System.currentTimeMillis());
+        }
+        if (text != null) {
+            notifier.sendErrorNotification("Tesla Bot Hata Özeti", text);
+            logger.info("Hata özeti gönderildi");
+        }
+    }
+
+    // Bildirilecek satır yoksa null
+    private String build(long now) {
+        StringBuilder text = new StringBuilder();
+        int lines = 0;
+        int skipped = 0;
+        Iterator<Map.Entry<String, Condition>> iterator = conditions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Condition> entry = iterator.next();
+            String source = entry.getKey();
+            Condition condition = entry.getValue();
+            String line;
+            if (condition.recovered) {
+                iterator.remove();
+                line = condition.lastReportedMillis == 0
+                        ? String.format("↩️ %s: %d geçici hata, düzeldi (%s)", source, condition.totalErrors,
+                        shorten(condition.lastMessage))
+                        : String.format("✅ %s: düzeldi (%d dakika sürdü, %d hata)", source,
+                        TimeUnit.MILLISECONDS.toMinutes(now - condition.firstSeenMillis), condition.totalErrors);
+            } else if (condition.lastReportedMillis == 0) {
+                line = String.format("❌ %s: %s (%d hata)%s", source, shorten(condition.lastMessage),
+                        condition.errors, pausedSuffix(condition, now));
+            } else if (now - condition.lastReportedMillis >= repeatMillis) {
+                line = String.format("⚠️ %s: %d dakikadır devam ediyor (%d yeni hata): %s%s", source,
+                        TimeUnit.MILLISECONDS.toMinutes(now - condition.firstSeenMillis), condition.errors,
+                        shorten(condition.lastMessage), pausedSuffix(condition, now));
+            } else {
+                continue;
+            }
+            condition.lastReportedMillis = now;
+            condition.errors = 0;
+            if (lines < MAX_LINES) {
+                text.append(line).append('\n');
+                lines++;
+            } else {
+                skipped++;
+            }
+        }
+        if (lines == 0) {
+            return null;
+        }
+        if (skipped > 0) {
+            text.append(String.format("... ve %d hedef daha\n", skipped));
+        }
+        return text.toString();
+    }
+
+    private static String pausedSuffix(Condition condition, long now) {
+        long remaining = condition.pausedUntilMillis - now;
+        return remaining > 0
+                ? String.format(", kontroller %d saniye duraklatıldı", TimeUnit.MILLISECONDS.toSeconds(remaining))
+                : "";
+    }
+
+    private static String shorten(String message) {
+        if (message == null) {
+            return "";
+        }
+        return message.length() <= MAX_MESSAGE_LENGTH ? message : message.substring(0, MAX_MESSAGE_LENGTH) + "...";
+    }
+}
@@ -0,0 +1,128 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Turların, sayfa isteklerinin ve bildirim gönderiminin hangi iş parçacıklarında çalışacağı.
+// platform: sabit boyutlu havuzlar (Java 11+). virtual: her görev kendi sanal iş parçacığında (Java 21+).
+// Sanal iş parçacığı API'si yansıma ile çağrılır; kod Java 11 hedefiyle derlenmeye devam eder.
+public final class ExecutionMode {
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionMode.class);
+
+    private static final Method NEW_VIRTUAL_EXECUTOR = lookup(Executors.class, "newVirtualThreadPerTaskExecutor");
+    private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+
+    private static volatile ExecutionMode defaultMode;
+
+    private final boolean virtual;
+
+    private ExecutionMode(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    // Süreç genelinde tek mod; ilk çağrıda EXECUTION_MODE'dan okunur
+    public static ExecutionMode getDefault() {
+        ExecutionMode mode = defaultMode;
+        if (mode == null) {
+            synchronized (ExecutionMode.class) {
+                mode = defaultMode;
+                if (mode == null) {
+                    mode = fromEnv();
+                    defaultMode = mode;
+                }
+            }
+        }
+        return mode;
+    }
+
+    public static ExecutionMode platform() {
+        return new ExecutionMode(false);
+    }
+
+    // EXECUTION_MODE=virtual; JVM desteklemiyorsa uyarı verip platform iş parçacıklarına düşer
+    public static ExecutionMode fromEnv() {
+        String mode = Env.get("EXECUTION_MODE", "platform").trim().toLowerCase(Locale.ROOT);
+        if (!"virtual".equals(mode)) {
+            if (!"platform".equals(mode)) {
+                logger.warn("Bilinmeyen EXECUTION_MODE '{}', platform iş parçacıkları kullanılıyor", mode);
+            }
+            return platform();
+        }
+        if (!isVirtualSupported()) {
+            logger.warn("Sanal iş parçacıkları bu JVM'de yok (Java {}), platform iş parçacıkları kullanılıyor",
+                    System.getProperty("java.specification.version"));
+            return platform();
+        }
+        logger.info("Sanal iş parçacığı modu etkin");
+        return new ExecutionMode(true);
+    }
+
+    public static boolean isVirtualSupported() {
+        return NEW_VIRTUAL_EXECUTOR != null && OF_VIRTUAL != null;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    // platform: platformThreads boyutlu havuz; virtual: görev başına sanal iş parçacığı
+    public ExecutorService newExecutor(int platformThreads) {
+        if (virtual) {
+            return (ExecutorService) invoke(NEW_VIRTUAL_EXECUTOR, null);
+        }
+        return Executors.newFixedThreadPool(Math.max(1, platformThreads));
+    }
+
+    // Uzun ömürlü tek iş parçacıkları için (ör. bildirim göndericisi); platform iş parçacıkları daemon olur
+    public ThreadFactory threadFactory(String name) {
+        if (virtual) {
+            Object builder = invoke(OF_VIRTUAL, null);
+            Object named = invoke(lookup(builder.getClass(), "name", String.class), builder, name);
+            return (ThreadFactory) invoke(lookup(named.getClass(), "factory"), named);
+        }
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            int index = count.getAndIncrement();
+            Thread thread = new Thread(r, index == 0 ? name : name + "-" + index);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return virtual ? "virtual" : "platform";
+    }
+
+    private static Method lookup(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = type.getMethod(name, parameterTypes);
+            // Builder gerçeklemeleri erişilemeyen iç sınıflardır; metot arayüzden çağrılır
+            for (Class<?> iface : type.getInterfaces()) {
+                try {
+                    return iface.getMethod(name, parameterTypes);
+                } catch (NoSuchMethodException ignored) {
+                    // Sonraki arayüz
+                }
+            }
+            return method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Sanal iş parçacığı API'si çağrılamadı: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.teslabot;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+// Mesajları yerel bir dosyaya yazar (Telegram yerine test / arşiv amaçlı)
+public class FileSink implements MessageSink {
+    private final Path file;
+    private final BufferedWriter writer;
+
+    public FileSink(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public String name() {
+        return "file:" + file;
+    }
+
+    @Override
+    public synchronized void deliver(TelegramMessage message) throws DeliveryException {
+        try {
+            writer.write("--- " + Instant.now() + " [" + message.getSeverity() + "] chat=" + message.getChatId() + "\n");
+            writer.write(message.getText());
+            writer.write("\n");
+            writer.flush();
+        } catch (IOException e) {
+            throw new DeliveryException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // Kapatırken hata önemsiz
+        }
+    }
+}
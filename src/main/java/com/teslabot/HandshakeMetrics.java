@@ -0,0 +1,59 @@
+package com.teslabot;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bağlantı havuzunun işe yarayıp yaramadığını görmek için istek / TCP bağlantı / TLS el sıkışma sayaçları
+public class HandshakeMetrics extends EventListener {
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong tlsHandshakes = new AtomicLong();
+
+    @Override
+    public void callStart(Call call) {
+        calls.incrementAndGet();
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connects.incrementAndGet();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        tlsHandshakes.incrementAndGet();
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getConnects() {
+        return connects.get();
+    }
+
+    public long getTlsHandshakes() {
+        return tlsHandshakes.get();
+    }
+
+    // Yeni bağlantı gerektirmeden havuzdan karşılanan isteklerin oranı
+    public double reuseRatio() {
+        long total = calls.get();
+        if (total == 0) {
+            return 0.0;
+        }
+        return 1.0 - Math.min(1.0, (double) connects.get() / total);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("istek=%d, bağlantı=%d, tls=%d, yeniden kullanım=%.0f%%",
+                calls.get(), connects.get(), tlsHandshakes.get(), reuseRatio() * 100);
+    }
+}
@@ -0,0 +1,296 @@
+package com.teslabot;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Headers;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// İsteği seçilen proxy üzerinden gönderir; yakın geçmişteki gecikmenin yüzdeliği (ör. p90) içinde
+// yanıt gelmezse aynı isteği ikinci bir proxy'den de gönderir, ilk tamamlanan başarılı yanıtı kullanır
+// ve diğerini iptal eder. Ek istekler bütçe ile sınırlıdır (en fazla asıl istek sayısı kadar).
+// İstek zaman aşımı da sabit 60 sn yerine gözlenen gecikmeden türetilir. Gecikme, isteğin dispatcher
+// kuyruğundan çıktığı andan ölçülür; yedek istekler kendi dispatcher'ında asıl isteklerin kuyruğunu beklemez.
+public class HedgedRequestExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(HedgedRequestExecutor.class);
+
+    private static final MetricsRegistry.Family<MetricsRegistry.Counter> HEDGES = MetricsRegistry.getDefault()
+            .counter("tesla_hedged_requests_total",
+                    "Yedek istekler (fired: gönderildi, won: kazandı, denied: bütçe yetmedi)", "result");
+
+    private static final double MAX_BUDGET_TOKENS = 10;
+
+    private final HttpClientRegistry httpClients;
+    private final ProxyManager proxyManager;
+    private final LatencyTracker latencies;
+    private final double hedgePercentile;
+    private final double budgetRatio;
+    private final double timeoutPercentile;
+    private final double timeoutMultiplier;
+    private final long minTimeoutMillis;
+    private final long maxTimeoutMillis;
+    private double budgetTokens = 0;
+
+    // Tamamlanmış tek deneme; gövde callback içinde okunmuş ve yanıt kapatılmıştır
+    public static final class Attempt {
+        private final ProxyEndpoint proxy;
+        private final int code;
+        private final String message;
+        private final Headers headers;
+        private final byte[] body;
+        private final long latencyMillis;
+        private final boolean hedged;
+
+        Attempt(ProxyEndpoint proxy, int code, String message, Headers headers, byte[] body, long latencyMillis,
+                boolean hedged) {
+            this.proxy = proxy;
+            this.code = code;
+            this.message = message;
+            this.headers = headers;
+            this.body = body;
+            this.latencyMillis = latencyMillis;
+            this.hedged = hedged;
+        }
+
+        public ProxyEndpoint getProxy() {
+            return proxy;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public String header(String name) {
+            return headers.get(name);
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public long getLatencyMillis() {
+            return latencyMillis;
+        }
+
+        public boolean isHedged() {
+            return hedged;
+        }
+
+        public boolean isSuccessful() {
+            return (code >= 200 && code < 300) || code == 304;
+        }
+    }
+
+    // Denemenin sonucu: başarılı ya da hata
+    private static final class Outcome {
+        final ProxyEndpoint proxy;
+        final Attempt attempt;
+        final IOException error;
+        final long latencyMillis;
+
+        Outcome(ProxyEndpoint proxy, Attempt attempt, IOException error, long latencyMillis) {
+            this.proxy = proxy;
+            this.attempt = attempt;
+            this.error = error;
+            this.latencyMillis = latencyMillis;
+        }
+
+        boolean isGood() {
+            return attempt != null && attempt.isSuccessful();
+        }
+    }
+
+    public HedgedRequestExecutor(HttpClientRegistry httpClients, ProxyManager proxyManager) {
+        this(httpClients, proxyManager, new LatencyTracker(),
+                Env.getInt("HEDGE_PERCENTILE", 90),
+                Double.parseDouble(Env.get("HEDGE_BUDGET_RATIO", "0.2")),
+                Env.getInt("REQUEST_TIMEOUT_PERCENTILE", 99),
+                Double.parseDouble(Env.get("REQUEST_TIMEOUT_MULTIPLIER", "3")),
+                Env.getLong("REQUEST_TIMEOUT_MIN_MS", 2000),
+                Env.getLong("REQUEST_TIMEOUT_MAX_MS", 60000));
+    }
+
+    public HedgedRequestExecutor(HttpClientRegistry httpClients, ProxyManager proxyManager, LatencyTracker latencies,
+            double hedgePercentile, double budgetRatio, double timeoutPercentile, double timeoutMultiplier,
+            long minTimeoutMillis, long maxTimeoutMillis) {
+        this.httpClients = httpClients;
+        this.proxyManager = proxyManager;
+        this.latencies = latencies;
+        this.hedgePercentile = hedgePercentile;
+        // 1.0 üstü, istek hacmini iki katından fazlasına çıkarabilirdi
+        this.budgetRatio = Math.max(0, Math.min(1.0, budgetRatio));
+        this.timeoutPercentile = timeoutPercentile;
+        this.timeoutMultiplier = Math.max(1, timeoutMultiplier);
+        this.minTimeoutMillis = Math.max(1, minTimeoutMillis);
+        this.maxTimeoutMillis = Math.max(this.minTimeoutMillis, maxTimeoutMillis);
+        logger.info("Yedek istek: p{} sonrası, bütçe oranı {}; zaman aşımı p{} x {} ({}-{} ms)", hedgePercentile,
+                this.budgetRatio, timeoutPercentile, this.timeoutMultiplier, this.minTimeoutMillis,
+                this.maxTimeoutMillis);
+    }
+
+    // Yeterli örnek yoksa -1 (yedek istek yok)
+    public long currentHedgeDelayMillis() {
+        return budgetRatio > 0 ? latencies.percentile(hedgePercentile) : -1;
+    }
+
+    public long currentTimeoutMillis() {
+        long observed = latencies.percentile(timeoutPercentile);
+        if (observed < 0) {
+            return maxTimeoutMillis;
+        }
+        return Math.max(minTimeoutMillis, Math.min(maxTimeoutMillis, (long) (observed * timeoutMultiplier)));
+    }
+
+    // Proxy hataları (bağlantı hatası, 403/429/5xx) burada, proxy ile ilgisiz 4xx'ler başarı olarak
+    // kaydedilir; kazanan denemenin başarısını ve gövde işleme hatalarını çağıran kaydeder. Sonucu
+    // beklenmeyen (iptal edilen) denemelerin proxy'si serbest bırakılır.
+    public Attempt execute(Request request) throws IOException {
+        BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        List<Call> calls = new ArrayList<>(2);
+        List<ProxyEndpoint> unsettled = new ArrayList<>(2); // Sonucu alınmamış denemelerin proxy'leri
+        long timeoutMillis = currentTimeoutMillis();
+        long hedgeDelay = currentHedgeDelayMillis();
+        addBudget();
+
+        ProxyEndpoint primary = proxyManager.select();
+        unsettled.add(primary);
+        calls.add(start(primary, request, timeoutMillis, outcomes, false));
+        int pending = 1;
+        try {
+            Outcome outcome = hedgeDelay > 0 ? outcomes.poll(hedgeDelay, TimeUnit.MILLISECONDS) : outcomes.take();
+            if (outcome == null) {
+                ProxyEndpoint secondary = proxyManager.selectOther(primary);
+                if (secondary != null && tryAcquireBudget()) {
+                    HEDGES.labels("fired").inc();
+                    logger.debug("{} {} ms içinde yanıt vermedi, {} üzerinden yedek istek gönderiliyor",
+                            primary.getKey(), hedgeDelay, secondary.getKey());
+                    unsettled.add(secondary);
+                    calls.add(start(secondary, request, timeoutMillis, outcomes, true));
+                    pending++;
+                } else if (secondary != null) {
+                    HEDGES.labels("denied").inc();
+                    proxyManager.release(secondary);
+                }
+                outcome = outcomes.take();
+            }
+            unsettled.remove(outcome.proxy);
+            pending--;
+            // Başarısız sonuç gelirse ve diğer deneme sürüyorsa onu bekle
+            while (!outcome.isGood() && pending > 0) {
+                recordLatency(outcome, timeoutMillis);
+                recordFailure(outcome);
+                outcome = outcomes.take();
+                unsettled.remove(outcome.proxy);
+                pending--;
+            }
+            recordLatency(outcome, timeoutMillis);
+            if (outcome.error != null) {
+                recordFailure(outcome);
+                throw outcome.error;
+            }
+            if (outcome.isGood()) {
+                if (outcome.attempt.isHedged()) {
+                    HEDGES.labels("won").inc();
+                }
+            } else {
+                recordFailure(outcome);
+            }
+            return outcome.attempt;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("İstek beklenirken interrupt edildi");
+        } finally {
+            // Kaybeden deneme iptal edilir; tamamlanmış çağrılarda cancel etkisizdir
+            for (Call call : calls) {
+                call.cancel();
+            }
+            for (ProxyEndpoint proxy : unsettled) {
+                proxyManager.release(proxy);
+            }
+        }
+    }
+
+    private Call start(ProxyEndpoint proxy, Request request, long timeoutMillis, BlockingQueue<Outcome> outcomes,
+            boolean hedged) {
+        HttpClientRegistry.StartTime startTime = new HttpClientRegistry.StartTime();
+        OkHttpClient client = hedged ? httpClients.hedgeClientFor(proxy.getProxy())
+                : httpClients.clientFor(proxy.getProxy());
+        Call call = client.newCall(request.newBuilder().tag(HttpClientRegistry.StartTime.class, startTime).build());
+        call.timeout().timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        long enqueueNanos = System.nanoTime();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                outcomes.offer(new Outcome(proxy, null, e, startTime.elapsedMillis(enqueueNanos)));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response r = response) {
+                    byte[] body = new byte[0];
+                    ResponseBody responseBody = r.body();
+                    if (r.isSuccessful() && responseBody != null) {
+                        body = responseBody.bytes();
+                    }
+                    Attempt attempt = new Attempt(proxy, r.code(), r.message(), r.headers(), body,
+                            startTime.elapsedMillis(enqueueNanos), hedged);
+                    outcomes.offer(new Outcome(proxy, attempt, null, attempt.getLatencyMillis()));
+                } catch (IOException e) {
+                    outcomes.offer(new Outcome(proxy, null, e, startTime.elapsedMillis(enqueueNanos)));
+                }
+            }
+        });
+        return call;
+    }
+
+    // Başarısız denemeler de pencereye girer: yalnızca başarılar sayılsaydı zaman aşımı düşük bir değere
+    // oturduğunda yukarı akış yavaşlayınca her deneme zaman aşımına uğrar, yeni örnek gelmez ve zaman aşımı
+    // bir daha büyümezdi. Zaman aşımına uğrayan deneme en az zaman aşımı kadar sürmüş sayılır.
+    private void recordLatency(Outcome outcome, long timeoutMillis) {
+        if (outcome.error instanceof InterruptedIOException) {
+            latencies.record(Math.max(outcome.latencyMillis, timeoutMillis));
+        } else {
+            latencies.record(outcome.latencyMillis);
+        }
+    }
+
+    private void recordFailure(Outcome outcome) {
+        if (outcome.error != null) {
+            proxyManager.recordFailure(outcome.proxy, -1, outcome.latencyMillis);
+        } else if (ProxyManager.isProxyFailure(outcome.attempt.getCode())) {
+            proxyManager.recordFailure(outcome.proxy, outcome.attempt.getCode(), outcome.latencyMillis);
+        } else {
+            // Diğer 4xx'ler isteğin kendisiyle ilgilidir; proxy isteği iletmiştir
+            proxyManager.recordSuccess(outcome.proxy, outcome.latencyMillis);
+        }
+    }
+
+    // Her asıl istek bütçeye oran kadar ekler, her yedek istek bir birim harcar
+    private synchronized void addBudget() {
+        budgetTokens = Math.min(MAX_BUDGET_TOKENS, budgetTokens + budgetRatio);
+    }
+
+    private synchronized boolean tryAcquireBudget() {
+        if (budgetTokens < 1) {
+            return false;
+        }
+        budgetTokens -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,465 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+// HistoryStore gün dosyalarını memory-mapped tarar. VIN sorgusunda VIN'i sözlüğünde bulunmayan bloklar
+// sütunları çözülmeden atlanır. Bozuk ya da yarım kalmış bloklar atlanır.
+//   java -cp tesla-bot.jar com.teslabot.HistoryReader vin <VIN> [gün]
+//   java -cp tesla-bot.jar com.teslabot.HistoryReader market <pazar|hedef> [gün]
+public class HistoryReader {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryReader.class);
+
+    private static final int MAX_STRING_BYTES = 1024;
+
+    // Tek bir gözlem
+    public static final class Observation {
+        private final String target;
+        private final String vin;
+        private final long timestamp;
+        private final long price;
+        private final HistoryStore.Kind kind;
+        private final boolean inTransit;
+
+        Observation(String target, String vin, long timestamp, long price, HistoryStore.Kind kind,
+                boolean inTransit) {
+            this.target = target;
+            this.vin = vin;
+            this.timestamp = timestamp;
+            this.price = price;
+            this.kind = kind;
+            this.inTransit = inTransit;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public String getVin() {
+            return vin;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getPrice() {
+            return price;
+        }
+
+        public HistoryStore.Kind getKind() {
+            return kind;
+        }
+
+        public boolean isInTransit() {
+            return inTransit;
+        }
+
+        @Override
+        public String toString() {
+            return Instant.ofEpochMilli(timestamp) + " " + target + " " + vin + " " + kind + " " + price
+                    + (inTransit ? " (yolda)" : "");
+        }
+    }
+
+    // Pazar (ya da tek hedef) için dönem özeti. Süreler yalnızca dönem içinde hem görülen hem kaldırılan
+    // ilanlar için hesaplanır; dönem başından önce listelenmiş ilanlar için alt sınırdır.
+    public static final class MarketSummary {
+        private long observations;
+        private final Set<String> vins = new HashSet<>();
+        private long added;
+        private long removed;
+        private long priceChanges;
+        private long priceDrops;
+        private long totalDropAmount;
+        private final long[] priceDropsByHour = new long[24];
+        private final List<Long> listingMillis = new ArrayList<>();
+
+        public long getObservations() {
+            return observations;
+        }
+
+        public int getDistinctVins() {
+            return vins.size();
+        }
+
+        public long getAdded() {
+            return added;
+        }
+
+        public long getRemoved() {
+            return removed;
+        }
+
+        public long getPriceChanges() {
+            return priceChanges;
+        }
+
+        public long getPriceDrops() {
+            return priceDrops;
+        }
+
+        public long getTotalDropAmount() {
+            return totalDropAmount;
+        }
+
+        // Yerel saate göre (0-23) fiyat düşüşü sayıları
+        public long[] getPriceDropsByHour() {
+            return priceDropsByHour.clone();
+        }
+
+        public int getMeasuredListings() {
+            return listingMillis.size();
+        }
+
+        // Ölçülen ilan yoksa -1
+        public long getAverageListingMillis() {
+            if (listingMillis.isEmpty()) {
+                return -1;
+            }
+            long total = 0;
+            for (long millis : listingMillis) {
+                total += millis;
+            }
+            return total / listingMillis.size();
+        }
+
+        public long getMedianListingMillis() {
+            if (listingMillis.isEmpty()) {
+                return -1;
+            }
+            List<Long> sorted = new ArrayList<>(listingMillis);
+            Collections.sort(sorted);
+            return sorted.get(sorted.size() / 2);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append("Gözlem: ").append(observations).append(", farklı VIN: ").append(vins.size())
+                    .append("\nEklenen: ").append(added).append(", kaldırılan: ").append(removed)
+                    .append("\nFiyat değişikliği: ").append(priceChanges).append(", düşüş: ").append(priceDrops)
+                    .append(" (toplam ").append(totalDropAmount).append(")");
+            if (!listingMillis.isEmpty()) {
+                out.append("\nListede kalma (").append(listingMillis.size()).append(" ilan): ortalama ")
+                        .append(TimeUnit.MILLISECONDS.toHours(getAverageListingMillis())).append(" saat, medyan ")
+                        .append(TimeUnit.MILLISECONDS.toHours(getMedianListingMillis())).append(" saat");
+            }
+            if (priceDrops > 0) {
+                out.append("\nSaate göre fiyat düşüşleri:");
+                for (int hour = 0; hour < 24; hour++) {
+                    if (priceDropsByHour[hour] > 0) {
+                        out.append(String.format("%n  %02d:00  %d", hour, priceDropsByHour[hour]));
+                    }
+                }
+            }
+            return out.toString();
+        }
+    }
+
+    // Çözülmüş blok; sütunlar decode() çağrılınca doldurulur
+    static final class Block {
+        String[] targets;
+        String[] vins;
+        int rows;
+        long base;
+        ByteBuffer columns;
+        int[] target;
+        int[] vin;
+        long[] timestamp;
+        long[] price;
+        byte[] status;
+
+        int indexOfVin(String value) {
+            for (int i = 0; i < vins.length; i++) {
+                if (vins[i].equals(value)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void decode() throws IOException {
+            target = new int[rows];
+            vin = new int[rows];
+            timestamp = new long[rows];
+            price = new long[rows];
+            status = new byte[rows];
+            ByteBuffer buffer = columns;
+            Varint.readVarInt(buffer);
+            int[] targetCodes = readRuns(buffer, rows);
+            for (int i = 0; i < rows; i++) {
+                target[i] = index(targetCodes[i], targets.length);
+            }
+            Varint.readVarInt(buffer);
+            int previousVin = 0;
+            for (int i = 0; i < rows; i++) {
+                previousVin += (int) Varint.readZigZag(buffer);
+                vin[i] = index(previousVin, vins.length);
+            }
+            Varint.readVarInt(buffer);
+            long time = base;
+            for (int i = 0; i < rows; i++) {
+                time += Varint.readZigZag(buffer);
+                timestamp[i] = time;
+            }
+            Varint.readVarInt(buffer);
+            long[] lastPrice = new long[vins.length];
+            for (int i = 0; i < rows; i++) {
+                lastPrice[vin[i]] += Varint.readZigZag(buffer);
+                price[i] = lastPrice[vin[i]];
+            }
+            Varint.readVarInt(buffer);
+            int[] statusCodes = readRuns(buffer, rows);
+            for (int i = 0; i < rows; i++) {
+                status[i] = (byte) statusCodes[i];
+            }
+        }
+
+        private static int[] readRuns(ByteBuffer buffer, int rows) throws IOException {
+            int[] values = new int[rows];
+            int filled = 0;
+            while (filled < rows) {
+                int value = Varint.readVarInt(buffer);
+                int run = Varint.readVarInt(buffer);
+                if (run == 0 || run > rows - filled) {
+                    throw new IOException("geçersiz tekrar sayısı: " + run);
+                }
+                Arrays.fill(values, filled, filled + run, value);
+                filled += run;
+            }
+            return values;
+        }
+
+        HistoryStore.Kind kind(int row) {
+            int code = status[row] & ~HistoryStore.IN_TRANSIT_FLAG;
+            HistoryStore.Kind[] kinds = HistoryStore.Kind.values();
+            return code < kinds.length ? kinds[code] : HistoryStore.Kind.SEEN;
+        }
+
+        boolean inTransit(int row) {
+            return (status[row] & HistoryStore.IN_TRANSIT_FLAG) != 0;
+        }
+
+        private static int index(int value, int size) throws IOException {
+            if (value < 0 || value >= size) {
+                throw new IOException("geçersiz sözlük dizini: " + value);
+            }
+            return value;
+        }
+    }
+
+    // Çözülen her blok için çağrılır
+    interface BlockVisitor {
+        void visit(Block block) throws IOException;
+    }
+
+    private final Path directory;
+
+    public HistoryReader(Path directory) {
+        this.directory = directory;
+    }
+
+    public List<Observation> vinHistory(String vin, LocalDate from, LocalDate to) throws IOException {
+        List<Observation> observations = new ArrayList<>();
+        scan(from, to, block -> block.indexOfVin(vin) >= 0, block -> {
+            int wanted = block.indexOfVin(vin);
+            for (int i = 0; i < block.rows; i++) {
+                if (block.vin[i] == wanted) {
+                    observations.add(new Observation(block.targets[block.target[i]], vin, block.timestamp[i],
+                            block.price[i], block.kind(i), block.inTransit(i)));
+                }
+            }
+        });
+        return observations;
+    }
+
+    // market: pazar kodu (ör. "DE", pazarın tüm hedefleri) ya da tam hedef anahtarı (ör. "DE/my/new")
+    public MarketSummary marketSummary(String market, LocalDate from, LocalDate to) throws IOException {
+        MarketSummary summary = new MarketSummary();
+        Map<String, Long> firstSeen = new HashMap<>();
+        Map<String, Long> lastPrice = new HashMap<>();
+        ZoneId zone = ZoneId.systemDefault();
+        scan(from, to, block -> {
+            for (String target : block.targets) {
+                if (matchesMarket(target, market)) {
+                    return true;
+                }
+            }
+            return false;
+        }, block -> {
+            boolean[] wanted = new boolean[block.targets.length];
+            for (int t = 0; t < wanted.length; t++) {
+                wanted[t] = matchesMarket(block.targets[t], market);
+            }
+            for (int i = 0; i < block.rows; i++) {
+                if (!wanted[block.target[i]]) {
+                    continue;
+                }
+                String vin = block.vins[block.vin[i]];
+                long timestamp = block.timestamp[i];
+                long price = block.price[i];
+                summary.observations++;
+                summary.vins.add(vin);
+                Long first = firstSeen.putIfAbsent(vin, timestamp);
+                Long previousPrice = lastPrice.put(vin, price);
+                switch (block.kind(i)) {
+                    case ADDED:
+                        summary.added++;
+                        break;
+                    case REMOVED:
+                        summary.removed++;
+                        if (first != null) {
+                            summary.listingMillis.add(timestamp - first);
+                        }
+                        firstSeen.remove(vin);
+                        break;
+                    case PRICE_CHANGED:
+                        summary.priceChanges++;
+                        if (previousPrice != null && price < previousPrice) {
+                            summary.priceDrops++;
+                            summary.totalDropAmount += previousPrice - price;
+                            summary.priceDropsByHour[Instant.ofEpochMilli(timestamp).atZone(zone).getHour()]++;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+        return summary;
+    }
+
+    private static boolean matchesMarket(String target, String market) {
+        return target.equalsIgnoreCase(market) || target.regionMatches(true, 0, market + "/", 0, market.length() + 1);
+    }
+
+    // Tarih aralığındaki (UTC, iki uç dahil) gün dosyalarını sırayla tarar
+    void scan(LocalDate from, LocalDate to, Predicate<Block> filter, BlockVisitor visitor) throws IOException {
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            Path file = HistoryStore.fileFor(directory, day);
+            if (Files.exists(file)) {
+                scanFile(file, filter, visitor);
+            }
+        }
+    }
+
+    private static void scanFile(Path file, Predicate<Block> filter, BlockVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            while (buffer.remaining() >= 12) {
+                int start = buffer.position();
+                if (buffer.getInt() != HistoryStore.BLOCK_MAGIC) {
+                    logger.warn("{} içinde {} konumunda geçersiz blok, dosyanın geri kalanı atlandı",
+                            file.getFileName(), start);
+                    return;
+                }
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining() - 4) {
+                    // Yazma sırasında kesilmiş son blok
+                    logger.debug("{} sonunda yarım blok atlandı", file.getFileName());
+                    return;
+                }
+                ByteBuffer body = buffer.slice();
+                body.limit(length);
+                buffer.position(buffer.position() + length);
+                int expectedCrc = buffer.getInt();
+                CRC32C crc = new CRC32C();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != expectedCrc) {
+                    logger.warn("{} içinde {} konumundaki blok bozuk, atlandı", file.getFileName(), start);
+                    continue;
+                }
+                try {
+                    Block block = readHeader(body);
+                    if (filter.test(block)) {
+                        block.decode();
+                        visitor.visit(block);
+                    }
+                } catch (BufferUnderflowException | IOException e) {
+                    logger.warn("{} içinde {} konumundaki blok okunamadı: {}", file.getFileName(), start,
+                            e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Block readHeader(ByteBuffer body) throws IOException {
+        Block block = new Block();
+        block.rows = Varint.readCount(body);
+        block.base = body.getLong();
+        block.targets = new String[Varint.readCount(body)];
+        for (int i = 0; i < block.targets.length; i++) {
+            block.targets[i] = Varint.readString(body, MAX_STRING_BYTES);
+        }
+        block.vins = new String[Varint.readCount(body)];
+        for (int i = 0; i < block.vins.length; i++) {
+            block.vins[i] = Varint.readString(body, MAX_STRING_BYTES);
+        }
+        block.columns = body;
+        return block;
+    }
+
+    static LocalDate dayOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(HistoryStore.FILE_PREFIX) || !name.endsWith(HistoryStore.FILE_SUFFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(name.substring(HistoryStore.FILE_PREFIX.length(),
+                    name.length() - HistoryStore.FILE_SUFFIX.length()));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !Arrays.asList("vin", "market").contains(args[0])) {
+            System.err.println("Kullanım: HistoryReader vin <VIN> [gün] | market <pazar|hedef> [gün]");
+            System.exit(2);
+        }
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        Path directory = Paths.get(Env.get("HISTORY_DIR", Paths.get(Env.get("VIN_STORE_DIR", "."), "history")
+                .toString()));
+        LocalDate to = LocalDate.now(ZoneOffset.UTC);
+        LocalDate from = to.minusDays(Math.max(0, days - 1));
+        HistoryReader reader = new HistoryReader(directory);
+        if ("vin".equals(args[0])) {
+            for (Observation observation : reader.vinHistory(args[1], from, to)) {
+                System.out.println(observation);
+            }
+        } else {
+            System.out.println(reader.marketSummary(args[1], from, to));
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+// İlan geçmişi: her gözlem (hedef, VIN, zaman, fiyat, durum) gün başına bir dosyaya (UTC) eklenir.
+// Her turun tamamını yazmak yerine olaylar (eklendi, kaldırıldı, fiyat/durum değişti) ve hedef başına
+// aralıklı "hâlâ listede" kayıtları yazılır. Satırlar bellekte biriktirilir ve sütun bloklarına
+// dönüştürülüp dosyanın sonuna eklenir: blok başına VIN ve hedef sözlüğü; VIN dizini ve zaman için bir önceki
+// satıra, fiyat için aynı VIN'in önceki fiyatına göre zigzag varint fark; hedef ve durum için tekrar sayısı
+// kodlaması (run-length). Sorgular HistoryReader ile yapılır.
+//
+// Blok: magic | gövde uzunluğu | gövde | CRC32C(gövde). Yarım yazılmış son blok okunurken atlanır; yazarken
+// dosyanın sonu hep tam bir blokta biter: yazma hatasında dosya yazmadan önceki boyuna, çökmeden sonra ilk
+// eklemede son tam bloğun sonuna kısaltılır. Böylece yeniden denenen bloklar yarım baytların ardına eklenmez.
+public class HistoryStore {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryStore.class);
+
+    private static final MetricsRegistry.Family<MetricsRegistry.Counter> ROWS = MetricsRegistry.getDefault()
+            .counter("tesla_history_rows_total", "Geçmiş dosyasına yazılan gözlemler", "kind");
+
+    static final int BLOCK_MAGIC = 0x54424842; // "TBHB"
+    static final String FILE_PREFIX = "history-";
+    static final String FILE_SUFFIX = ".bin";
+    static final int IN_TRANSIT_FLAG = 0x80;
+    private static final int MAX_BLOCK_ROWS = 8192;
+
+    // Gözlem türü; sıra dosyadaki kodu belirler, yalnızca sona eklenebilir
+    public enum Kind {
+        SEEN,
+        ADDED,
+        REMOVED,
+        PRICE_CHANGED,
+        STATUS_CHANGED;
+
+        static Kind of(InventoryEvent.Type type) {
+            switch (type) {
+                case ADDED:
+                    return ADDED;
+                case REMOVED:
+                    return REMOVED;
+                case PRICE_CHANGED:
+                    return PRICE_CHANGED;
+                default:
+                    return STATUS_CHANGED;
+            }
+        }
+    }
+
+    private static final class Row {
+        final String target;
+        final String vin;
+        final long timestamp;
+        final long price;
+        final int status;
+
+        Row(String target, String vin, long timestamp, long price, int status) {
+            this.target = target;
+            this.vin = vin;
+            this.timestamp = timestamp;
+            this.price = price;
+            this.status = status;
+        }
+    }
+
+    private final Path directory;
+    private final long heartbeatMillis;
+    private final int retentionDays;
+    private final HistoryReader reader;
+    private final Map<String, Long> lastHeartbeat = new ConcurrentHashMap<>();
+    private final Object pendingLock = new Object();
+    private final Object flushLock = new Object();
+    private final Set<Path> checkedFiles = ConcurrentHashMap.newKeySet(); // Sonu bu süreçte kontrol edilenler
+    private final ScheduledExecutorService maintenance;
+    private List<Row> pending = new ArrayList<>();
+
+    public HistoryStore() throws IOException {
+        this(Paths.get(Env.get("HISTORY_DIR", Paths.get(Env.get("VIN_STORE_DIR", "."), "history").toString())),
+                TimeUnit.MINUTES.toMillis(Env.getLong("HISTORY_HEARTBEAT_MINUTES", 30)),
+                TimeUnit.SECONDS.toMillis(Env.getLong("HISTORY_FLUSH_SECONDS", 60)),
+                Env.getInt("HISTORY_RETENTION_DAYS", 365));
+    }
+
+    public HistoryStore(Path directory, long heartbeatMillis, long flushIntervalMillis, int retentionDays)
+            throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.heartbeatMillis = Math.max(0, heartbeatMillis);
+        this.retentionDays = Math.max(0, retentionDays);
+        this.reader = new HistoryReader(directory);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "history-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushMillis = Math.max(1000, flushIntervalMillis);
+        maintenance.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        maintenance.scheduleWithFixedDelay(this::deleteExpired, 0, 1, TimeUnit.DAYS);
+        logger.info("İlan geçmişi {} dizinine yazılıyor (listede kayıtları {} dakikada bir, saklama {} gün)",
+                directory, TimeUnit.MILLISECONDS.toMinutes(this.heartbeatMillis), this.retentionDays);
+    }
+
+    // Bellekte bekleyen satırlar sorgulara flush() sonrası yansır
+    public HistoryReader getReader() {
+        return reader;
+    }
+
+    // Turun olaylarını yazar; hedefin son "listede" kaydı heartbeat süresinden eskiyse envanterdeki
+    // tüm ilanlar için de birer SEEN satırı ekler. Hedefin ilk turunda SEEN satırları hemen yazılır.
+    public void record(WatchTarget target, InventorySnapshot inventory, Collection<InventoryEvent> events,
+            long timestamp) {
+        String key = target.key();
+        List<Row> rows = new ArrayList<>(events.size());
+        for (InventoryEvent event : events) {
+            InventoryCar car = event.getCar();
+            rows.add(new Row(key, event.getVin(), timestamp, car.getPrice(), status(Kind.of(event.getType()), car)));
+        }
+        Long last = lastHeartbeat.get(key);
+        if (inventory != null && (last == null || timestamp - last >= heartbeatMillis)) {
+            lastHeartbeat.put(key, timestamp);
+            for (InventoryCar car : inventory.cars()) {
+                rows.add(new Row(key, car.getVin(), timestamp, car.getPrice(), status(Kind.SEEN, car)));
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        for (Row row : rows) {
+            ROWS.labels(Kind.values()[row.status & ~IN_TRANSIT_FLAG].name().toLowerCase()).inc();
+        }
+        synchronized (pendingLock) {
+            pending.addAll(rows);
+        }
+    }
+
+    private static int status(Kind kind, InventoryCar car) {
+        return kind.ordinal() | (car.isInTransit() ? IN_TRANSIT_FLAG : 0);
+    }
+
+    // Bekleyen satırları gün dosyalarına blok olarak ekler. Dosya yazılırken turlar satır eklemeye devam
+    // edebilir; yazılamayan günlerin satırları bir sonraki denemeye bırakılır.
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            List<Row> rows;
+            synchronized (pendingLock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                rows = pending;
+                pending = new ArrayList<>();
+            }
+            Map<LocalDate, List<Row>> byDay = new TreeMap<>();
+            for (Row row : rows) {
+                LocalDate day = Instant.ofEpochMilli(row.timestamp).atZone(ZoneOffset.UTC).toLocalDate();
+                byDay.computeIfAbsent(day, d -> new ArrayList<>()).add(row);
+            }
+            List<LocalDate> days = new ArrayList<>(byDay.keySet());
+            for (int i = 0; i < days.size(); i++) {
+                try {
+                    append(fileFor(directory, days.get(i)), byDay.get(days.get(i)));
+                } catch (IOException e) {
+                    List<Row> unwritten = new ArrayList<>();
+                    for (LocalDate day : days.subList(i, days.size())) {
+                        unwritten.addAll(byDay.get(day));
+                    }
+                    synchronized (pendingLock) {
+                        unwritten.addAll(pending);
+                        pending = unwritten;
+                    }
+                    throw e;
+                }
+            }
+            logger.debug("{} geçmiş satırı yazıldı", rows.size());
+        }
+    }
+
+    // Günün satırları ya tamamen yazılır ya da dosya yazmadan önceki boyuna döner; flush hata durumunda
+    // günün tüm satırlarını yeniden kuyruğa koyduğu için yarısı yazılmış bloklar tekrar eklenmez
+    private void append(Path file, List<Row> rows) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (checkedFiles.add(file)) {
+                truncateTornTail(file, channel);
+            }
+            long start = channel.size();
+            channel.position(start);
+            try {
+                for (int from = 0; from < rows.size(); from += MAX_BLOCK_ROWS) {
+                    ByteBuffer block = ByteBuffer.wrap(
+                            encodeBlock(rows.subList(from, Math.min(rows.size(), from + MAX_BLOCK_ROWS))));
+                    while (block.hasRemaining()) {
+                        channel.write(block);
+                    }
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                try {
+                    channel.truncate(start);
+                } catch (IOException truncateError) {
+                    // Sonraki eklemede son tam bloğa kadar kısaltılır
+                    checkedFiles.remove(file);
+                    e.addSuppressed(truncateError);
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Çökme sırasında yarım kalmış son bloğu (ya da çerçevesi bozuk kuyruğu) siler
+    private static void truncateTornTail(Path file, FileChannel channel) throws IOException {
+        long size = channel.size();
+        long end = 0;
+        ByteBuffer header = ByteBuffer.allocate(8);
+        while (size - end >= 12) {
+            header.clear();
+            int read = 0;
+            while (header.hasRemaining() && read >= 0) {
+                read = channel.read(header, end + header.position());
+            }
+            header.flip();
+            if (header.remaining() < 8 || header.getInt() != BLOCK_MAGIC) {
+                break;
+            }
+            int length = header.getInt();
+            if (length < 0 || length > size - end - 12) {
+                break;
+            }
+            end += 12L + length;
+        }
+        if (end < size) {
+            channel.truncate(end);
+            channel.force(false);
+            logger.warn("{} sonundaki yarım blok silindi ({} bayt)", file.getFileName(), size - end);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            logger.error("İlan geçmişi yazılamadı: {}", e.getMessage());
+        }
+    }
+
+    static Path fileFor(Path directory, LocalDate day) {
+        return directory.resolve(FILE_PREFIX + day + FILE_SUFFIX);
+    }
+
+    private static byte[] encodeBlock(List<Row> rows) {
+        Map<String, Integer> targets = new LinkedHashMap<>();
+        Map<String, Integer> vins = new LinkedHashMap<>();
+        for (Row row : rows) {
+            targets.putIfAbsent(row.target, targets.size());
+            vins.putIfAbsent(row.vin, vins.size());
+        }
+        long base = rows.get(0).timestamp;
+
+        ByteArrayOutputStream targetColumn = new ByteArrayOutputStream(rows.size());
+        ByteArrayOutputStream vinColumn = new ByteArrayOutputStream(rows.size() * 2);
+        ByteArrayOutputStream timeColumn = new ByteArrayOutputStream(rows.size());
+        ByteArrayOutputStream priceColumn = new ByteArrayOutputStream(rows.size());
+        ByteArrayOutputStream statusColumn = new ByteArrayOutputStream(rows.size());
+        long[] lastPrice = new long[vins.size()];
+        long previousTime = base;
+        int previousVin = 0;
+        int[] targetRun = {-1, 0};
+        int[] statusRun = {-1, 0};
+        for (Row row : rows) {
+            int vin = vins.get(row.vin);
+            appendRun(targetColumn, targetRun, targets.get(row.target));
+            Varint.writeZigZag(vinColumn, vin - previousVin);
+            previousVin = vin;
+            Varint.writeZigZag(timeColumn, row.timestamp - previousTime);
+            previousTime = row.timestamp;
+            Varint.writeZigZag(priceColumn, row.price - lastPrice[vin]);
+            lastPrice[vin] = row.price;
+            appendRun(statusColumn, statusRun, row.status);
+        }
+        appendRun(targetColumn, targetRun, -1);
+        appendRun(statusColumn, statusRun, -1);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(rows.size() * 6 + vins.size() * 18 + 64);
+        Varint.writeVarLong(body, rows.size());
+        Varint.writeLong(body, base);
+        Varint.writeVarLong(body, targets.size());
+        for (String target : targets.keySet()) {
+            Varint.writeString(body, target);
+        }
+        Varint.writeVarLong(body, vins.size());
+        for (String vin : vins.keySet()) {
+            Varint.writeString(body, vin);
+        }
+        for (ByteArrayOutputStream column : new ByteArrayOutputStream[]{targetColumn, vinColumn, timeColumn,
+                priceColumn, statusColumn}) {
+            Varint.writeVarLong(body, column.size());
+            body.writeBytes(column.toByteArray());
+        }
+
+        byte[] bytes = body.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length);
+        ByteArrayOutputStream block = new ByteArrayOutputStream(bytes.length + 12);
+        Varint.writeInt(block, BLOCK_MAGIC);
+        Varint.writeInt(block, bytes.length);
+        block.writeBytes(bytes);
+        Varint.writeInt(block, (int) crc.getValue());
+        return block.toByteArray();
+    }
+
+    // Tekrarlanan değerler (değer, tekrar sayısı) çiftleri olarak yazılır; run = {değer, sayı}.
+    // value -1 bekleyen son çifti yazar.
+    private static void appendRun(ByteArrayOutputStream column, int[] run, int value) {
+        if (value == run[0]) {
+            run[1]++;
+            return;
+        }
+        if (run[1] > 0) {
+            Varint.writeVarLong(column, run[0]);
+            Varint.writeVarLong(column, run[1]);
+        }
+        run[0] = value;
+        run[1] = 1;
+    }
+
+    private void deleteExpired() {
+        if (retentionDays == 0) {
+            return;
+        }
+        LocalDate oldest = LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                LocalDate day = HistoryReader.dayOf(file);
+                if (day != null && day.isBefore(oldest)) {
+                    Files.deleteIfExists(file);
+                    logger.info("Saklama süresi dolan geçmiş dosyası silindi: {}", file.getFileName());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Eski geçmiş dosyaları silinemedi: {}", e.getMessage());
+        }
+    }
+
+    public void close() {
+        maintenance.shutdownNow();
+        flushQuietly();
+    }
+}
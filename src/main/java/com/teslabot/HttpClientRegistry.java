@@ -0,0 +1,144 @@
+package com.teslabot;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Cookie;
+import okhttp3.CookieJar;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Proxy başına tek OkHttpClient. Tüm client'lar aynı kök client'tan newBuilder() ile türetilir,
+// böylece dispatcher ve thread havuzu paylaşılır; her proxy kendi keep-alive bağlantı havuzunu tutar.
+// Yedek istekler ayrı bir dispatcher kullanır: tüm istekler aynı host'a gittiği için ortak dispatcher'ın
+// host başına sınırını sayfa istekleri doldurur ve yedek istek, yarışacağı yavaş isteğin arkasında beklerdi.
+public class HttpClientRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientRegistry.class);
+
+    private static final CookieJar NO_COOKIES = new CookieJar() {
+        @Override
+        public void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
+        }
+
+        @Override
+        public List<Cookie> loadForRequest(HttpUrl url) {
+            return Collections.emptyList();
+        }
+    };
+
+    private final OkHttpClient rootClient;
+    private final HandshakeMetrics handshakeMetrics = new HandshakeMetrics();
+    private final Map<Proxy, OkHttpClient> clients = new ConcurrentHashMap<>();
+    private final Map<Proxy, OkHttpClient> hedgeClients = new ConcurrentHashMap<>();
+    private final Dispatcher hedgeDispatcher;
+
+    private final int maxIdleConnections;
+    private final long keepAliveSeconds;
+
+    public HttpClientRegistry() {
+        this(Env.getInt("HTTP_POOL_MAX_IDLE", 5), Env.getLong("HTTP_POOL_KEEP_ALIVE_SECONDS", 300),
+                Env.getInt("HTTP_MAX_REQUESTS", 64), Env.getInt("HTTP_MAX_REQUESTS_PER_HOST", 5));
+    }
+
+    // İsteğin dispatcher kuyruğundan çıkıp çalışmaya başladığı an. Gecikme enqueue anından ölçülürse
+    // kuyrukta bekleme de gecikmeye sayılır; istek tag'i olarak verilir, kök client'ın interceptor'ı doldurur.
+    public static final class StartTime {
+        private volatile long nanos = 0;
+
+        // İstek henüz başlamadıysa fallbackNanos'tan ölçülür
+        public long elapsedMillis(long fallbackNanos) {
+            long start = nanos;
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - (start != 0 ? start : fallbackNanos));
+        }
+    }
+
+    public HttpClientRegistry(int maxIdleConnections, long keepAliveSeconds, int maxRequests,
+            int maxRequestsPerHost) {
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAliveSeconds = keepAliveSeconds;
+        Dispatcher dispatcher = newDispatcher(maxRequests, maxRequestsPerHost);
+        this.hedgeDispatcher = newDispatcher(maxRequests, maxRequestsPerHost);
+        this.rootClient = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .addInterceptor(chain -> {
+                    StartTime startTime = chain.request().tag(StartTime.class);
+                    if (startTime != null) {
+                        startTime.nanos = System.nanoTime();
+                    }
+                    return chain.proceed(chain.request());
+                })
+                .connectTimeout(60, TimeUnit.SECONDS)
+                .readTimeout(60, TimeUnit.SECONDS)
+                .writeTimeout(60, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                .protocols(Collections.singletonList(Protocol.HTTP_1_1))
+                .cookieJar(NO_COOKIES)
+                .eventListener(handshakeMetrics)
+                .build();
+        logger.info("HTTP client havuzu hazır (proxy başına en fazla {} boşta bağlantı, keep-alive {} sn)",
+                maxIdleConnections, keepAliveSeconds);
+    }
+
+    // Eşzamanlı istek sınırları dispatcher'dadır (varsayılanlar OkHttp'ninkiyle aynı); asenkron
+    // çağrılar sanal iş parçacığı modunda sanal iş parçacıklarında yürür
+    private static Dispatcher newDispatcher(int maxRequests, int maxRequestsPerHost) {
+        Dispatcher dispatcher = ExecutionMode.getDefault().isVirtual()
+                ? new Dispatcher(ExecutionMode.getDefault().newExecutor(0))
+                : new Dispatcher();
+        dispatcher.setMaxRequests(Math.max(1, maxRequests));
+        dispatcher.setMaxRequestsPerHost(Math.max(1, maxRequestsPerHost));
+        return dispatcher;
+    }
+
+    public OkHttpClient clientFor(Proxy proxy) {
+        return clients.computeIfAbsent(proxy, p -> rootClient.newBuilder()
+                .proxy(p)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                .build());
+    }
+
+    // Proxy'nin bağlantı havuzunu paylaşır, yedek isteklerin dispatcher'ını kullanır
+    public OkHttpClient hedgeClientFor(Proxy proxy) {
+        return hedgeClients.computeIfAbsent(proxy, p -> clientFor(p).newBuilder()
+                .dispatcher(hedgeDispatcher)
+                .build());
+    }
+
+    // Artık kullanılmayan proxy'nin client'ını ve açık bağlantılarını bırakır
+    public void evict(Proxy proxy) {
+        hedgeClients.remove(proxy);
+        OkHttpClient client = clients.remove(proxy);
+        if (client != null) {
+            client.connectionPool().evictAll();
+        }
+    }
+
+    public HandshakeMetrics getHandshakeMetrics() {
+        return handshakeMetrics;
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    public void close() {
+        for (OkHttpClient client : clients.values()) {
+            client.connectionPool().evictAll();
+        }
+        clients.clear();
+        hedgeClients.clear();
+        rootClient.connectionPool().evictAll();
+        rootClient.dispatcher().executorService().shutdown();
+        hedgeDispatcher.executorService().shutdown();
+        logger.info("HTTP client havuzu kapatıldı. {}", handshakeMetrics);
+    }
+}
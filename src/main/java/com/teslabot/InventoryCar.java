@@ -0,0 +1,108 @@
+package com.teslabot;
+
+import java.util.Objects;
+
+// Envanter ilanının bot tarafından kullanılan alanları; yanıtın geri kalanı saklanmaz
+public final class InventoryCar {
+    private final String vin;
+    private final String model;
+    private final String trim; // Trim kodu (ör. LRAWD); yanıtta yoksa boş
+    private final String trimName;
+    private final String year;
+    private final long price;
+    private final String currency;
+    private final String paint;
+    private final String interior;
+    private final boolean inTransit;
+
+    public InventoryCar(String vin, String model, String trimName, String year, long price, String currency,
+            String paint, String interior, boolean inTransit) {
+        this(vin, model, null, trimName, year, price, currency, paint, interior, inTransit);
+    }
+
+    public InventoryCar(String vin, String model, String trim, String trimName, String year, long price,
+            String currency, String paint, String interior, boolean inTransit) {
+        this.vin = nullToEmpty(vin);
+        this.model = nullToEmpty(model);
+        this.trim = nullToEmpty(trim);
+        this.trimName = nullToEmpty(trimName);
+        this.year = nullToEmpty(year);
+        this.price = price;
+        this.currency = nullToEmpty(currency);
+        this.paint = nullToEmpty(paint);
+        this.interior = nullToEmpty(interior);
+        this.inTransit = inTransit;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    public String getVin() {
+        return vin;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getTrim() {
+        return trim;
+    }
+
+    public String getTrimName() {
+        return trimName;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public long getPrice() {
+        return price;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public String getPaint() {
+        return paint;
+    }
+
+    public String getInterior() {
+        return interior;
+    }
+
+    public boolean isInTransit() {
+        return inTransit;
+    }
+
+    public String getStatus() {
+        return inTransit ? "IN_TRANSIT" : "IN_STOCK";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InventoryCar)) {
+            return false;
+        }
+        InventoryCar other = (InventoryCar) o;
+        return price == other.price && inTransit == other.inTransit && vin.equals(other.vin)
+                && model.equals(other.model) && trim.equals(other.trim) && trimName.equals(other.trimName) && year.equals(other.year)
+                && currency.equals(other.currency) && paint.equals(other.paint) && interior.equals(other.interior);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(vin, price, inTransit);
+    }
+
+    @Override
+    public String toString() {
+        return year + " " + model + " " + trimName + " " + vin + " " + price + " " + currency;
+    }
+}
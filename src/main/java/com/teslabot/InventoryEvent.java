@@ -0,0 +1,81 @@
+package com.teslabot;
+
+// İki tur arasındaki envanter farkından üretilen olay
+public final class InventoryEvent {
+
+    public enum Type {
+        ADDED,
+        REMOVED,
+        PRICE_CHANGED,
+        STATUS_CHANGED
+    }
+
+    private final Type type;
+    private final String vin;
+    private final InventoryCar car; // REMOVED için önceki kayıt, diğerleri için güncel kayıt
+    private final InventoryCar previous; // ADDED için null
+
+    private InventoryEvent(Type type, String vin, InventoryCar car, InventoryCar previous) {
+        this.type = type;
+        this.vin = vin;
+        this.car = car;
+        this.previous = previous;
+    }
+
+    static InventoryEvent added(String vin, InventoryCar car) {
+        return new InventoryEvent(Type.ADDED, vin, car, null);
+    }
+
+    static InventoryEvent removed(String vin, InventoryCar previous) {
+        return new InventoryEvent(Type.REMOVED, vin, previous, previous);
+    }
+
+    static InventoryEvent priceChanged(String vin, InventoryCar car, InventoryCar previous) {
+        return new InventoryEvent(Type.PRICE_CHANGED, vin, car, previous);
+    }
+
+    static InventoryEvent statusChanged(String vin, InventoryCar car, InventoryCar previous) {
+        return new InventoryEvent(Type.STATUS_CHANGED, vin, car, previous);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getVin() {
+        return vin;
+    }
+
+    public InventoryCar getCar() {
+        return car;
+    }
+
+    public InventoryCar getPrevious() {
+        return previous;
+    }
+
+    public long getOldPrice() {
+        return previous == null ? 0 : previous.getPrice();
+    }
+
+    public long getNewPrice() {
+        return car.getPrice();
+    }
+
+    public boolean isPriceDrop() {
+        return type == Type.PRICE_CHANGED && getNewPrice() < getOldPrice();
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case PRICE_CHANGED:
+                return type + " " + vin + " " + getOldPrice() + " -> " + getNewPrice();
+            case STATUS_CHANGED:
+                return type + " " + vin + " " + previous.getStatus() + " -> "
+                        + car.getStatus();
+            default:
+                return type + " " + vin;
+        }
+    }
+}
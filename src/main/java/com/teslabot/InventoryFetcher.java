@@ -0,0 +1,295 @@
+package com.teslabot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+// Tesla envanter API'sinden bir hedefin tüm sayfalarını çeker. İlk sayfadan total_matches_found okunur,
+// kalan offset'ler proxy havuzuna dağıtılarak paralel indirilir ve tek sonuçta birleştirilir.
+public class InventoryFetcher {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryFetcher.class);
+
+    private static final String TESLA_API_URL = "https://www.tesla.com/coinorder/api/v4/inventory-results";
+
+    private static final MetricsRegistry.Family<MetricsRegistry.Histogram> REQUEST_DURATION = MetricsRegistry
+            .getDefault().histogram("tesla_request_duration_seconds",
+                    "Envanter sayfası isteğinin yanıt başlıklarına kadar süresi", MetricsRegistry.LATENCY_BUCKETS,
+                    "market", "proxy");
+    private static final MetricsRegistry.Family<MetricsRegistry.Counter> HTTP_RESPONSES = MetricsRegistry
+            .getDefault().counter("tesla_http_responses_total",
+                    "Envanter isteklerinin HTTP durum kodu dağılımı (bağlantı hatası: error)", "market", "status");
+    private static final MetricsRegistry.Family<MetricsRegistry.Counter> CACHE_RESULTS = MetricsRegistry
+            .getDefault().counter("tesla_response_cache_total",
+                    "Sayfa önbelleği sonuçları (not_modified, fingerprint, miss)", "market", "result");
+    private static final MetricsRegistry.Family<MetricsRegistry.Histogram> PARSE_DURATION = MetricsRegistry
+            .getDefault().histogram("tesla_parse_duration_seconds",
+                    "Yanıt gövdesinin okunup ayrıştırılma süresi", MetricsRegistry.LATENCY_BUCKETS, "market");
+
+    private final ProxyManager proxyManager;
+    private final InventoryResponseParser parser;
+    private final ResponseCache responseCache;
+    private final HedgedRequestExecutor hedgedExecutor;
+    private final ExecutorService pageExecutor;
+    private final Semaphore pagePermits;
+    private final ObjectMapper objectMapper;
+    private volatile Map<WatchTarget, String> upstreamOptions = Collections.emptyMap();
+    private volatile ResponseCapture capture; // Yakalama modu kapalıysa null
+    private final String apiUrl;
+    private final int pageSize;
+    private final int maxPages;
+
+    public InventoryFetcher(HttpClientRegistry httpClients, ProxyManager proxyManager, ObjectMapper objectMapper) {
+        this(httpClients, proxyManager, objectMapper,
+                Env.getInt("TESLA_PAGE_SIZE", 24),
+                Env.getInt("TESLA_PAGE_PARALLELISM", 4),
+                Env.getInt("TESLA_MAX_PAGES", 50),
+                Env.get("TESLA_API_URL", TESLA_API_URL));
+    }
+
+    public InventoryFetcher(HttpClientRegistry httpClients, ProxyManager proxyManager, ObjectMapper objectMapper,
+            int pageSize, int pageParallelism, int maxPages, String apiUrl) {
+        this.proxyManager = proxyManager;
+        this.objectMapper = objectMapper;
+        this.parser = new InventoryResponseParser(objectMapper.getFactory());
+        this.responseCache = new ResponseCache();
+        this.hedgedExecutor = new HedgedRequestExecutor(httpClients, proxyManager);
+        this.apiUrl = apiUrl;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxPages = Math.max(1, maxPages);
+        this.pageExecutor = ExecutionMode.getDefault().newExecutor(pageParallelism);
+        this.pagePermits = new Semaphore(Math.max(1, pageParallelism));
+        logger.info("Sayfa boyutu: {}, paralel sayfa: {}, en fazla sayfa: {}", this.pageSize, pageParallelism,
+                this.maxPages);
+    }
+
+    // Tek sayfanın sonucu; hit: önbellektekiyle aynı (304 ya da aynı parmak izi)
+    private static final class PageFetch {
+        final String key;
+        final ResponseCache.Entry entry;
+        final boolean hit;
+
+        PageFetch(String key, ResponseCache.Entry entry, boolean hit) {
+            this.key = key;
+            this.entry = entry;
+            this.hit = hit;
+        }
+
+        InventoryResponseParser.Page page() {
+            return entry.getPage();
+        }
+    }
+
+    // Abone kurallarından türetilen API filtreleri (hedef -> "options" nesnesi); boşsa filtre gönderilmez
+    public void setUpstreamOptions(Map<WatchTarget, Map<String, List<String>>> options) {
+        Map<WatchTarget, String> serialized = new HashMap<>();
+        for (Map.Entry<WatchTarget, Map<String, List<String>>> entry : options.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            try {
+                serialized.put(entry.getKey(), objectMapper.writeValueAsString(entry.getValue()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("API filtresi oluşturulamadı: " + e.getMessage(), e);
+            }
+            logger.info("[{}] API filtresi: {}", entry.getKey(), serialized.get(entry.getKey()));
+        }
+        this.upstreamOptions = Collections.unmodifiableMap(serialized);
+    }
+
+    // Yakalama modu: her sayfa yanıtı ham haliyle kaydedilir
+    public void setCapture(ResponseCapture capture) {
+        this.capture = capture;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public HedgedRequestExecutor getHedgedExecutor() {
+        return hedgedExecutor;
+    }
+
+    public InventoryResult fetchAll(WatchTarget target) throws IOException {
+        PageFetch firstPage = fetchPage(target, 0);
+        int totalMatches = firstPage.page().getTotalMatches();
+
+        Map<String, InventoryCar> cars = new LinkedHashMap<>();
+        Map<String, ResponseCache.Entry> cycleEntries = new LinkedHashMap<>();
+        boolean unchanged = firstPage.hit;
+        int approximate = collectCars(firstPage, cars, cycleEntries);
+
+        int pages = (int) Math.min(maxPages, Math.max(1, (totalMatches + (long) pageSize - 1) / pageSize));
+        if (pages * (long) pageSize < totalMatches) {
+            logger.warn("[{}] {} eşleşmenin yalnızca ilk {} sayfası okunacak (TESLA_MAX_PAGES)", target,
+                    totalMatches, pages);
+        }
+
+        if (pages > 1) {
+            // Sayfalar offset sırasıyla birleştirilir; eksik sayfa varsa tüm tur başarısız sayılır
+            try (CycleScope scope = new CycleScope(pageExecutor)) {
+                List<CycleScope.Subtask<PageFetch>> subtasks = new ArrayList<>(pages - 1);
+                for (int page = 1; page < pages; page++) {
+                    int offset = page * pageSize;
+                    subtasks.add(scope.fork(() -> fetchPageWithPermit(target, offset)));
+                }
+                scope.join();
+                for (CycleScope.Subtask<PageFetch> subtask : subtasks) {
+                    PageFetch page = subtask.get();
+                    unchanged &= page.hit;
+                    approximate += collectCars(page, cars, cycleEntries);
+                }
+            }
+        }
+
+        responseCache.putAll(cycleEntries);
+        return new InventoryResult(totalMatches, new ArrayList<>(cars.values()), approximate, pages, unchanged);
+    }
+
+    // Sanal iş parçacığı modunda havuz boyutu sınır koymadığından eşzamanlı sayfa isteği burada sınırlanır
+    private PageFetch fetchPageWithPermit(WatchTarget target, int offset) throws IOException {
+        try {
+            pagePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Sayfa izni beklenirken interrupt edildi");
+        }
+        try {
+            return fetchPage(target, offset);
+        } finally {
+            pagePermits.release();
+        }
+    }
+
+    // Aynı VIN sayfalar arasında kayarsa (fiyat sıralaması değişti) tek kez tutulur
+    private int collectCars(PageFetch page, Map<String, InventoryCar> cars,
+            Map<String, ResponseCache.Entry> cycleEntries) {
+        for (InventoryCar car : page.page().getCars()) {
+            cars.putIfAbsent(car.getVin(), car);
+        }
+        cycleEntries.put(page.key, page.entry);
+        return page.page().getApproximateCount();
+    }
+
+    private PageFetch fetchPage(WatchTarget target, int offset) throws IOException {
+        String cacheKey = ResponseCache.key(target, offset);
+        ResponseCache.Entry cached = responseCache.get(cacheKey);
+        Request.Builder builder = new Request.Builder()
+                .url(buildTeslaApiUrl(target, offset))
+                .addHeader("User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36")
+                .addHeader("Accept", "application/json")
+                .addHeader("Referer", "https://www.tesla.com/" + target.getLocale().toLowerCase()
+                        + "/inventory/" + target.getCondition() + "/" + target.getModel())
+                .addHeader("priority", "u=1, i")
+                .addHeader("sec-ch-ua",
+                        "\"Not)A;Brand\";v=\"8\", \"Chromium\";v=\"138\", \"Google Chrome\";v=\"138\"")
+                .addHeader("sec-ch-ua-mobile", "?0")
+                .addHeader("sec-ch-ua-platform", "\"macOS\"")
+                .addHeader("sec-fetch-dest", "empty")
+                .addHeader("sec-fetch-mode", "cors")
+                .addHeader("sec-fetch-site", "same-origin");
+        if (cached != null && cached.getEtag() != null) {
+            builder.addHeader("If-None-Match", cached.getEtag());
+        }
+        if (cached != null && cached.getLastModified() != null) {
+            builder.addHeader("If-Modified-Since", cached.getLastModified());
+        }
+        Request request = builder.build();
+
+        HedgedRequestExecutor.Attempt response;
+        try {
+            response = hedgedExecutor.execute(request);
+        } catch (IOException e) {
+            HTTP_RESPONSES.labels(target.getMarket(), "error").inc();
+            capture(target, offset, -1, 0, null);
+            throw e;
+        }
+        ProxyEndpoint proxy = response.getProxy();
+        long latency = response.getLatencyMillis();
+        capture(target, offset, response.getCode(), latency, response.getBody());
+        REQUEST_DURATION.labels(target.getMarket(), proxy.getKey()).observeMillis(latency);
+        HTTP_RESPONSES.labels(target.getMarket(), Integer.toString(response.getCode())).inc();
+        logger.debug("[{}] offset {} yanıtı {} ms içinde alındı (proxy: {}{})", target, offset, latency,
+                proxy.getKey(), response.isHedged() ? ", yedek istek" : "");
+        if (response.getCode() == 304 && cached != null) {
+            proxyManager.recordSuccess(proxy, latency);
+            recordCache(target, "not_modified");
+            return new PageFetch(cacheKey, cached, true);
+        }
+        if (!response.isSuccessful() || response.getCode() == 304) {
+            // 403/429/5xx proxy hatası, diğer 4xx'ler başarı olarak yürütücü tarafından kaydedildi. Önbellekte
+            // karşılığı olmayan 304 proxy'nin hatası değildir
+            if (response.getCode() == 304) {
+                proxyManager.recordSuccess(proxy, latency);
+            }
+            throw new TeslaApiException(response.getCode(), response.getMessage());
+        }
+        // Gövde ham bayt olarak okunmuş durumda; parmak izi önceki turla aynıysa ayrıştırma atlanır
+        byte[] bytes = response.getBody();
+        long fingerprint = ResponseCache.fingerprint(bytes);
+        String etag = response.header("ETag");
+        String lastModified = response.header("Last-Modified");
+        if (cached != null && cached.getFingerprint() == fingerprint) {
+            proxyManager.recordSuccess(proxy, latency);
+            recordCache(target, "fingerprint");
+            return new PageFetch(cacheKey,
+                    new ResponseCache.Entry(etag, lastModified, fingerprint, cached.getPage()), true);
+        }
+        long parseStart = System.nanoTime();
+        InventoryResponseParser.Page page;
+        try {
+            page = parser.parse(bytes);
+        } catch (IOException e) {
+            // Bozuk ya da yarım gövde (ör. engelleme sayfası) proxy'ye yazılır
+            proxyManager.recordFailure(proxy, -1, latency);
+            throw e;
+        }
+        PARSE_DURATION.labels(target.getMarket()).observeNanos(System.nanoTime() - parseStart);
+        proxyManager.recordSuccess(proxy, latency);
+        recordCache(target, "miss");
+        return new PageFetch(cacheKey, new ResponseCache.Entry(etag, lastModified, fingerprint, page), false);
+    }
+
+    private void capture(WatchTarget target, int offset, int status, long latencyMillis, byte[] body) {
+        ResponseCapture current = capture;
+        if (current != null) {
+            current.record(target.key(), offset, status, latencyMillis, body);
+        }
+    }
+
+    private void recordCache(WatchTarget target, String result) {
+        if (!"miss".equals(result)) {
+            responseCache.recordHit();
+        } else {
+            responseCache.recordMiss();
+        }
+        CACHE_RESULTS.labels(target.getMarket(), result).inc();
+    }
+
+    private String buildTeslaApiUrl(WatchTarget target, int offset) {
+        String query = String.format(
+                "{\"query\":{\"model\":\"%s\",\"condition\":\"%s\",\"options\":%s,\"arrangeby\":\"Price\",\"order\":\"asc\",\"market\":\"%s\",\"language\":\"%s\",\"super_region\":\"%s\",\"lng\":\"\",\"lat\":\"\",\"zip\":\"\",\"range\":0},\"offset\":%d,\"count\":%d,\"outsideOffset\":0,\"outsideSearch\":false,\"isFalconDeliverySelectionEnabled\":true,\"version\":\"v2\"}",
+                target.getModel(), target.getCondition(), upstreamOptions.getOrDefault(target, "{}"),
+                target.getMarket(), target.getLanguage(), target.getSuperRegion(), offset, pageSize);
+
+        return apiUrl + "?query=" + URLEncoder.encode(query, StandardCharsets.UTF_8);
+    }
+
+    public void shutdown() {
+        pageExecutor.shutdownNow();
+    }
+}
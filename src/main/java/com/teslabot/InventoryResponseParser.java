@@ -0,0 +1,184 @@
+package com.teslabot;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Envanter yanıtını String'e ya da ağaca çevirmeden akış halinde okur ve yalnızca
+// kullanılan alanları InventoryCar'a bağlar.
+public class InventoryResponseParser {
+    private final JsonFactory jsonFactory;
+
+    public InventoryResponseParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    // Tek sayfanın ayrıştırılmış hali
+    public static final class Page {
+        private final int totalMatches;
+        private final List<InventoryCar> cars;
+        private final int approximateCount;
+
+        Page(int totalMatches, List<InventoryCar> cars, int approximateCount) {
+            this.totalMatches = totalMatches;
+            this.cars = cars;
+            this.approximateCount = approximateCount;
+        }
+
+        public int getTotalMatches() {
+            return totalMatches;
+        }
+
+        public List<InventoryCar> getCars() {
+            return cars;
+        }
+
+        public int getApproximateCount() {
+            return approximateCount;
+        }
+    }
+
+    public Page parse(InputStream in) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            return parse(parser);
+        }
+    }
+
+    public Page parse(byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    private Page parse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Beklenmeyen envanter yanıtı: JSON nesnesi değil");
+        }
+        int totalMatches = 0;
+        int approximate = 0;
+        List<InventoryCar> cars = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("total_matches_found".equals(field)) {
+                totalMatches = parser.getValueAsInt(0);
+            } else if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+                readCars(parser, cars);
+            } else if ("results".equals(field) && value == JsonToken.START_OBJECT) {
+                // results bir array değilse exact/approximate alt yolları
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String group = parser.getCurrentName();
+                    JsonToken groupValue = parser.nextToken();
+                    if ("exact".equals(group) && groupValue == JsonToken.START_ARRAY) {
+                        readCars(parser, cars);
+                    } else if ("approximate".equals(group) && groupValue == JsonToken.START_ARRAY) {
+                        approximate += countElements(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Page(totalMatches, cars, approximate);
+    }
+
+    private void readCars(JsonParser parser, List<InventoryCar> cars) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                InventoryCar car = readCar(parser);
+                if (!car.getVin().isEmpty()) {
+                    cars.add(car);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private InventoryCar readCar(JsonParser parser) throws IOException {
+        String vin = null;
+        String model = null;
+        String trim = null;
+        String trimName = null;
+        String year = null;
+        long price = 0;
+        String currency = null;
+        String paint = null;
+        String interior = null;
+        boolean inTransit = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "VIN":
+                    vin = parser.getValueAsString();
+                    break;
+                case "Model":
+                    model = parser.getValueAsString();
+                    break;
+                case "TRIM":
+                    trim = firstString(parser);
+                    break;
+                case "TrimName":
+                    trimName = parser.getValueAsString();
+                    break;
+                case "Year":
+                    year = parser.getValueAsString();
+                    break;
+                case "Price":
+                    price = Math.round(parser.getValueAsDouble(0));
+                    break;
+                case "CurrencyCode":
+                    currency = parser.getValueAsString();
+                    break;
+                case "PAINT":
+                    paint = firstString(parser);
+                    break;
+                case "INTERIOR":
+                    interior = firstString(parser);
+                    break;
+                case "InTransit":
+                    inTransit = parser.getValueAsBoolean(false);
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return new InventoryCar(vin, model, trim, trimName, year, price, currency, paint, interior, inTransit);
+    }
+
+    // ["WHITE"] gibi dizilerin ilk elemanı
+    private String firstString(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            String value = parser.getValueAsString();
+            parser.skipChildren();
+            return value;
+        }
+        String first = null;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (first == null && parser.currentToken().isScalarValue()) {
+                first = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return first;
+    }
+
+    private int countElements(JsonParser parser) throws IOException {
+        int count = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,46 @@
+package com.teslabot;
+
+import java.util.Collections;
+import java.util.List;
+
+// Bir hedefin tüm sayfaları birleştirilmiş envanter sonucu
+public class InventoryResult {
+    private final int totalMatches;
+    private final List<InventoryCar> cars;
+    private final int approximateCount;
+    private final int pageCount;
+    private final boolean unchanged; // Tüm sayfalar bir önceki başarılı turla birebir aynı
+
+    public InventoryResult(int totalMatches, List<InventoryCar> cars, int approximateCount, int pageCount) {
+        this(totalMatches, cars, approximateCount, pageCount, false);
+    }
+
+    public InventoryResult(int totalMatches, List<InventoryCar> cars, int approximateCount, int pageCount,
+            boolean unchanged) {
+        this.totalMatches = totalMatches;
+        this.cars = Collections.unmodifiableList(cars);
+        this.approximateCount = approximateCount;
+        this.pageCount = pageCount;
+        this.unchanged = unchanged;
+    }
+
+    public int getTotalMatches() {
+        return totalMatches;
+    }
+
+    public List<InventoryCar> getCars() {
+        return cars;
+    }
+
+    public int getApproximateCount() {
+        return approximateCount;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+}
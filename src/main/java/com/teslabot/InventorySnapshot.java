@@ -0,0 +1,66 @@
+package com.teslabot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bir turdaki envanterin VIN -> ilan haritası. Bir önceki turla karşılaştırılıp olay listesi üretilir.
+public final class InventorySnapshot {
+    private final Map<String, InventoryCar> carsByVin;
+
+    private InventorySnapshot(Map<String, InventoryCar> carsByVin) {
+        this.carsByVin = carsByVin;
+    }
+
+    public static InventorySnapshot of(Collection<InventoryCar> cars) {
+        Map<String, InventoryCar> byVin = new HashMap<>(Math.max(16, cars.size() * 4 / 3 + 1));
+        for (InventoryCar car : cars) {
+            String vin = car.getVin();
+            if (!vin.isEmpty()) {
+                byVin.put(vin, car);
+            }
+        }
+        return new InventorySnapshot(Collections.unmodifiableMap(byVin));
+    }
+
+    public int size() {
+        return carsByVin.size();
+    }
+
+    public InventoryCar get(String vin) {
+        return carsByVin.get(vin);
+    }
+
+    public Collection<InventoryCar> cars() {
+        return carsByVin.values();
+    }
+
+    // Tek geçişte eklenen, değişen ve kaldırılan ilanları bulur: O(önceki + güncel)
+    public List<InventoryEvent> diff(InventorySnapshot previous) {
+        List<InventoryEvent> events = new ArrayList<>();
+        for (Map.Entry<String, InventoryCar> entry : carsByVin.entrySet()) {
+            String vin = entry.getKey();
+            InventoryCar car = entry.getValue();
+            InventoryCar before = previous.carsByVin.get(vin);
+            if (before == null) {
+                events.add(InventoryEvent.added(vin, car));
+                continue;
+            }
+            if (before.getPrice() != car.getPrice()) {
+                events.add(InventoryEvent.priceChanged(vin, car, before));
+            }
+            if (before.isInTransit() != car.isInTransit()) {
+                events.add(InventoryEvent.statusChanged(vin, car, before));
+            }
+        }
+        for (Map.Entry<String, InventoryCar> entry : previous.carsByVin.entrySet()) {
+            if (!carsByVin.containsKey(entry.getKey())) {
+                events.add(InventoryEvent.removed(entry.getKey(), entry.getValue()));
+            }
+        }
+        return events;
+    }
+}
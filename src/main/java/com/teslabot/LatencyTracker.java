@@ -0,0 +1,51 @@
+package com.teslabot;
+
+import java.util.Arrays;
+
+// Son N isteğin süresini halka tamponda tutar ve yüzdelik hesaplar.
+// Yeterli örnek yoksa yüzdelikler -1 döner; çağıran taraf sabit varsayılana düşer.
+public class LatencyTracker {
+    private final long[] samples;
+    private final int minSamples;
+    private int next = 0;
+    private int count = 0;
+    private long[] sorted; // Son hesaplanan sıralı kopya, yeni örnek gelince geçersiz
+    private int recordedSinceSort = 0;
+
+    public LatencyTracker() {
+        this(Env.getInt("LATENCY_WINDOW", 256), Env.getInt("LATENCY_MIN_SAMPLES", 20));
+    }
+
+    public LatencyTracker(int window, int minSamples) {
+        this.samples = new long[Math.max(1, window)];
+        this.minSamples = Math.max(1, Math.min(minSamples, samples.length));
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        recordedSinceSort++;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    // percentile: 0-100 arası
+    public synchronized long percentile(double percentile) {
+        if (count < minSamples) {
+            return -1;
+        }
+        // Her istekte sıralamamak için kopya pencerenin 1/16'sı yenilenene kadar kullanılır
+        if (sorted == null || recordedSinceSort > Math.max(1, count / 16)) {
+            sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            recordedSinceSort = 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
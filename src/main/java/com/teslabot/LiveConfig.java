@@ -0,0 +1,282 @@
+package com.teslabot;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigParseOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Yeniden başlatmadan yapılandırma: BOT_CONFIG_FILE tanımlıysa bu HOCON dosyasındaki anahtarlar (environment
+// variable adlarıyla aynı) environment'tan önce gelir. Dosya izlenir; değiştiğinde değişen anahtarları kapsayan
+// bölümler yeni değerleri okuyup doğrular. Bölümlerden biri bile reddederse hiçbir değişiklik uygulanmaz ve
+// önceki yapılandırmayla devam edilir; hepsi kabul ederse yeni değerler ve bölümlerin değişiklikleri birlikte
+// devreye girer. Hiçbir bölümün kapsamadığı anahtarlar yeniden başlatınca geçerli olur.
+public class LiveConfig {
+    private static final Logger logger = LoggerFactory.getLogger(LiveConfig.class);
+
+    private static final MetricsRegistry.Family<MetricsRegistry.Counter> RELOADS = MetricsRegistry.getDefault()
+            .counter("tesla_config_reloads_total", "Yapılandırma dosyası değişiklikleri (applied, rejected)",
+                    "result");
+
+    // Editörler dosyayı birkaç adımda yazar; olaylar bu kadar beklenip tek yükleme yapılır
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private final Path file;
+    private final long pollMillis;
+    private final List<Section> sections = new CopyOnWriteArrayList<>();
+    private volatile Consumer<String> rejectionListener = message -> {
+    };
+    private Config current; // this ile korunur
+    private String currentText; // Son okunan içerik; aynı içerik (ya da aynı hata) tekrar işlenmez
+    private volatile Thread watcher;
+
+    // Aynı anda değişmesi gereken anahtarlar ve bunları çalışan bileşene uygulayan adım
+    private static final class Section {
+        final String name;
+        final Set<String> keys;
+        final Supplier<Runnable> prepare;
+
+        Section(String name, Collection<String> keys, Supplier<Runnable> prepare) {
+            this.name = name;
+            this.keys = new HashSet<>(keys);
+            this.prepare = prepare;
+        }
+    }
+
+    // BOT_CONFIG_FILE tanımlı değilse null
+    public static LiveConfig fromEnv() {
+        String file = Env.get("BOT_CONFIG_FILE", null);
+        if (file == null) {
+            return null;
+        }
+        return new LiveConfig(Paths.get(file), TimeUnit.SECONDS.toMillis(Env.getLong("CONFIG_POLL_SECONDS", 10)));
+    }
+
+    // Dosya hemen okunur ve uygulanır; açılışta okunamayan ya da geçersiz dosyayla bot başlamaz
+    public LiveConfig(Path file, long pollMillis) {
+        this.file = file.toAbsolutePath();
+        this.pollMillis = Math.max(1000, pollMillis);
+        try {
+            String text = read();
+            Config config = parse();
+            Env.setOverrides(config);
+            current = config;
+            currentText = text;
+            logger.info("Yapılandırma dosyası yüklendi: {} ({} anahtar)", this.file, config.root().size());
+        } catch (IOException | ConfigException e) {
+            throw new IllegalStateException("Yapılandırma dosyası okunamadı (" + this.file + "): " + e.getMessage(),
+                    e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // prepare yeni değerler Env'den okunurken çağrılır (yalnızca çağıran iş parçacığı görür): değerleri doğrular,
+    // geçersizse IllegalArgumentException fırlatır, geçerliyse değişikliği uygulayacak adımı döndürür
+    public void register(String name, Collection<String> keys, Supplier<Runnable> prepare) {
+        sections.add(new Section(name, keys, prepare));
+    }
+
+    // Reddedilen değişikliğin nedeni (ör. hata bildirimi için)
+    public void setRejectionListener(Consumer<String> rejectionListener) {
+        this.rejectionListener = rejectionListener;
+    }
+
+    public void start() {
+        Thread thread = new Thread(this::watch, "config-watcher");
+        thread.setDaemon(true);
+        watcher = thread;
+        thread.start();
+        logger.info("Yapılandırma dosyası izleniyor: {}", file);
+    }
+
+    public void close() {
+        Thread thread = watcher;
+        watcher = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    // Dizin olayları beklenir; bağlanmış birimlerde (ör. Docker) olay gelmeyebileceği için pollMillis'te bir
+    // içerik yine de karşılaştırılır
+    private void watch() {
+        WatchService service = null;
+        try {
+            service = file.getFileSystem().newWatchService();
+            file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            logger.warn("Yapılandırma dizini izlenemiyor, dosya {} sn'de bir kontrol edilecek: {}",
+                    TimeUnit.MILLISECONDS.toSeconds(pollMillis), e.getMessage());
+        }
+        try {
+            while (watcher == Thread.currentThread()) {
+                if (service == null) {
+                    Thread.sleep(pollMillis);
+                } else {
+                    WatchKey key = service.poll(pollMillis, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        Thread.sleep(DEBOUNCE_MILLIS);
+                        do {
+                            key.pollEvents();
+                            key.reset();
+                        } while ((key = service.poll()) != null);
+                    }
+                }
+                reloadIfChanged();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (service != null) {
+                try {
+                    service.close();
+                } catch (IOException e) {
+                    logger.debug("İzleme servisi kapatılamadı: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    public synchronized void reloadIfChanged() {
+        String text;
+        try {
+            text = read();
+        } catch (NoSuchFileException e) {
+            // Dosya yerine yenisi yazılırken kısa süre bulunmayabilir; sonraki olayda tekrar okunur
+            logger.debug("Yapılandırma dosyası bulunamadı: {}", file);
+            return;
+        } catch (IOException e) {
+            logger.warn("Yapılandırma dosyası okunamadı ({}): {}", file, e.getMessage());
+            return;
+        }
+        if (text.equals(currentText)) {
+            return;
+        }
+        currentText = text;
+        Config next;
+        try {
+            next = parse();
+        } catch (ConfigException e) {
+            reject("dosya okunamadı: " + e.getMessage());
+            return;
+        }
+        apply(next);
+    }
+
+    private void apply(Config next) {
+        Set<String> changed = changedKeys(current, next);
+        if (changed.isEmpty()) {
+            Env.setOverrides(next);
+            current = next;
+            logger.debug("Yapılandırma dosyası değişti, değerler aynı");
+            return;
+        }
+
+        // Önce tüm bölümler yeni değerleri doğrular; biri bile reddederse hiçbir şey değişmez
+        List<String> names = new ArrayList<>();
+        List<Runnable> changes = new ArrayList<>();
+        Set<String> handled = new HashSet<>();
+        try {
+            Env.withOverrides(next, () -> {
+                for (Section section : sections) {
+                    handled.addAll(section.keys);
+                    if (Collections.disjoint(section.keys, changed)) {
+                        continue;
+                    }
+                    try {
+                        Runnable change = section.prepare.get();
+                        if (change != null) {
+                            changes.add(change);
+                        }
+                        names.add(section.name);
+                    } catch (RuntimeException e) {
+                        throw new IllegalArgumentException(section.name + ": " + e.getMessage(), e);
+                    }
+                }
+                return null;
+            });
+        } catch (IllegalArgumentException e) {
+            reject(e.getMessage());
+            return;
+        }
+
+        Env.setOverrides(next);
+        current = next;
+        for (Runnable change : changes) {
+            try {
+                change.run();
+            } catch (RuntimeException e) {
+                logger.error("Yapılandırma değişikliği uygulanırken hata: {}", e.getMessage(), e);
+            }
+        }
+        RELOADS.labels("applied").inc();
+        logger.info("Yapılandırma güncellendi: {} ({})", changed, names.isEmpty() ? "-" : String.join(", ", names));
+
+        Set<String> restart = new TreeSet<>(changed);
+        restart.removeAll(handled);
+        if (!restart.isEmpty()) {
+            logger.warn("Şu anahtarlar yeniden başlatınca geçerli olur: {}", restart);
+        }
+    }
+
+    private void reject(String message) {
+        RELOADS.labels("rejected").inc();
+        logger.error("Yapılandırma değişikliği uygulanmadı, önceki değerlerle devam ediliyor: {}", message);
+        try {
+            rejectionListener.accept(message);
+        } catch (RuntimeException e) {
+            logger.debug("Yapılandırma hatası bildirilemedi: {}", e.getMessage());
+        }
+    }
+
+    // Dosyada eklenen, silinen ya da değeri değişen anahtarlar
+    private static Set<String> changedKeys(Config before, Config after) {
+        Set<String> names = new LinkedHashSet<>(before.root().keySet());
+        names.addAll(after.root().keySet());
+        Set<String> changed = new TreeSet<>();
+        for (String name : names) {
+            if (!Objects.equals(Env.fromConfig(before, name), Env.fromConfig(after, name))) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    private String read() throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    // include yolları dosyaya göre çözülür; ${?DEGISKEN} environment'tan okunur
+    private Config parse() {
+        return ConfigFactory.parseFile(file.toFile(), ConfigParseOptions.defaults().setAllowMissing(false))
+                .resolve();
+    }
+}
@@ -0,0 +1,301 @@
+package com.teslabot;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Araç bildirimlerindeki görsellerin önbelleği. Görsel anahtarı ilanın model, boya, trim ve iç mekan
+// seçeneklerinden türetilir; aynı konfigürasyondaki araçlar aynı görseli paylaşır. Görsel Telegram'a bir kez
+// yüklenir, dönen file_id saklanır ve sonraki gönderimler yeniden yüklemeden bu ID'yi kullanır. Ham görseller
+// diskte toplam boyutu MEDIA_CACHE_MAX_BYTES ile sınırlı LRU olarak tutulur (sıra dosya zamanından okunur).
+public class MediaCache {
+    private static final Logger logger = LoggerFactory.getLogger(MediaCache.class);
+
+    private static final MetricsRegistry.Family<MetricsRegistry.Counter> LOOKUPS = MetricsRegistry.getDefault()
+            .counter("telegram_media_total", "Araç görselinin kaynağı (file_id, disk, download, error)", "source");
+
+    private static final String FILE_IDS = "file-ids.tsv";
+    private static final String SUFFIX = ".img";
+
+    private final String urlTemplate;
+    private final Path directory;
+    private final long maxBytes;
+    private final OkHttpClient httpClient;
+    private final Map<String, String> fileIds = new ConcurrentHashMap<>(); // Anahtar -> Telegram file_id
+    private final Object fileIdsLock = new Object(); // file-ids.tsv yazımı
+    private final LinkedHashMap<Path, Long> entries = new LinkedHashMap<>(16, 0.75f, true); // this ile korunur
+    private long totalBytes = 0; // this ile korunur
+
+    // Bir ilanın görseli: önbellek anahtarı ve indirme adresi
+    public static final class Image {
+        private final String key;
+        private final String url;
+
+        Image(String key, String url) {
+            this.key = key;
+            this.url = url;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+    }
+
+    // MEDIA_IMAGE_URL tanımlı değilse null (fotoğraflı bildirim kapalı)
+    public static MediaCache fromEnv() throws IOException {
+        String template = Env.get("MEDIA_IMAGE_URL", null);
+        if (template == null) {
+            return null;
+        }
+        return new MediaCache(template,
+                Paths.get(Env.get("MEDIA_CACHE_DIR", Paths.get(Env.get("VIN_STORE_DIR", "."), "media").toString())),
+                Env.getLong("MEDIA_CACHE_MAX_BYTES", 64L * 1024 * 1024));
+    }
+
+    // urlTemplate: {model}, {paint}, {trim} ve {interior} yer tutucuları ilanın değerleriyle doldurulur
+    public MediaCache(String urlTemplate, Path directory, long maxBytes) throws IOException {
+        this.urlTemplate = urlTemplate;
+        this.directory = directory;
+        this.maxBytes = Math.max(0, maxBytes);
+        this.httpClient = new OkHttpClient.Builder()
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .build();
+        Files.createDirectories(directory);
+        loadEntries();
+        loadFileIds();
+        logger.info("Görsel önbelleği: {} görsel ({} KB / {} KB), {} file_id ({})", entries.size(),
+                totalBytes / 1024, this.maxBytes / 1024, fileIds.size(), directory);
+    }
+
+    // Boya ve trim bilinmiyorsa görsel konfigürasyonu belirsizdir; null döner ve mesaj metin olarak gider
+    public Image imageFor(InventoryCar car) {
+        if (car.getPaint().isEmpty() && car.getTrim().isEmpty()) {
+            return null;
+        }
+        String key = car.getModel() + "/" + car.getPaint() + "/" + car.getTrim() + "/" + car.getInterior();
+        String url = urlTemplate
+                .replace("{model}", encode(car.getModel()))
+                .replace("{paint}", encode(car.getPaint()))
+                .replace("{trim}", encode(car.getTrim()))
+                .replace("{interior}", encode(car.getInterior()));
+        return new Image(key, url);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    // Daha önce yüklenmiş görselin Telegram file_id'si, yoksa null
+    public String fileId(String key) {
+        String fileId = fileIds.get(key);
+        if (fileId != null) {
+            LOOKUPS.labels("file_id").inc();
+        }
+        return fileId;
+    }
+
+    public void rememberFileId(String key, String fileId) {
+        if (!fileId.equals(fileIds.put(key, fileId))) {
+            appendFileId(key, fileId);
+        }
+    }
+
+    // Telegram file_id'yi tanımadığında (ör. bot token değişti) görsel bir sonraki gönderimde yeniden yüklenir
+    public void forgetFileId(String key) {
+        if (fileIds.remove(key) != null) {
+            appendFileId(key, "");
+        }
+    }
+
+    // Görselin ham baytları: önce disk, yoksa indirilir ve diske yazılır
+    public byte[] bytes(Image image) throws IOException {
+        Path file = directory.resolve(fileName(image.getKey()));
+        synchronized (this) {
+            if (entries.get(file) != null) {
+                try {
+                    byte[] bytes = Files.readAllBytes(file);
+                    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                    LOOKUPS.labels("disk").inc();
+                    return bytes;
+                } catch (IOException e) {
+                    logger.debug("Önbellekteki görsel okunamadı ({}): {}", file, e.getMessage());
+                    remove(file);
+                }
+            }
+        }
+
+        byte[] bytes;
+        try {
+            bytes = download(image.getUrl());
+        } catch (IOException e) {
+            LOOKUPS.labels("error").inc();
+            throw e;
+        }
+        LOOKUPS.labels("download").inc();
+        if (bytes.length > maxBytes) {
+            return bytes;
+        }
+        synchronized (this) {
+            try {
+                Path temp = directory.resolve(file.getFileName() + ".tmp");
+                Files.write(temp, bytes);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Long previous = entries.put(file, (long) bytes.length);
+                totalBytes += bytes.length - (previous == null ? 0 : previous);
+                evict();
+            } catch (IOException e) {
+                logger.warn("Görsel önbelleğe yazılamadı ({}): {}", file, e.getMessage());
+            }
+        }
+        return bytes;
+    }
+
+    private byte[] download(String url) throws IOException {
+        Request request = new Request.Builder().url(url).build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException("Görsel indirilemedi: HTTP " + response.code() + " (" + url + ")");
+            }
+            byte[] bytes = body.bytes();
+            if (bytes.length == 0) {
+                throw new IOException("Görsel boş: " + url);
+            }
+            return bytes;
+        }
+    }
+
+    // En uzun süredir kullanılmayan görseller toplam boyut sınırın altına inene kadar silinir
+    private void evict() {
+        Iterator<Map.Entry<Path, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Path, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            try {
+                Files.deleteIfExists(eldest.getKey());
+            } catch (IOException e) {
+                logger.debug("Görsel silinemedi ({}): {}", eldest.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private void remove(Path file) {
+        Long size = entries.remove(file);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    private synchronized void loadEntries() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Map<Path, FileTime> modified = new LinkedHashMap<>();
+        for (Path file : files) {
+            modified.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort((a, b) -> modified.get(a).compareTo(modified.get(b)));
+        for (Path file : files) {
+            long size = Files.size(file);
+            entries.put(file, size);
+            totalBytes += size;
+        }
+        evict();
+    }
+
+    // "anahtar<TAB>file_id" satırları; sonraki satır öncekini geçersiz kılar, boş file_id silinmiş demektir
+    private void loadFileIds() throws IOException {
+        Path file = directory.resolve(FILE_IDS);
+        if (!Files.exists(file)) {
+            return;
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            int tab = line.lastIndexOf('\t');
+            if (tab <= 0) {
+                continue;
+            }
+            String fileId = line.substring(tab + 1).trim();
+            if (fileId.isEmpty()) {
+                fileIds.remove(line.substring(0, tab));
+            } else {
+                fileIds.put(line.substring(0, tab), fileId);
+            }
+        }
+        // Geçersiz kılınmış satırlar çoğaldıysa dosya yeniden yazılır
+        if (lines.size() > 2 * fileIds.size() + 100) {
+            Path temp = directory.resolve(FILE_IDS + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> entry : fileIds.entrySet()) {
+                    writer.write(entry.getKey() + "\t" + entry.getValue());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private void appendFileId(String key, String fileId) {
+        synchronized (fileIdsLock) {
+            try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(FILE_IDS), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(key + "\t" + fileId);
+                writer.newLine();
+            } catch (IOException e) {
+                logger.warn("file_id kaydedilemedi ({}): {}", key, e.getMessage());
+            }
+        }
+    }
+
+    // Anahtar dosya adı olarak kullanılamayabilir (/, boşluk); SHA-256 önekinden türetilir
+    private static String fileName(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(32 + SUFFIX.length());
+            for (int i = 0; i < 16; i++) {
+                name.append(Character.forDigit((hash[i] >> 4) & 0xF, 16)).append(Character.forDigit(hash[i] & 0xF, 16));
+            }
+            return name.append(SUFFIX).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void close() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+}
@@ -0,0 +1,265 @@
+package com.teslabot;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Araç mesajlarını oluşturur. Hedef + dil başına şablon (etiketler, biçimlendirme, link öneki) bir kez
+// hazırlanır; her mesaj iş parçacığına ait tekrar kullanılan bir StringBuilder'a yazılır.
+public class MessageRenderer {
+
+    public enum Format {
+        PLAIN(TelegramMessage.ParseMode.NONE),
+        MARKDOWN(TelegramMessage.ParseMode.MARKDOWN),
+        HTML(TelegramMessage.ParseMode.HTML);
+
+        private final TelegramMessage.ParseMode parseMode;
+
+        Format(TelegramMessage.ParseMode parseMode) {
+            this.parseMode = parseMode;
+        }
+
+        public TelegramMessage.ParseMode parseMode() {
+            return parseMode;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return PLAIN;
+            }
+        }
+    }
+
+    // Mesajın başlığı
+    public enum Headline {
+        CAR,
+        NEW_CAR,
+        PRICE_DROP
+    }
+
+    // Dil başına sabit metinler
+    private static final class Labels {
+        final String[] headlines;
+        final String price;
+        final String paint;
+        final String interior;
+        final String view;
+        final String oldPrice;
+        final String newPrice;
+
+        Labels(String car, String newCar, String priceDrop, String price, String paint, String interior,
+                String view, String oldPrice, String newPrice) {
+            this.headlines = new String[]{car, newCar, priceDrop};
+            this.price = price;
+            this.paint = paint;
+            this.interior = interior;
+            this.view = view;
+            this.oldPrice = oldPrice;
+            this.newPrice = newPrice;
+        }
+    }
+
+    public static final String DEFAULT_LANGUAGE = "tr";
+
+    private static final Map<String, Labels> LABELS = Map.of(
+            "tr", new Labels("🚗 Tesla Araç", "🚗 Yeni Tesla Araç", "💸 Tesla Fiyat Düşüşü",
+                    "Fiyat", "Renk", "İç Mekan", "Tesla'da Görüntüle", "Eski fiyat", "Yeni fiyat"),
+            "en", new Labels("🚗 Tesla Car", "🚗 New Tesla Car", "💸 Tesla Price Drop",
+                    "Price", "Color", "Interior", "View on Tesla", "Old price", "New price"),
+            "de", new Labels("🚗 Tesla Fahrzeug", "🚗 Neues Tesla Fahrzeug", "💸 Tesla Preissenkung",
+                    "Preis", "Farbe", "Innenraum", "Bei Tesla ansehen", "Alter Preis", "Neuer Preis"));
+
+    private static final int MAX_RETAINED_CAPACITY = 8192;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    // Derlenmiş şablon: biçimlendirmesi uygulanmış etiketler ve hedefin link parçaları
+    private static final class Template {
+        final String[] headlines;
+        final String pricePrefix;
+        final String vinPrefix;
+        final String paintPrefix;
+        final String interiorPrefix;
+        final String oldPricePrefix;
+        final String newPricePrefix;
+        final String linkPrefix;
+        final String linkSuffix;
+        final String linkOpen;
+        final String linkClose;
+
+        Template(WatchTarget target, Labels labels, Format format) {
+            this.headlines = new String[labels.headlines.length];
+            for (int i = 0; i < headlines.length; i++) {
+                headlines[i] = bold(format, escape(format, labels.headlines[i])) + "\n\n";
+            }
+            this.pricePrefix = label(format, labels.price);
+            this.vinPrefix = label(format, "VIN");
+            this.paintPrefix = label(format, labels.paint);
+            this.interiorPrefix = label(format, labels.interior);
+            this.oldPricePrefix = label(format, labels.oldPrice);
+            this.newPricePrefix = " → " + label(format, labels.newPrice);
+            this.linkPrefix = "https://www.tesla.com/" + target.getLocale() + "/" + target.getModel() + "/order/";
+            this.linkSuffix = "?titleStatus=" + target.getCondition() + "&redirect=no#overview";
+            String view = escape(format, labels.view);
+            switch (format) {
+                case MARKDOWN:
+                    this.linkOpen = "\n[" + view + "](";
+                    this.linkClose = ")";
+                    break;
+                case HTML:
+                    this.linkOpen = "\n<a href=\"";
+                    this.linkClose = "\">" + view + "</a>";
+                    break;
+                default:
+                    this.linkOpen = "\n" + view + ": ";
+                    this.linkClose = "";
+                    break;
+            }
+        }
+
+        private static String label(Format format, String text) {
+            return bold(format, escape(format, text + ":")) + " ";
+        }
+    }
+
+    private final Format format;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    public MessageRenderer() {
+        this(Format.parse(Env.get("MESSAGE_FORMAT", "plain")));
+    }
+
+    public MessageRenderer(Format format) {
+        this.format = format;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public static boolean isSupportedLanguage(String language) {
+        return language != null && LABELS.containsKey(language.toLowerCase(Locale.ROOT));
+    }
+
+    public String renderCar(WatchTarget target, String language, Headline headline, InventoryCar car) {
+        Template template = template(target, language);
+        StringBuilder out = buffer();
+        out.append(template.headlines[headline.ordinal()]);
+        appendDetails(out, template, car);
+        return finish(out);
+    }
+
+    public String renderPriceDrop(WatchTarget target, String language, InventoryCar car, long oldPrice) {
+        Template template = template(target, language);
+        StringBuilder out = buffer();
+        out.append(template.headlines[Headline.PRICE_DROP.ordinal()])
+                .append(template.oldPricePrefix).append(oldPrice)
+                .append(template.newPricePrefix).append(car.getPrice()).append("\n\n");
+        appendDetails(out, template, car);
+        return finish(out);
+    }
+
+    public String carLink(WatchTarget target, String vin) {
+        Template template = template(target, DEFAULT_LANGUAGE);
+        return template.linkPrefix + vin + template.linkSuffix;
+    }
+
+    private void appendDetails(StringBuilder out, Template template, InventoryCar car) {
+        appendEscaped(out, car.getYear()).append(' ');
+        appendEscaped(out, car.getModel()).append(' ');
+        appendEscaped(out, car.getTrimName()).append('\n');
+        if (car.getPrice() > 0) {
+            out.append(template.pricePrefix).append(car.getPrice()).append(' ');
+            appendEscaped(out, car.getCurrency()).append('\n');
+        }
+        String vin = car.getVin();
+        if (!vin.isEmpty()) {
+            out.append(template.vinPrefix);
+            appendEscaped(out, vin).append('\n');
+        }
+        if (!car.getPaint().isEmpty()) {
+            out.append(template.paintPrefix);
+            appendEscaped(out, car.getPaint()).append('\n');
+        }
+        if (!car.getInterior().isEmpty()) {
+            out.append(template.interiorPrefix);
+            appendEscaped(out, car.getInterior()).append('\n');
+        }
+        if (!vin.isEmpty()) {
+            out.append(template.linkOpen).append(template.linkPrefix).append(vin).append(template.linkSuffix)
+                    .append(template.linkClose);
+        }
+    }
+
+    private Template template(WatchTarget target, String language) {
+        String lang = isSupportedLanguage(language) ? language.toLowerCase(Locale.ROOT) : DEFAULT_LANGUAGE;
+        String key = target.key() + "|" + lang;
+        Template template = templates.get(key);
+        if (template == null) {
+            template = templates.computeIfAbsent(key, k -> new Template(target, LABELS.get(lang), format));
+        }
+        return template;
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        return out;
+    }
+
+    // Çok büyümüş tamponu iş parçacığında tutmamak için bırakır
+    private static String finish(StringBuilder out) {
+        String text = out.toString();
+        if (out.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return text;
+    }
+
+    private StringBuilder appendEscaped(StringBuilder out, String value) {
+        if (format == Format.PLAIN) {
+            return out.append(value);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            appendEscaped(out, format, value.charAt(i));
+        }
+        return out;
+    }
+
+    private static void appendEscaped(StringBuilder out, Format format, char c) {
+        if (format == Format.MARKDOWN && (c == '_' || c == '*' || c == '`' || c == '[')) {
+            out.append('\\').append(c);
+        } else if (format == Format.HTML && c == '&') {
+            out.append("&amp;");
+        } else if (format == Format.HTML && c == '<') {
+            out.append("&lt;");
+        } else if (format == Format.HTML && c == '>') {
+            out.append("&gt;");
+        } else {
+            out.append(c);
+        }
+    }
+
+    private static String escape(Format format, String value) {
+        if (format == Format.PLAIN) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            appendEscaped(out, format, value.charAt(i));
+        }
+        return out.toString();
+    }
+
+    private static String bold(Format format, String text) {
+        switch (format) {
+            case MARKDOWN:
+                return "*" + text + "*";
+            case HTML:
+                return "<b>" + text + "</b>";
+            default:
+                return text;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.teslabot;
+
+// Mesajların teslim edildiği hedef (Telegram, yerel dosya, webhook ...)
+public interface MessageSink {
+
+    String name();
+
+    // Başarısız teslimatta DeliveryException fırlatır; tekrar denenip denenmeyeceğini istisna belirler
+    void deliver(TelegramMessage message) throws DeliveryException;
+
+    // Aynı sohbete iki mesaj arasında beklenecek en az süre
+    default long chatIntervalMillis() {
+        return 0;
+    }
+
+    // Bu hedefe giden herhangi iki mesaj arasında beklenecek en az süre
+    default long globalIntervalMillis() {
+        return 0;
+    }
+
+    // Birleştirilmiş mesajın en fazla uzunluğu
+    default int maxMessageLength() {
+        return Integer.MAX_VALUE;
+    }
+
+    // Fotoğraflı mesajları görselleriyle gönderebiliyor mu; gönderemeyen hedefe yalnızca metin gider
+    default boolean supportsMedia() {
+        return false;
+    }
+
+    default void close() {
+    }
+}
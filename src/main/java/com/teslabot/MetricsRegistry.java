@@ -0,0 +1,234 @@
+package com.teslabot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+// Sayaç, histogram ve anlık değerler için hafif kayıt. Sıcak yolda yalnızca LongAdder/DoubleAdder
+// artırılır; Prometheus metin biçimi sadece scrape sırasında üretilir.
+public class MetricsRegistry {
+
+    // Saniye cinsinden varsayılan süre kovaları
+    public static final double[] LATENCY_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+    // İlanın görülmesinden teslimine kadar geçen süre için kovalar
+    public static final double[] LAG_BUCKETS = {0.25, 0.5, 1, 2, 5, 10, 15, 30, 60, 120, 300};
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final Map<String, Writer> families = new ConcurrentSkipListMap<>();
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    // Geri çağırmalı metrik için örnek toplayıcı
+    public interface SampleSink {
+        void sample(double value, String... labelValues);
+    }
+
+    public interface Collector {
+        void collect(SampleSink sink);
+    }
+
+    private interface Writer {
+        void write(StringBuilder out);
+    }
+
+    private interface Child {
+        void write(StringBuilder out, String name, String labels);
+    }
+
+    public static final class Counter implements Child {
+        private final LongAdder value = new LongAdder();
+
+        public void inc() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        @Override
+        public void write(StringBuilder out, String name, String labels) {
+            sample(out, name, labels, value.sum());
+        }
+    }
+
+    public static final class Histogram implements Child {
+        private final double[] bounds;
+        private final LongAdder[] buckets; // son kova +Inf
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(double[] bounds) {
+            this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void observe(double seconds) {
+            int i = 0;
+            while (i < bounds.length && seconds > bounds[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            sum.add(seconds);
+        }
+
+        public void observeMillis(long millis) {
+            observe(millis / 1000.0);
+        }
+
+        public void observeNanos(long nanos) {
+            observe(nanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public void write(StringBuilder out, String name, String labels) {
+            String prefix = labels.isEmpty() ? "" : labels + ",";
+            long cumulative = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += buckets[i].sum();
+                sample(out, name + "_bucket", prefix + "le=\"" + format(bounds[i]) + "\"", cumulative);
+            }
+            cumulative += buckets[bounds.length].sum();
+            sample(out, name + "_bucket", prefix + "le=\"+Inf\"", cumulative);
+            sample(out, name + "_sum", labels, sum.sum());
+            sample(out, name + "_count", labels, cumulative);
+        }
+    }
+
+    // Aynı ada sahip, etiket değerleriyle ayrışan metrikler
+    public static final class Family<T> implements Writer {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final String[] labelNames;
+        private final Function<String[], T> factory;
+        private final Map<String, T> children = new ConcurrentHashMap<>();
+        private final Map<String, String> renderedLabels = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, String type, String[] labelNames, Function<String[], T> factory) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelNames = labelNames.clone();
+            this.factory = factory;
+        }
+
+        public T labels(String... values) {
+            if (values.length != labelNames.length) {
+                throw new IllegalArgumentException(name + " için " + labelNames.length + " etiket bekleniyordu");
+            }
+            String key = values.length == 1 ? values[0] : String.join("\u0000", values);
+            T child = children.get(key);
+            if (child != null) {
+                return child;
+            }
+            return children.computeIfAbsent(key, k -> {
+                renderedLabels.put(k, renderLabels(labelNames, values));
+                return factory.apply(values);
+            });
+        }
+
+        @Override
+        public void write(StringBuilder out) {
+            header(out, name, help, type);
+            for (Map.Entry<String, T> entry : children.entrySet()) {
+                ((Child) entry.getValue()).write(out, name, renderedLabels.getOrDefault(entry.getKey(), ""));
+            }
+        }
+    }
+
+    public Family<Counter> counter(String name, String help, String... labelNames) {
+        return family(name, help, "counter", labelNames, values -> new Counter());
+    }
+
+    public Family<Histogram> histogram(String name, String help, double[] buckets, String... labelNames) {
+        return family(name, help, "histogram", labelNames, values -> new Histogram(buckets));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Family<T> family(String name, String help, String type, String[] labelNames,
+            Function<String[], T> factory) {
+        Writer existing = families.computeIfAbsent(name,
+                n -> new Family<>(name, help, type, labelNames, factory));
+        if (!(existing instanceof Family) || !((Family<?>) existing).type.equals(type)) {
+            throw new IllegalArgumentException("Metrik farklı türle kayıtlı: " + name);
+        }
+        return (Family<T>) existing;
+    }
+
+    // Etiketsiz anlık değer; aynı adla yeniden kayıt öncekinin yerine geçer
+    public void gauge(String name, String help, DoubleSupplier value) {
+        collect(name, help, "gauge", new String[0], sink -> sink.sample(value.getAsDouble()));
+    }
+
+    // Değerleri scrape anında başka bir kaynaktan okunan metrik (ör. proxy istatistikleri)
+    public void collect(String name, String help, String type, String[] labelNames, Collector collector) {
+        String[] names = labelNames.clone();
+        families.put(name, out -> {
+            header(out, name, help, type);
+            collector.collect((value, labelValues) -> sample(out, name, renderLabels(names, labelValues), value));
+        });
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Writer family : families.values()) {
+            family.write(out);
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n"))
+                .append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String renderLabels(String[] names, String[] values) {
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            String value = i < values.length && values[i] != null ? values[i] : "";
+            labels.append(names[i]).append("=\"")
+                    .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return labels.toString();
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
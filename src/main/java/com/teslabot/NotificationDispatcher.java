@@ -0,0 +1,381 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tüm bildirimlerin geçtiği tek gönderim hattı. Mesajlar kuyruğa alınır ve ayrı bir iş parçacığında
+// her hedefe (sink) teslim edilir; envanter kontrolü hiçbir zaman bildirimi beklemez. Hedef başına
+// sohbet ve genel hız limitlerine uyulur, 429'da retry_after beklenir, aynı sohbete giden
+// gruplanabilir mesajlar tek mesajda, fotoğraflı olanlar tek albümde birleştirilir.
+// Sırası gelmemiş mesajlar (sohbet limiti, retry_after, yeniden deneme) sohbet başına kenara alınır; tek
+// gönderici o sohbeti beklerken diğer sohbetlerin mesajlarını göndermeye devam eder, sohbet içi sıra korunur.
+public class NotificationDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String GROUP_SEPARATOR = "\n\n━━━━━━━━━━\n\n";
+    private static final int MAX_MEDIA_GROUP = 10; // Telegram albüm sınırı
+
+    private static final MetricsRegistry.Family<MetricsRegistry.Counter> NOTIFICATIONS = MetricsRegistry.getDefault()
+            .counter("notifications_total", "Hedef başına bildirim sonuçları (sent, retry, failed, dropped)",
+                    "sink", "result");
+    private static final MetricsRegistry.Family<MetricsRegistry.Histogram> DETECTION_LAG = MetricsRegistry
+            .getDefault().histogram("notification_detection_lag_seconds",
+                    "İlanın ilk görülmesinden bildirimin teslim edilmesine kadar geçen süre",
+                    MetricsRegistry.LAG_BUCKETS, "sink");
+
+    private final List<MessageSink> sinks;
+    private final LinkedBlockingDeque<Delivery> queue;
+    private final int capacity; // Kuyruk ve kenara alınmış mesajlar birlikte
+    private final Thread sender;
+    private final int maxRetries;
+    private volatile boolean running = true;
+
+    // Aşağıdakileri yalnızca gönderici iş parçacığı kullanır
+    private final Map<String, Long> chatNextAllowed = new HashMap<>(); // "sink|chat" -> zaman
+    private final Map<String, Long> sinkNextAllowed = new HashMap<>(); // sink -> zaman
+    private final Map<String, ArrayDeque<Delivery>> deferred = new LinkedHashMap<>(); // "sink|chat" -> sıra
+    private final AtomicInteger deferredCount = new AtomicInteger();
+
+    private static final class Delivery {
+        final MessageSink sink;
+        final TelegramMessage message;
+        int attempts = 0;
+        long notBefore = 0;
+
+        Delivery(MessageSink sink, TelegramMessage message) {
+            this.sink = sink;
+            this.message = message;
+        }
+
+        String chatKey() {
+            return sink.name() + "|" + message.getChatId();
+        }
+    }
+
+    public NotificationDispatcher(List<MessageSink> sinks) {
+        this(sinks, Env.getInt("TELEGRAM_QUEUE_CAPACITY", 1000), Env.getInt("TELEGRAM_MAX_RETRIES", 5));
+    }
+
+    public NotificationDispatcher(List<MessageSink> sinks, int queueCapacity, int maxRetries) {
+        this.sinks = Collections.unmodifiableList(new ArrayList<>(sinks));
+        this.queue = new LinkedBlockingDeque<>(queueCapacity);
+        this.capacity = queueCapacity;
+        this.maxRetries = maxRetries;
+        // Gönderim sırası ve hız sınırları tek gönderici üzerinden korunur; sanal modda bu da sanal iş parçacığıdır
+        this.sender = ExecutionMode.getDefault().threadFactory("notification-sender").newThread(this::runSender);
+        this.sender.start();
+    }
+
+    public List<MessageSink> getSinks() {
+        return sinks;
+    }
+
+    public int getQueueDepth() {
+        return queue.size() + deferredCount.get();
+    }
+
+    // Mesajı tüm hedefler için kuyruğa alır, beklemez
+    public void dispatch(TelegramMessage message) {
+        if (!running) {
+            logger.warn("Bildirim hattı kapalı, mesaj atlandı: {}", message.getTitle());
+            return;
+        }
+        for (MessageSink sink : sinks) {
+            if (getQueueDepth() >= capacity || !queue.offerLast(new Delivery(sink, message))) {
+                NOTIFICATIONS.labels(sink.name(), "dropped").inc();
+                logger.error("Bildirim kuyruğu dolu ({}), mesaj atlandı: {} -> {}", getQueueDepth(),
+                        message.getTitle(), sink.name());
+            }
+        }
+    }
+
+    // Kuyruktaki mesajları gönderir, en fazla verilen süre kadar bekler
+    public void shutdown(long timeout, TimeUnit unit) {
+        running = false;
+        try {
+            sender.join(unit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (sender.isAlive()) {
+            logger.warn("{} bildirim gönderilemeden kapatıldı", getQueueDepth());
+            sender.interrupt();
+        }
+        for (MessageSink sink : sinks) {
+            sink.close();
+        }
+    }
+
+    private void runSender() {
+        while (running || !queue.isEmpty() || deferredCount.get() > 0) {
+            try {
+                long now = System.currentTimeMillis();
+                Delivery delivery = nextDeferred(now);
+                if (delivery == null) {
+                    long wait = Math.max(1, Math.min(500, nextDeferredAt() - now));
+                    delivery = queue.pollFirst(wait, TimeUnit.MILLISECONDS);
+                    if (delivery == null) {
+                        continue;
+                    }
+                    // Sohbetin kenara alınmış mesajları varsa sıra korunur; sohbetin sırası gelmediyse mesaj
+                    // kenara alınır ve diğer sohbetler beklemez
+                    ArrayDeque<Delivery> parked = deferred.get(delivery.chatKey());
+                    if ((parked != null && !parked.isEmpty()) || readyAt(delivery) > System.currentTimeMillis()) {
+                        defer(delivery, false);
+                        continue;
+                    }
+                }
+                if (delivery.message.isGroupable() && delivery.attempts == 0) {
+                    delivery = coalesce(delivery);
+                }
+                waitForSinkSlot(delivery);
+                deliver(delivery);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Bildirim gönderici hatası: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Aynı hedef ve sohbete bekleyen diğer gruplanabilir mesajları limit aşılmadan birleştirir
+    private Delivery coalesce(Delivery first) {
+        if (first.message.getImage() != null && first.sink.supportsMedia()) {
+            return coalesceMedia(first);
+        }
+        int maxLength = first.sink.maxMessageLength();
+        StringBuilder text = null;
+        int merged = 1;
+        long detectedAt = first.message.getDetectedAtMillis();
+        Iterator<Delivery> it = candidates(first);
+        while (it.hasNext()) {
+            Delivery next = it.next();
+            if (next.sink != first.sink || next.attempts > 0 || !next.message.isGroupable()
+                    || !next.message.getChatId().equals(first.message.getChatId())
+                    || next.message.getParseMode() != first.message.getParseMode()
+                    || (next.message.getImage() != null && first.sink.supportsMedia())) {
+                continue;
+            }
+            int length = (text == null ? first.message.getText().length() : text.length())
+                    + GROUP_SEPARATOR.length() + next.message.getText().length();
+            if (length > maxLength) {
+                break;
+            }
+            if (text == null) {
+                text = new StringBuilder(first.message.getText());
+            }
+            text.append(GROUP_SEPARATOR).append(next.message.getText());
+            detectedAt = earliest(detectedAt, next.message.getDetectedAtMillis());
+            it.remove();
+            merged++;
+        }
+        if (text == null) {
+            return first;
+        }
+        logger.info("{} mesaj tek mesajda birleştirildi ({} / Chat ID: {})", merged, first.sink.name(),
+                first.message.getChatId());
+        return new Delivery(first.sink, first.message.toBuilder()
+                .text(text.toString())
+                .title(merged + " x " + first.message.getTitle())
+                .detectedAt(detectedAt)
+                .build());
+    }
+
+    // Fotoğraflı mesajlar albüm sınırına kadar tek medya grubunda gönderilir. Birleşik metin de tutulur:
+    // görsel alınamazsa hedef albümü tek metin mesajı olarak gönderebilsin diye mesaj sınırı burada da geçerli.
+    private Delivery coalesceMedia(Delivery first) {
+        int maxLength = first.sink.maxMessageLength();
+        List<TelegramMessage> group = new ArrayList<>(MAX_MEDIA_GROUP);
+        group.add(first.message);
+        StringBuilder text = new StringBuilder(first.message.getText());
+        long detectedAt = first.message.getDetectedAtMillis();
+        Iterator<Delivery> it = candidates(first);
+        while (it.hasNext() && group.size() < MAX_MEDIA_GROUP) {
+            Delivery next = it.next();
+            if (next.sink != first.sink || next.attempts > 0 || !next.message.isGroupable()
+                    || next.message.getImage() == null
+                    || !next.message.getChatId().equals(first.message.getChatId())
+                    || next.message.getParseMode() != first.message.getParseMode()) {
+                continue;
+            }
+            if (text.length() + GROUP_SEPARATOR.length() + next.message.getText().length() > maxLength) {
+                break;
+            }
+            text.append(GROUP_SEPARATOR).append(next.message.getText());
+            detectedAt = earliest(detectedAt, next.message.getDetectedAtMillis());
+            group.add(next.message);
+            it.remove();
+        }
+        if (group.size() == 1) {
+            return first;
+        }
+        logger.info("{} fotoğraflı mesaj tek albümde birleştirildi ({} / Chat ID: {})", group.size(),
+                first.sink.name(), first.message.getChatId());
+        return new Delivery(first.sink, first.message.toBuilder()
+                .text(text.toString())
+                .title(group.size() + " x " + first.message.getTitle())
+                .detectedAt(detectedAt)
+                .group(group)
+                .build());
+    }
+
+    // Birleşik mesajın gecikmesi en eski ilana göre ölçülür
+    private static long earliest(long detectedAt, long next) {
+        return next > 0 && (detectedAt == 0 || next < detectedAt) ? next : detectedAt;
+    }
+
+    // Birleştirme adayları gönderim sırasıyla: önce sohbetin kenara alınmış mesajları, sonra kuyruk
+    private Iterator<Delivery> candidates(Delivery first) {
+        ArrayDeque<Delivery> parked = deferred.get(first.chatKey());
+        if (parked == null || parked.isEmpty()) {
+            return queue.iterator();
+        }
+        Iterator<Delivery> parkedIt = parked.iterator();
+        Iterator<Delivery> queuedIt = queue.iterator();
+        return new Iterator<Delivery>() {
+            private Iterator<Delivery> current = parkedIt;
+
+            @Override
+            public boolean hasNext() {
+                if (current == parkedIt && !parkedIt.hasNext()) {
+                    current = queuedIt;
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Delivery next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+
+            @Override
+            public void remove() {
+                current.remove();
+                if (current == parkedIt) {
+                    deferredCount.decrementAndGet();
+                }
+            }
+        };
+    }
+
+    // Sohbetin limiti ve mesajın yeniden deneme zamanı
+    private long readyAt(Delivery delivery) {
+        return Math.max(delivery.notBefore, chatNextAllowed.getOrDefault(delivery.chatKey(), 0L));
+    }
+
+    private void defer(Delivery delivery, boolean first) {
+        ArrayDeque<Delivery> parked = deferred.computeIfAbsent(delivery.chatKey(), key -> new ArrayDeque<>());
+        if (first) {
+            parked.addFirst(delivery);
+        } else {
+            parked.addLast(delivery);
+        }
+        deferredCount.incrementAndGet();
+    }
+
+    // Sırası gelmiş ilk kenara alınmış mesaj; yoksa null
+    private Delivery nextDeferred(long now) {
+        Iterator<ArrayDeque<Delivery>> it = deferred.values().iterator();
+        while (it.hasNext()) {
+            ArrayDeque<Delivery> parked = it.next();
+            Delivery head = parked.peekFirst();
+            if (head == null) {
+                it.remove();
+            } else if (readyAt(head) <= now) {
+                parked.pollFirst();
+                deferredCount.decrementAndGet();
+                if (parked.isEmpty()) {
+                    it.remove();
+                }
+                return head;
+            }
+        }
+        return null;
+    }
+
+    private long nextDeferredAt() {
+        long earliest = Long.MAX_VALUE;
+        for (ArrayDeque<Delivery> parked : deferred.values()) {
+            Delivery head = parked.peekFirst();
+            if (head != null) {
+                earliest = Math.min(earliest, readyAt(head));
+            }
+        }
+        return earliest;
+    }
+
+    // Hedefin genel limiti tüm sohbetler için ortaktır ve kısadır; beklenir
+    private void waitForSinkSlot(Delivery delivery) throws InterruptedException {
+        long allowedAt = sinkNextAllowed.getOrDefault(delivery.sink.name(), 0L);
+        long now = System.currentTimeMillis();
+        if (allowedAt > now) {
+            Thread.sleep(allowedAt - now);
+        }
+    }
+
+    private void deliver(Delivery delivery) {
+        MessageSink sink = delivery.sink;
+        TelegramMessage message = delivery.message;
+        delivery.attempts++;
+        long now = System.currentTimeMillis();
+        sinkNextAllowed.put(sink.name(), now + sink.globalIntervalMillis());
+        chatNextAllowed.put(delivery.chatKey(), now + sink.chatIntervalMillis());
+
+        try {
+            sink.deliver(message);
+            NOTIFICATIONS.labels(sink.name(), "sent").inc();
+            if (message.getDetectedAtMillis() > 0) {
+                DETECTION_LAG.labels(sink.name())
+                        .observeMillis(System.currentTimeMillis() - message.getDetectedAtMillis());
+            }
+            logger.info("Bildirim gönderildi ({} / Chat ID: {}): {}", sink.name(), message.getChatId(),
+                    message.getTitle());
+        } catch (DeliveryException e) {
+            if (!e.isRetryable()) {
+                NOTIFICATIONS.labels(sink.name(), "failed").inc();
+                logger.error("Bildirim gönderilemedi ({}): {} ({})", sink.name(), e.getMessage(), message.getTitle());
+                return;
+            }
+            long delay = e.getRetryAfterMillis() > 0 ? e.getRetryAfterMillis() : backoffMillis(delivery.attempts);
+            if (e.getRetryAfterMillis() > 0) {
+                chatNextAllowed.put(delivery.chatKey(), System.currentTimeMillis() + delay);
+            }
+            logger.warn("Bildirim gönderilemedi ({}): {}, {} ms sonra tekrar denenecek", sink.name(),
+                    e.getMessage(), delay);
+            NOTIFICATIONS.labels(sink.name(), "retry").inc();
+            retry(delivery, delay);
+        }
+    }
+
+    private void retry(Delivery delivery, long delayMillis) {
+        if (delivery.attempts > maxRetries) {
+            logger.error("Bildirim {} denemeden sonra bırakıldı: {}", delivery.attempts, delivery.message.getTitle());
+            NOTIFICATIONS.labels(delivery.sink.name(), "failed").inc();
+            return;
+        }
+        delivery.notBefore = System.currentTimeMillis() + delayMillis;
+        // Sohbet içi sıra bozulmasın diye mesaj sohbetin sırasının başına konur
+        defer(delivery, true);
+    }
+
+    private static long backoffMillis(int attempts) {
+        return Math.min(TimeUnit.SECONDS.toMillis(60), 1000L << Math.min(attempts - 1, 6));
+    }
+}
@@ -0,0 +1,9 @@
+package com.teslabot;
+
+// Bir kontrol turunun sonucu; zamanlayıcı bir sonraki aralığı buna göre ayarlar
+public enum PollOutcome {
+    CHANGED,
+    UNCHANGED,
+    ERROR,
+    PAUSED // Devre kesici açık, istek yapılmadı; aralık ve hata sayısı değişmez
+}
@@ -0,0 +1,209 @@
+package com.teslabot;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+// Yükleme sırasında bir kez parse edilen proxy ve sağlık istatistikleri. Karantina proxy'nin devre
+// kesicisinin açık durumudur: art arda hatalar, 403/429 ya da kayan penceredeki hata oranı proxy'yi
+// karantinaya alır, süre dolunca tek bir deneme isteğiyle geri açılır.
+public final class ProxyEndpoint {
+    private static final double EWMA_ALPHA = 0.3;
+    // Başarı oranı da üstel ortalamayla izlenir: ömür boyu sayaçlar toparlanan proxy'yi uzun süre düşük,
+    // bozulmaya başlayan proxy'yi uzun süre yüksek ağırlıkta tutardı. Ağırlık kabaca son ~20 sonuçtur.
+    private static final double SUCCESS_EWMA_ALPHA = 0.1;
+    private static final long THROTTLE_PENALTY_MILLIS = 5 * 60 * 1000L;
+
+    private final String key;
+    private final Proxy proxy;
+    private final CircuitBreaker breaker;
+
+    private long successes = 0;
+    private long failures = 0;
+    private long throttles = 0;
+    private double ewmaLatencyMillis = -1;
+    private double ewmaSuccessRate = 0.5; // Henüz sonuç yokken tarafsız
+    private long lastThrottledAt = 0;
+
+    private ProxyEndpoint(String key, Proxy proxy, CircuitBreaker.Settings breakerSettings) {
+        this.key = key;
+        this.proxy = proxy;
+        this.breaker = new CircuitBreaker(breakerSettings);
+    }
+
+    public static ProxyEndpoint direct(CircuitBreaker.Settings breakerSettings) {
+        return new ProxyEndpoint("DIRECT", Proxy.NO_PROXY, breakerSettings);
+    }
+
+    // "host:port" satırını parse eder; geçersizse IllegalArgumentException
+    public static ProxyEndpoint parse(String line, CircuitBreaker.Settings breakerSettings) {
+        String value = line.trim();
+        int colon = value.lastIndexOf(':');
+        if (colon <= 0 || colon == value.length() - 1) {
+            throw new IllegalArgumentException("Geçersiz proxy: " + line);
+        }
+        String host = value.substring(0, colon);
+        int port = Integer.parseInt(value.substring(colon + 1));
+        return new ProxyEndpoint(value, new Proxy(Proxy.Type.HTTP, InetSocketAddress.createUnresolved(host, port)),
+                breakerSettings);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Proxy getProxy() {
+        return proxy;
+    }
+
+    public boolean isDirect() {
+        return proxy == Proxy.NO_PROXY;
+    }
+
+    synchronized void recordSuccess(long latencyMillis) {
+        successes++;
+        updateSuccessRate(1);
+        updateLatency(latencyMillis);
+        breaker.recordSuccess(System.currentTimeMillis());
+    }
+
+    // Sonuç: proxy karantinaya alındıysa karantina süresi (ms), alınmadıysa 0
+    synchronized long recordFailure(boolean throttled, long latencyMillis, long now) {
+        failures++;
+        updateSuccessRate(0);
+        if (latencyMillis > 0) {
+            updateLatency(latencyMillis);
+        }
+        if (throttled) {
+            throttles++;
+            lastThrottledAt = now;
+        }
+        return breaker.recordFailure(throttled, now);
+    }
+
+    private void updateSuccessRate(double outcome) {
+        ewmaSuccessRate = SUCCESS_EWMA_ALPHA * outcome + (1 - SUCCESS_EWMA_ALPHA) * ewmaSuccessRate;
+    }
+
+    private void updateLatency(long latencyMillis) {
+        ewmaLatencyMillis = ewmaLatencyMillis < 0 ? latencyMillis
+                : EWMA_ALPHA * latencyMillis + (1 - EWMA_ALPHA) * ewmaLatencyMillis;
+    }
+
+    // Karantinası bitmiş proxy tek bir deneme isteği için seçilebilir
+    boolean isSelectable(long now) {
+        return breaker.isCallPermitted(now);
+    }
+
+    // Karantinası bitmişse bu istek deneme isteğidir; sonucu gelene kadar proxy başka istek için seçilmez
+    void markSelected(long now) {
+        breaker.tryAcquire(now);
+    }
+
+    // Sonucu kaydedilmeyecek deneme isteği proxy'yi yarı açıkta bırakmaz
+    void releaseProbe() {
+        breaker.releaseProbe();
+    }
+
+    long getQuarantinedUntil() {
+        return breaker.getOpenUntil();
+    }
+
+    // Yakın dönem başarı oranı / gecikme; yakın zamanda 403/429 aldıysa cezalandırılır
+    synchronized double score(long now) {
+        double successRate = ewmaSuccessRate;
+        double latency = ewmaLatencyMillis < 0 ? 1000 : ewmaLatencyMillis;
+        double score = successRate / (1.0 + latency / 1000.0);
+        if (lastThrottledAt > 0 && now - lastThrottledAt < THROTTLE_PENALTY_MILLIS) {
+            score *= 0.2;
+        }
+        return score;
+    }
+
+    // Yeniden başlatmada geri yüklenmek üzere ham sağlık durumu
+    synchronized Health health() {
+        return new Health(key, breaker.getState(), successes, failures, throttles, ewmaSuccessRate,
+                ewmaLatencyMillis, lastThrottledAt, breaker.getConsecutiveFailures(), breaker.getOpenCount(), breaker.getOpenUntil());
+    }
+
+    synchronized void restore(Health health) {
+        successes = health.successes;
+        failures = health.failures;
+        throttles = health.throttles;
+        ewmaSuccessRate = health.ewmaSuccessRate;
+        ewmaLatencyMillis = health.ewmaLatencyMillis;
+        lastThrottledAt = health.lastThrottledAt;
+        breaker.restore(health.state, health.consecutiveFailures, health.quarantineCount, health.quarantinedUntil);
+    }
+
+    synchronized Stats stats(long now) {
+        return new Stats(key, breaker.getState(), successes, failures, throttles, ewmaLatencyMillis, score(now),
+                Math.max(0, breaker.getOpenUntil() - now));
+    }
+
+    // Dışarıya açılan anlık istatistik
+    public static final class Stats {
+        public final String key;
+        public final CircuitBreaker.State state;
+        public final long successes;
+        public final long failures;
+        public final long throttles;
+        public final double ewmaLatencyMillis;
+        public final double score;
+        public final long quarantineRemainingMillis;
+
+        Stats(String key, CircuitBreaker.State state, long successes, long failures, long throttles,
+                double ewmaLatencyMillis, double score, long quarantineRemainingMillis) {
+            this.key = key;
+            this.state = state;
+            this.successes = successes;
+            this.failures = failures;
+            this.throttles = throttles;
+            this.ewmaLatencyMillis = ewmaLatencyMillis;
+            this.score = score;
+            this.quarantineRemainingMillis = quarantineRemainingMillis;
+        }
+
+        public double successRate() {
+            long total = successes + failures;
+            return total == 0 ? 0 : (double) successes / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s başarı=%d hata=%d (403/429=%d) oran=%.0f%% gecikme=%.0fms skor=%.3f%s",
+                    key, state, successes, failures, throttles, successRate() * 100, Math.max(0, ewmaLatencyMillis),
+                    score, quarantineRemainingMillis > 0 ? " karantina=" + quarantineRemainingMillis / 1000 + "s" : "");
+        }
+    }
+
+    // Durum dosyasına yazılan ham sağlık bilgisi
+    static final class Health {
+        final String key;
+        final CircuitBreaker.State state;
+        final long successes;
+        final long failures;
+        final long throttles;
+        final double ewmaSuccessRate;
+        final double ewmaLatencyMillis;
+        final long lastThrottledAt;
+        final int consecutiveFailures;
+        final int quarantineCount;
+        final long quarantinedUntil;
+
+        Health(String key, CircuitBreaker.State state, long successes, long failures, long throttles,
+                double ewmaSuccessRate, double ewmaLatencyMillis, long lastThrottledAt, int consecutiveFailures,
+                int quarantineCount, long quarantinedUntil) {
+            this.key = key;
+            this.state = state;
+            this.successes = successes;
+            this.failures = failures;
+            this.throttles = throttles;
+            this.ewmaSuccessRate = ewmaSuccessRate;
+            this.ewmaLatencyMillis = ewmaLatencyMillis;
+            this.lastThrottledAt = lastThrottledAt;
+            this.consecutiveFailures = consecutiveFailures;
+            this.quarantineCount = quarantineCount;
+            this.quarantinedUntil = quarantinedUntil;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Proxy havuzu: sağlık skoruna göre ağırlıklı seçim, hatalı proxy'ler için devre kesiciyle üstel bekleme
+// süreli karantina ve tek istekle geri deneme, proxy-list.txt değişince yeniden başlatmadan yükleme.
+public class ProxyManager {
+    private static final Logger logger = LoggerFactory.getLogger(ProxyManager.class);
+
+    private volatile Path proxyFile; // PROXY_LIST_FILE yeniden yüklenince setProxyFile ile değişir
+    private final CircuitBreaker.Settings breakerSettings;
+    private final ProxyEndpoint direct;
+    private volatile List<ProxyEndpoint> endpoints = Collections.emptyList();
+    private volatile FileTime lastModified;
+    private Consumer<ProxyEndpoint> removalListener = endpoint -> {
+    };
+
+    public ProxyManager() {
+        this(Paths.get(Env.get("PROXY_LIST_FILE", "proxy-list.txt")),
+                Env.getInt("PROXY_FAILURE_THRESHOLD", 3),
+                TimeUnit.SECONDS.toMillis(Env.getLong("PROXY_COOLDOWN_SECONDS", 30)),
+                TimeUnit.MINUTES.toMillis(Env.getLong("PROXY_MAX_COOLDOWN_MINUTES", 30)),
+                Env.getInt("PROXY_WINDOW_SIZE", 20),
+                Env.getInt("PROXY_FAILURE_RATE_PERCENT", 50) / 100.0);
+    }
+
+    // 403/429 proxy'yi hemen karantinaya alır; diğer hatalar art arda failureThreshold kez ya da son
+    // windowSize istekte (10 dakika içinde, en az yarısı dolmuşken) failureRate oranında gelirse
+    public ProxyManager(Path proxyFile, int failureThreshold, long baseCooldownMillis, long maxCooldownMillis,
+            int windowSize, double failureRate) {
+        this.proxyFile = proxyFile;
+        this.breakerSettings = new CircuitBreaker.Settings(windowSize, TimeUnit.MINUTES.toMillis(10),
+                (windowSize + 1) / 2, failureRate, Math.max(1, failureThreshold), 1, baseCooldownMillis,
+                maxCooldownMillis);
+        this.direct = ProxyEndpoint.direct(breakerSettings);
+        reload();
+    }
+
+    // Listeden çıkarılan proxy'lerin kaynaklarını (bağlantı havuzu vb.) bırakmak için
+    public void setRemovalListener(Consumer<ProxyEndpoint> removalListener) {
+        this.removalListener = removalListener;
+    }
+
+    // Dosya değişikliğini periyodik kontrol eder ve istatistikleri loglar
+    public void startMaintenance(ScheduledExecutorService scheduler) {
+        long reloadSeconds = Env.getLong("PROXY_RELOAD_SECONDS", 30);
+        long statsMinutes = Env.getLong("PROXY_STATS_LOG_MINUTES", 10);
+        scheduler.scheduleWithFixedDelay(this::reloadIfChanged, reloadSeconds, reloadSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::logStats, statsMinutes, statsMinutes, TimeUnit.MINUTES);
+    }
+
+    // Yeni dosyadaki proxy'ler hemen yüklenir; iki listede de bulunanların sağlık durumu korunur
+    public synchronized void setProxyFile(Path proxyFile) {
+        logger.info("Proxy listesi dosyası değişti: {} -> {}", this.proxyFile, proxyFile);
+        this.proxyFile = proxyFile;
+        reload();
+    }
+
+    public void reloadIfChanged() {
+        Path proxyFile = this.proxyFile;
+        try {
+            if (!Files.exists(proxyFile)) {
+                return;
+            }
+            FileTime modified = Files.getLastModifiedTime(proxyFile);
+            if (!modified.equals(lastModified)) {
+                logger.info("Proxy listesi değişti, yeniden yükleniyor");
+                reload();
+            }
+        } catch (IOException e) {
+            logger.warn("Proxy listesi kontrol edilemedi: {}", e.getMessage());
+        }
+    }
+
+    // Mevcut proxy'lerin istatistikleri korunur, yeni satırlar eklenir, silinenler çıkarılır
+    public synchronized void reload() {
+        Path proxyFile = this.proxyFile;
+        Map<String, ProxyEndpoint> current = new LinkedHashMap<>();
+        for (ProxyEndpoint endpoint : endpoints) {
+            current.put(endpoint.getKey(), endpoint);
+        }
+        List<ProxyEndpoint> loaded = new ArrayList<>();
+        try {
+            if (Files.exists(proxyFile)) {
+                lastModified = Files.getLastModifiedTime(proxyFile);
+                for (String line : Files.readAllLines(proxyFile, StandardCharsets.UTF_8)) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#") || !line.contains(":")) {
+                        continue;
+                    }
+                    ProxyEndpoint existing = current.remove(line);
+                    if (existing != null) {
+                        loaded.add(existing);
+                        continue;
+                    }
+                    try {
+                        loaded.add(ProxyEndpoint.parse(line, breakerSettings));
+                    } catch (IllegalArgumentException e) {
+                        logger.warn("Proxy satırı atlandı: {}", e.getMessage());
+                    }
+                }
+            }
+            logger.info("{} adet proxy yüklendi", loaded.size());
+        } catch (IOException e) {
+            logger.error("Proxy listesi yüklenemedi: {}", e.getMessage());
+            return;
+        }
+        endpoints = Collections.unmodifiableList(loaded);
+        for (ProxyEndpoint removed : current.values()) {
+            logger.info("Proxy listeden çıkarıldı: {}", removed.getKey());
+            removalListener.accept(removed);
+        }
+    }
+
+    public int size() {
+        return endpoints.size();
+    }
+
+    // 403/429/5xx proxy'nin engellendiğine işaret eder; diğer 4xx'ler isteğin kendisiyle ilgilidir
+    public static boolean isProxyFailure(int statusCode) {
+        return statusCode == 403 || statusCode == 429 || statusCode >= 500;
+    }
+
+    // Karantinada olmayanlar arasından skora göre ağırlıklı rastgele seçim.
+    // Hepsi karantinadaysa karantinası en erken bitecek olan denenir.
+    public ProxyEndpoint select() {
+        List<ProxyEndpoint> pool = endpoints;
+        if (pool.isEmpty()) {
+            return direct;
+        }
+        ProxyEndpoint chosen = pickWeighted(pool, null, System.currentTimeMillis());
+        if (chosen == null) {
+            chosen = pool.get(0);
+            for (ProxyEndpoint endpoint : pool) {
+                if (endpoint.getQuarantinedUntil() < chosen.getQuarantinedUntil()) {
+                    chosen = endpoint;
+                }
+            }
+            logger.debug("Tüm proxy'ler karantinada, en erken açılacak olan deneniyor: {}", chosen.getKey());
+        }
+        chosen.markSelected(System.currentTimeMillis());
+        logger.debug("Proxy kullanılıyor: {}", chosen.getKey());
+        return chosen;
+    }
+
+    // Yedek istek için verilen proxy dışında sağlıklı bir proxy; yoksa null
+    public ProxyEndpoint selectOther(ProxyEndpoint exclude) {
+        List<ProxyEndpoint> pool = endpoints;
+        long now = System.currentTimeMillis();
+        ProxyEndpoint chosen = pickWeighted(pool, exclude, now);
+        if (chosen != null) {
+            chosen.markSelected(now);
+        }
+        return chosen;
+    }
+
+    private ProxyEndpoint pickWeighted(List<ProxyEndpoint> pool, ProxyEndpoint exclude, long now) {
+        double[] weights = new double[pool.size()];
+        double total = 0;
+        for (int i = 0; i < pool.size(); i++) {
+            ProxyEndpoint endpoint = pool.get(i);
+            if (endpoint != exclude && endpoint.isSelectable(now)) {
+                weights[i] = endpoint.score(now);
+                total += weights[i];
+            }
+        }
+        if (total <= 0) {
+            return null;
+        }
+        double r = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (weights[i] > 0 && r < 0) {
+                return pool.get(i);
+            }
+        }
+        return null;
+    }
+
+    public void recordSuccess(ProxyEndpoint endpoint, long latencyMillis) {
+        endpoint.recordSuccess(latencyMillis);
+    }
+
+    // Sonucu proxy'nin sağlığı hakkında bilgi vermeyen istek (ör. iptal edilen kaybeden deneme); proxy bu
+    // isteğin deneme hakkını aldıysa hak serbest bırakılır
+    public void release(ProxyEndpoint endpoint) {
+        endpoint.releaseProbe();
+    }
+
+    // statusCode: HTTP durum kodu, bağlantı hatası için -1
+    public void recordFailure(ProxyEndpoint endpoint, int statusCode, long latencyMillis) {
+        if (endpoint.isDirect()) {
+            return;
+        }
+        boolean throttled = statusCode == 403 || statusCode == 429;
+        long cooldown = endpoint.recordFailure(throttled, latencyMillis, System.currentTimeMillis());
+        if (cooldown > 0) {
+            logger.warn("Proxy {} karantinaya alındı ({} sn, son durum: {})", endpoint.getKey(), cooldown / 1000,
+                    statusCode > 0 ? statusCode : "bağlantı hatası");
+        }
+    }
+
+    public List<ProxyEndpoint.Stats> stats() {
+        long now = System.currentTimeMillis();
+        List<ProxyEndpoint.Stats> stats = new ArrayList<>();
+        for (ProxyEndpoint endpoint : endpoints) {
+            stats.add(endpoint.stats(now));
+        }
+        return stats;
+    }
+
+    List<ProxyEndpoint.Health> health() {
+        List<ProxyEndpoint.Health> health = new ArrayList<>();
+        for (ProxyEndpoint endpoint : endpoints) {
+            health.add(endpoint.health());
+        }
+        return health;
+    }
+
+    // Durum dosyasındaki sağlık bilgisi yalnızca listede hâlâ bulunan proxy'lere uygulanır
+    int restoreHealth(List<ProxyEndpoint.Health> health) {
+        Map<String, ProxyEndpoint> byKey = new LinkedHashMap<>();
+        for (ProxyEndpoint endpoint : endpoints) {
+            byKey.put(endpoint.getKey(), endpoint);
+        }
+        int restored = 0;
+        for (ProxyEndpoint.Health entry : health) {
+            ProxyEndpoint endpoint = byKey.get(entry.key);
+            if (endpoint != null) {
+                endpoint.restore(entry);
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    public void logStats() {
+        List<ProxyEndpoint.Stats> stats = stats();
+        if (stats.isEmpty()) {
+            return;
+        }
+        StringBuilder table = new StringBuilder("Proxy istatistikleri:");
+        for (ProxyEndpoint.Stats stat : stats) {
+            table.append("\n  ").append(stat);
+        }
+        logger.info(table.toString());
+    }
+}
@@ -0,0 +1,110 @@
+package com.teslabot;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+// Hedef + offset başına son başarılı yanıt: doğrulayıcılar (ETag / Last-Modified), gövde parmak izi ve
+// ayrıştırılmış sayfa. Aynı gövde tekrar gelirse ayrıştırma ve karşılaştırma atlanır. Boyutu sınırlı LRU.
+public class ResponseCache {
+
+    public static final class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final long fingerprint;
+        private final InventoryResponseParser.Page page;
+
+        Entry(String etag, String lastModified, long fingerprint, InventoryResponseParser.Page page) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fingerprint = fingerprint;
+            this.page = page;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        public InventoryResponseParser.Page getPage() {
+            return page;
+        }
+
+        public boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+    }
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResponseCache() {
+        this(Env.getInt("RESPONSE_CACHE_MAX_ENTRIES", 256));
+    }
+
+    public ResponseCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    public static String key(WatchTarget target, int offset) {
+        return target.key() + "@" + offset;
+    }
+
+    // CRC32C (donanım destekli) ve uzunluk birlikte: aynı uzunlukta çakışma olasılığı ihmal edilebilir
+    public static long fingerprint(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body, 0, body.length);
+        return (crc.getValue() << 32) | (body.length & 0xffffffffL);
+    }
+
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    // Bir turun tüm sayfaları başarıyla alındıktan sonra birlikte yazılır; yarım kalan tur
+    // önbelleği önceki snapshot'tan farklı bir duruma taşımaz
+    public synchronized void putAll(Map<String, Entry> cycleEntries) {
+        entries.putAll(cycleEntries);
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return "önbellek isabet: " + getHits() + ", kaçırma: " + getMisses();
+    }
+}
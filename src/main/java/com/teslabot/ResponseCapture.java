@@ -0,0 +1,306 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Yakalama modu: CAPTURE_FILE tanımlıysa Tesla'dan gelen her sayfa yanıtı (zaman, hedef, offset, durum kodu,
+// gecikme, ham gövde) dosyanın sonuna eklenir. Dosya benchmarks modülündeki ReplayServer ile yerelde
+// gerçek zamanlı ya da hızlandırılmış olarak yeniden oynatılır. Gövdeler deflate ile sıkıştırılır;
+// bağlantı hataları durum kodu -1 ile, 304 yanıtları gövdesiz kaydedilir.
+//
+// Kayıt: magic | gövde uzunluğu | gövde | CRC32C(gövde). Yarım yazılmış son kayıt okunurken atlanır; aynı
+// dosyaya yeniden başlarken önce silinir, yoksa yeni kayıtlar yarım kaydın ardına eklenip okunamazdı.
+public class ResponseCapture {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCapture.class);
+
+    static final int RECORD_MAGIC = 0x54424352; // "TBCR"
+    private static final int MAX_KEY_BYTES = 256;
+    private static final int MAX_BODY_BYTES = 64 * 1024 * 1024;
+
+    private final Path file;
+    // FileChannel değil: paralel sayfa indirmeleri iptal edilirken kesilen (interrupt) iş parçacığı kanalı
+    // kapatır ve yakalama sessizce durur. this ile korunur; kapatıldıktan sonra null
+    private FileOutputStream out;
+    private long records = 0;
+
+    // Kaydedilmiş tek yanıt; gövde sıkıştırılmış tutulur, body() ile açılır
+    public static final class Record {
+        private final long timestampMillis;
+        private final String targetKey;
+        private final int offset;
+        private final int status;
+        private final long latencyMillis;
+        private final int bodyLength;
+        private final byte[] compressedBody;
+
+        Record(long timestampMillis, String targetKey, int offset, int status, long latencyMillis, int bodyLength,
+                byte[] compressedBody) {
+            this.timestampMillis = timestampMillis;
+            this.targetKey = targetKey;
+            this.offset = offset;
+            this.status = status;
+            this.latencyMillis = latencyMillis;
+            this.bodyLength = bodyLength;
+            this.compressedBody = compressedBody;
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        public String getTargetKey() {
+            return targetKey;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        // HTTP durum kodu; -1: bağlantı hatası
+        public int getStatus() {
+            return status;
+        }
+
+        public long getLatencyMillis() {
+            return latencyMillis;
+        }
+
+        public int getBodyLength() {
+            return bodyLength;
+        }
+
+        public byte[] body() throws IOException {
+            byte[] body = new byte[bodyLength];
+            if (bodyLength == 0) {
+                return body;
+            }
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressedBody);
+                int read = 0;
+                while (read < bodyLength && !inflater.finished()) {
+                    int n = inflater.inflate(body, read, bodyLength - read);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    read += n;
+                }
+                if (read != bodyLength) {
+                    throw new IOException("eksik gövde: " + read + "/" + bodyLength);
+                }
+                return body;
+            } catch (DataFormatException e) {
+                throw new IOException("bozuk gövde: " + e.getMessage(), e);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    // CAPTURE_FILE tanımlı değilse null
+    public static ResponseCapture fromEnv() throws IOException {
+        String file = Env.get("CAPTURE_FILE", null);
+        return file == null ? null : new ResponseCapture(Paths.get(file));
+    }
+
+    public ResponseCapture(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (Files.exists(file)) {
+            truncateTornTail(file);
+        }
+        this.out = new FileOutputStream(file.toFile(), true);
+        logger.info("Yakalama modu: Tesla yanıtları {} dosyasına kaydediliyor", file);
+    }
+
+    // Çökme sırasında yarım kalmış son kaydı (ya da çerçevesi bozuk kuyruğu) siler
+    private static void truncateTornTail(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long end = 0;
+            ByteBuffer header = ByteBuffer.allocate(8);
+            while (size - end >= 12) {
+                header.clear();
+                int read = 0;
+                while (header.hasRemaining() && read >= 0) {
+                    read = channel.read(header, end + header.position());
+                }
+                header.flip();
+                if (header.remaining() < 8 || header.getInt() != RECORD_MAGIC) {
+                    break;
+                }
+                int length = header.getInt();
+                if (length < 0 || length > size - end - 12) {
+                    break;
+                }
+                end += 12L + length;
+            }
+            if (end < size) {
+                channel.truncate(end);
+                channel.force(false);
+                logger.warn("{} sonundaki yarım kayıt silindi ({} bayt)", file.getFileName(), size - end);
+            }
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public void record(String targetKey, int offset, int status, long latencyMillis, byte[] body) {
+        record(System.currentTimeMillis(), targetKey, offset, status, latencyMillis, body);
+    }
+
+    // Yazılamayan kayıt loglanır; yakalama hatası kontrol turunu bozmaz
+    public void record(long timestampMillis, String targetKey, int offset, int status, long latencyMillis,
+            byte[] body) {
+        byte[] record = encode(timestampMillis, targetKey, offset, status, latencyMillis,
+                body == null ? new byte[0] : body);
+        synchronized (this) {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.write(record);
+                records++;
+            } catch (IOException e) {
+                logger.warn("Yanıt kaydedilemedi ({}): {}", file, e.getMessage());
+            }
+        }
+    }
+
+    static byte[] encode(long timestampMillis, String targetKey, int offset, int status, long latencyMillis,
+            byte[] body) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(body.length / 4 + 64);
+        Varint.writeLong(payload, timestampMillis);
+        Varint.writeString(payload, targetKey);
+        Varint.writeVarLong(payload, offset);
+        Varint.writeZigZag(payload, status);
+        Varint.writeVarLong(payload, Math.max(0, latencyMillis));
+        Varint.writeVarLong(payload, body.length);
+        if (body.length > 0) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(body);
+                deflater.finish();
+                byte[] chunk = new byte[8192];
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 16);
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(chunk);
+                    compressed.write(chunk, 0, n);
+                }
+                Varint.writeVarLong(payload, compressed.size());
+                payload.writeBytes(compressed.toByteArray());
+            } finally {
+                deflater.end();
+            }
+        }
+
+        byte[] bytes = payload.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(bytes.length + 12);
+        Varint.writeInt(record, RECORD_MAGIC);
+        Varint.writeInt(record, bytes.length);
+        record.writeBytes(bytes);
+        Varint.writeInt(record, (int) crc.getValue());
+        return record.toByteArray();
+    }
+
+    // Dosyadaki tüm kayıtlar yazılma sırasıyla; bozuk kayıtlar atlanır, yarım son kayıtta durulur
+    public static List<Record> readAll(Path file) throws IOException {
+        List<Record> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return records;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            while (buffer.remaining() >= 12) {
+                int start = buffer.position();
+                if (buffer.getInt() != RECORD_MAGIC) {
+                    logger.warn("{} içinde {} konumunda geçersiz kayıt, dosyanın geri kalanı atlandı",
+                            file.getFileName(), start);
+                    break;
+                }
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining() - 4) {
+                    logger.debug("{} sonunda yarım kayıt atlandı", file.getFileName());
+                    break;
+                }
+                ByteBuffer payload = buffer.slice();
+                payload.limit(length);
+                buffer.position(buffer.position() + length);
+                int expectedCrc = buffer.getInt();
+                CRC32C crc = new CRC32C();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != expectedCrc) {
+                    logger.warn("{} içinde {} konumundaki kayıt bozuk, atlandı", file.getFileName(), start);
+                    continue;
+                }
+                try {
+                    records.add(decode(payload));
+                } catch (BufferUnderflowException | IOException e) {
+                    logger.warn("{} içinde {} konumundaki kayıt okunamadı: {}", file.getFileName(), start,
+                            e.getMessage());
+                }
+            }
+        }
+        return records;
+    }
+
+    private static Record decode(ByteBuffer payload) throws IOException {
+        long timestamp = payload.getLong();
+        String targetKey = Varint.readString(payload, MAX_KEY_BYTES);
+        int offset = Varint.readVarInt(payload);
+        int status = (int) Varint.readZigZag(payload);
+        long latency = Varint.readVarLong(payload);
+        int bodyLength = Varint.readVarInt(payload);
+        if (bodyLength > MAX_BODY_BYTES) {
+            throw new IOException("çok büyük gövde: " + bodyLength);
+        }
+        byte[] compressed = new byte[0];
+        if (bodyLength > 0) {
+            compressed = new byte[Varint.readCount(payload)];
+            payload.get(compressed);
+        }
+        return new Record(timestamp, targetKey, offset, status, latency, bodyLength, compressed);
+    }
+
+    public void close() {
+        synchronized (this) {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.getFD().sync();
+                out.close();
+            } catch (IOException e) {
+                logger.warn("Yakalama dosyası kapatılamadı ({}): {}", file, e.toString());
+            }
+            out = null;
+            logger.info("Yakalama dosyası kapatıldı: {} yanıt kaydedildi ({})", records, file);
+        }
+    }
+}
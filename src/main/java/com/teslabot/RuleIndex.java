@@ -0,0 +1,156 @@
+package com.teslabot;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+// Abone kurallarını özellik başına ters indekste tutar: her değer için o değeri kabul eden kuralların
+// BitSet'i. Bir ilan, özelliklerinin BitSet'leri AND'lenerek aday kurallara indirgenir; yalnızca adaylar
+// için fiyat aralığı kontrol edilir. Kural başına ilan kontrolü yerine kelime (64 kural) başına işlem yapılır.
+public final class RuleIndex {
+
+    // Bir özellik: değer -> kabul eden kurallar (kısıtsız kurallar dahil)
+    private static final class AttributeIndex {
+        private final Map<String, BitSet> byValue = new HashMap<>();
+        private final BitSet unrestricted = new BitSet();
+
+        void add(int rule, Set<String> values) {
+            if (values.isEmpty()) {
+                unrestricted.set(rule);
+                return;
+            }
+            for (String value : values) {
+                byValue.computeIfAbsent(value, v -> new BitSet()).set(rule);
+            }
+        }
+
+        // Kısıtsız kurallar her değerin kümesine bir kez eklenir; sorguda ek birleşim gerekmez
+        void seal() {
+            for (BitSet accepted : byValue.values()) {
+                accepted.or(unrestricted);
+            }
+        }
+
+        void retain(BitSet candidates, String value) {
+            BitSet accepted = byValue.get(value);
+            candidates.and(accepted != null ? accepted : unrestricted);
+        }
+    }
+
+    private static final RuleIndex EMPTY = new RuleIndex(Collections.emptyList());
+
+    private final List<WatchRule> rules;
+    private final AttributeIndex markets = new AttributeIndex();
+    private final AttributeIndex models = new AttributeIndex();
+    private final AttributeIndex trims = new AttributeIndex();
+    private final AttributeIndex paints = new AttributeIndex();
+    private final AttributeIndex interiors = new AttributeIndex();
+    private final AttributeIndex years = new AttributeIndex();
+
+    public RuleIndex(List<WatchRule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        for (int i = 0; i < this.rules.size(); i++) {
+            WatchRule rule = this.rules.get(i);
+            markets.add(i, rule.getMarket() == null ? Collections.emptySet() : Collections.singleton(rule.getMarket()));
+            models.add(i, rule.getModel() == null ? Collections.emptySet() : Collections.singleton(rule.getModel()));
+            trims.add(i, rule.getTrims());
+            paints.add(i, rule.getPaints());
+            interiors.add(i, rule.getInteriors());
+            years.add(i, rule.getYears());
+        }
+        for (AttributeIndex index : new AttributeIndex[]{markets, models, trims, paints, interiors, years}) {
+            index.seal();
+        }
+    }
+
+    public static RuleIndex empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    public List<WatchRule> match(WatchTarget target, InventoryCar car) {
+        if (rules.isEmpty()) {
+            return Collections.emptyList();
+        }
+        BitSet candidates = new BitSet(rules.size());
+        candidates.set(0, rules.size());
+        markets.retain(candidates, target.getMarket());
+        models.retain(candidates, target.getModel());
+        trims.retain(candidates, WatchRule.normalizeValue(car.getTrim()));
+        paints.retain(candidates, WatchRule.normalizeValue(car.getPaint()));
+        interiors.retain(candidates, WatchRule.normalizeValue(car.getInterior()));
+        years.retain(candidates, WatchRule.normalizeValue(car.getYear()));
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<WatchRule> matched = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            WatchRule rule = rules.get(i);
+            if (rule.matchesPrice(car.getPrice())) {
+                matched.add(rule);
+            }
+        }
+        return matched;
+    }
+
+    // Bir sohbet birden fazla kuralla eşleşse de ilanı bir kez alır
+    public Set<String> chatIdsFor(WatchTarget target, InventoryCar car) {
+        List<WatchRule> matched = match(target, car);
+        if (matched.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> chatIds = new LinkedHashSet<>();
+        for (WatchRule rule : matched) {
+            chatIds.add(rule.getChatId());
+        }
+        return chatIds;
+    }
+
+    // API'ye gönderilebilecek "options" filtresi: hedefe uygulanan kuralların hepsi bir özelliği
+    // kısıtlıyorsa o özelliğin değerlerinin birleşimi. Kısıtsız tek kural bile varsa o özellik gönderilmez;
+    // fiyat ve yıl her zaman yerelde kontrol edilir.
+    public Map<String, List<String>> upstreamOptions(WatchTarget target) {
+        List<WatchRule> applicable = new ArrayList<>();
+        for (WatchRule rule : rules) {
+            if (rule.appliesTo(target)) {
+                applicable.add(rule);
+            }
+        }
+        Map<String, List<String>> options = new LinkedHashMap<>();
+        if (applicable.isEmpty()) {
+            return options;
+        }
+        addUnion(options, "TRIM", applicable, WatchRule::getTrims);
+        addUnion(options, "PAINT", applicable, WatchRule::getPaints);
+        addUnion(options, "INTERIOR", applicable, WatchRule::getInteriors);
+        return options;
+    }
+
+    private static void addUnion(Map<String, List<String>> options, String key, List<WatchRule> rules,
+            Function<WatchRule, Set<String>> attribute) {
+        Set<String> union = new TreeSet<>();
+        for (WatchRule rule : rules) {
+            Set<String> values = attribute.apply(rule);
+            if (values.isEmpty()) {
+                return;
+            }
+            union.addAll(values);
+        }
+        options.put(key, new ArrayList<>(union));
+    }
+}
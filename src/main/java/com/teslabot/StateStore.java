@@ -0,0 +1,306 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+// Yeniden başlatmada botun kaldığı yerden devam etmesi için çalışma durumunu (hedef başına son envanter,
+// kontrol aralığı, proxy sağlığı) tek bir ikili dosyada tutar. Gönderilmiş VIN'ler zaten VinStore'da
+// kalıcı olduğu için burada tekrarlanmaz. Dosya geçici dosyaya yazılıp atomik rename ile yerine konur,
+// açılışta memory-mapped okunur. Tekrarlanan metinler (model, renk, trim...) bir kez yazılır ve
+// dizinleriyle anılır; sonda CRC32C vardır, bozuk dosya yok sayılır.
+//
+// Biçim: magic, sürüm, kayıt zamanı | metin tablosu | hedefler | proxy'ler | CRC32C
+public class StateStore {
+    private static final Logger logger = LoggerFactory.getLogger(StateStore.class);
+
+    private static final int MAGIC = 0x54425354; // "TBST"
+    private static final int VERSION = 2; // 2: proxy başarı oranının üstel ortalaması eklendi
+    private static final int MAX_STRING_BYTES = 64 * 1024;
+
+    private final Path file;
+
+    // Hedefin yeniden başlatmada geri yüklenen durumu
+    public static final class TargetEntry {
+        private final InventorySnapshot inventory;
+        private final int totalMatches;
+        private final long intervalMillis;
+        private final int consecutiveErrors;
+
+        public TargetEntry(InventorySnapshot inventory, int totalMatches, long intervalMillis, int consecutiveErrors) {
+            this.inventory = inventory;
+            this.totalMatches = totalMatches;
+            this.intervalMillis = intervalMillis;
+            this.consecutiveErrors = consecutiveErrors;
+        }
+
+        public InventorySnapshot getInventory() {
+            return inventory;
+        }
+
+        public int getTotalMatches() {
+            return totalMatches;
+        }
+
+        public long getIntervalMillis() {
+            return intervalMillis;
+        }
+
+        public int getConsecutiveErrors() {
+            return consecutiveErrors;
+        }
+    }
+
+    // Dosyadan okunan durum; hedefler WatchTarget.key() ile anahtarlanır
+    public static final class State {
+        private final long savedAtMillis;
+        private final Map<String, TargetEntry> targets;
+        private final List<ProxyEndpoint.Health> proxies;
+
+        State(long savedAtMillis, Map<String, TargetEntry> targets, List<ProxyEndpoint.Health> proxies) {
+            this.savedAtMillis = savedAtMillis;
+            this.targets = targets;
+            this.proxies = proxies;
+        }
+
+        public long getSavedAtMillis() {
+            return savedAtMillis;
+        }
+
+        public Map<String, TargetEntry> getTargets() {
+            return targets;
+        }
+
+        List<ProxyEndpoint.Health> getProxies() {
+            return proxies;
+        }
+    }
+
+    public StateStore() {
+        this(Paths.get(Env.get("STATE_FILE", Paths.get(Env.get("VIN_STORE_DIR", "."), "state.bin").toString())));
+    }
+
+    public StateStore(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Dosya yoksa null; bozuk ya da farklı sürümdeyse IOException
+    public State load() throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        State state;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("geçersiz dosya boyutu: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            state = decode(buffer);
+        }
+        logger.info("Durum dosyası yüklendi: {} hedef, {} proxy, {} dakika önce kaydedilmiş ({} ms)",
+                state.targets.size(), state.proxies.size(),
+                TimeUnit.MILLISECONDS.toMinutes(Math.max(0, System.currentTimeMillis() - state.savedAtMillis)),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return state;
+    }
+
+    public void save(Map<String, TargetEntry> targets, List<ProxyEndpoint.Health> proxies) throws IOException {
+        byte[] bytes = encode(System.currentTimeMillis(), targets, proxies);
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Durum dosyası yazıldı: {} hedef, {} proxy, {} bayt", targets.size(), proxies.size(),
+                bytes.length);
+    }
+
+    static byte[] encode(long savedAtMillis, Map<String, TargetEntry> targets, List<ProxyEndpoint.Health> proxies) {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+
+        Varint.writeVarLong(body, targets.size());
+        for (Map.Entry<String, TargetEntry> entry : targets.entrySet()) {
+            TargetEntry target = entry.getValue();
+            Varint.writeVarLong(body, intern(strings, entry.getKey()));
+            Varint.writeVarLong(body, Math.max(0, target.totalMatches));
+            Varint.writeVarLong(body, Math.max(0, target.intervalMillis));
+            Varint.writeVarLong(body, Math.max(0, target.consecutiveErrors));
+            Varint.writeVarLong(body, target.inventory.size());
+            for (InventoryCar car : target.inventory.cars()) {
+                Varint.writeVarLong(body, intern(strings, car.getVin()));
+                Varint.writeVarLong(body, intern(strings, car.getModel()));
+                Varint.writeVarLong(body, intern(strings, car.getTrim()));
+                Varint.writeVarLong(body, intern(strings, car.getTrimName()));
+                Varint.writeVarLong(body, intern(strings, car.getYear()));
+                Varint.writeVarLong(body, Math.max(0, car.getPrice()));
+                Varint.writeVarLong(body, intern(strings, car.getCurrency()));
+                Varint.writeVarLong(body, intern(strings, car.getPaint()));
+                Varint.writeVarLong(body, intern(strings, car.getInterior()));
+                body.write(car.isInTransit() ? 1 : 0);
+            }
+        }
+
+        Varint.writeVarLong(body, proxies.size());
+        for (ProxyEndpoint.Health proxy : proxies) {
+            Varint.writeVarLong(body, intern(strings, proxy.key));
+            body.write(proxy.state.ordinal());
+            Varint.writeVarLong(body, proxy.successes);
+            Varint.writeVarLong(body, proxy.failures);
+            Varint.writeVarLong(body, proxy.throttles);
+            Varint.writeLong(body, Double.doubleToLongBits(proxy.ewmaSuccessRate));
+            Varint.writeLong(body, Double.doubleToLongBits(proxy.ewmaLatencyMillis));
+            Varint.writeLong(body, proxy.lastThrottledAt);
+            Varint.writeVarLong(body, proxy.consecutiveFailures);
+            Varint.writeVarLong(body, proxy.quarantineCount);
+            Varint.writeLong(body, proxy.quarantinedUntil);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.size() + strings.size() * 16 + 32);
+        Varint.writeInt(out, MAGIC);
+        Varint.writeInt(out, VERSION);
+        Varint.writeLong(out, savedAtMillis);
+        Varint.writeVarLong(out, strings.size());
+        for (String value : strings.keySet()) {
+            Varint.writeString(out, value);
+        }
+        out.writeBytes(body.toByteArray());
+        CRC32C crc = new CRC32C();
+        byte[] content = out.toByteArray();
+        crc.update(content, 0, content.length);
+        Varint.writeInt(out, (int) crc.getValue());
+        return out.toByteArray();
+    }
+
+    static State decode(ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        CRC32C crc = new CRC32C();
+        ByteBuffer content = buffer.duplicate();
+        content.limit(content.position() + length - 4);
+        crc.update(content);
+        if ((int) crc.getValue() != buffer.getInt(buffer.position() + length - 4)) {
+            throw new IOException("CRC uyuşmuyor");
+        }
+        buffer.limit(buffer.position() + length - 4);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("durum dosyası değil");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION && version != 1) {
+                throw new IOException("desteklenmeyen sürüm: " + version);
+            }
+            long savedAtMillis = buffer.getLong();
+
+            String[] strings = new String[Varint.readCount(buffer)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = Varint.readString(buffer, MAX_STRING_BYTES);
+            }
+
+            int targetCount = Varint.readCount(buffer);
+            Map<String, TargetEntry> targets = new HashMap<>(Math.max(16, targetCount * 2));
+            for (int t = 0; t < targetCount; t++) {
+                String key = string(buffer, strings);
+                int totalMatches = Varint.readVarInt(buffer);
+                long intervalMillis = Varint.readVarLong(buffer);
+                int consecutiveErrors = Varint.readVarInt(buffer);
+                int carCount = Varint.readCount(buffer);
+                List<InventoryCar> cars = new ArrayList<>(carCount);
+                for (int c = 0; c < carCount; c++) {
+                    String vin = string(buffer, strings);
+                    String model = string(buffer, strings);
+                    String trim = string(buffer, strings);
+                    String trimName = string(buffer, strings);
+                    String year = string(buffer, strings);
+                    long price = Varint.readVarLong(buffer);
+                    String currency = string(buffer, strings);
+                    String paint = string(buffer, strings);
+                    String interior = string(buffer, strings);
+                    boolean inTransit = buffer.get() != 0;
+                    cars.add(new InventoryCar(vin, model, trim, trimName, year, price, currency, paint, interior,
+                            inTransit));
+                }
+                targets.put(key, new TargetEntry(InventorySnapshot.of(cars), totalMatches, intervalMillis,
+                        consecutiveErrors));
+            }
+
+            CircuitBreaker.State[] states = CircuitBreaker.State.values();
+            int proxyCount = Varint.readCount(buffer);
+            List<ProxyEndpoint.Health> proxies = new ArrayList<>(proxyCount);
+            for (int p = 0; p < proxyCount; p++) {
+                String key = string(buffer, strings);
+                int state = buffer.get();
+                if (state < 0 || state >= states.length) {
+                    throw new IOException("geçersiz proxy durumu: " + state);
+                }
+                long successes = Varint.readVarLong(buffer);
+                long failures = Varint.readVarLong(buffer);
+                long throttles = Varint.readVarLong(buffer);
+                // Sürüm 1 dosyalarında yalnızca sayaçlar var; oran onlardan başlar ve yeni sonuçlarla güncellenir
+                double successRate = version == 1 ? (successes + 1.0) / (successes + failures + 2.0)
+                        : Double.longBitsToDouble(buffer.getLong());
+                proxies.add(new ProxyEndpoint.Health(key, states[state], successes, failures, throttles, successRate,
+                        Double.longBitsToDouble(buffer.getLong()), buffer.getLong(), Varint.readVarInt(buffer),
+                        Varint.readVarInt(buffer), buffer.getLong()));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException(buffer.remaining() + " bayt fazla veri");
+            }
+            return new State(savedAtMillis, Collections.unmodifiableMap(targets),
+                    Collections.unmodifiableList(proxies));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("durum dosyası eksik ya da bozuk", e);
+        }
+    }
+
+    private static String string(ByteBuffer buffer, String[] strings) throws IOException {
+        int index = Varint.readVarInt(buffer);
+        if (index >= strings.length) {
+            throw new IOException("geçersiz metin dizini: " + index);
+        }
+        return strings[index];
+    }
+
+    private static int intern(Map<String, Integer> strings, String value) {
+        Integer index = strings.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.put(value, index);
+        }
+        return index;
+    }
+}
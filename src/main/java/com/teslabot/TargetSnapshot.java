@@ -0,0 +1,53 @@
+package com.teslabot;
+
+// Bir hedefin belirli bir andaki durumu. Değiştirilemez; her güncelleme yeni bir örnek üretir ve
+// TargetState içinde atomik olarak yerine konur, böylece aynı hedefin turları eşzamanlı çalışabilir.
+public final class TargetSnapshot {
+    static final TargetSnapshot INITIAL = new TargetSnapshot(-1, null, 0, 0);
+
+    private final long cycle; // Snapshot'ı üreten turun sıra numarası (-1: henüz tur yok)
+    private final InventorySnapshot inventory; // null: hedef için henüz başarılı tur yok
+    private final int totalMatches;
+    private final long errorSinceMillis; // 0: hata durumunda değil
+
+    private TargetSnapshot(long cycle, InventorySnapshot inventory, int totalMatches, long errorSinceMillis) {
+        this.cycle = cycle;
+        this.inventory = inventory;
+        this.totalMatches = totalMatches;
+        this.errorSinceMillis = errorSinceMillis;
+    }
+
+    public long getCycle() {
+        return cycle;
+    }
+
+    public InventorySnapshot getInventory() {
+        return inventory;
+    }
+
+    public int getTotalMatches() {
+        return totalMatches;
+    }
+
+    public boolean isErrorState() {
+        return errorSinceMillis > 0;
+    }
+
+    public long getErrorSinceMillis() {
+        return errorSinceMillis;
+    }
+
+    // Başarılı tur: envanter yenilenir, hata durumu temizlenir
+    TargetSnapshot withInventory(long cycle, InventorySnapshot inventory, int totalMatches) {
+        return new TargetSnapshot(cycle, inventory, totalMatches, 0);
+    }
+
+    TargetSnapshot withoutError() {
+        return new TargetSnapshot(cycle, inventory, totalMatches, 0);
+    }
+
+    // Hata durumu başlamadıysa şimdi başlar; bildirimleri ErrorDigest toplar
+    TargetSnapshot withError(long nowMillis) {
+        return new TargetSnapshot(cycle, inventory, totalMatches, isErrorState() ? errorSinceMillis : nowMillis);
+    }
+}
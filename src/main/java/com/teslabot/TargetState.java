@@ -0,0 +1,47 @@
+package com.teslabot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Her hedefin kendi durumu; hedefler birbirini etkilemez. Durum değiştirilemez bir TargetSnapshot'tır ve
+// compareAndSet ile değiştirilir, aynı hedef için eşzamanlı turlar birbirinin güncellemesini ezmez.
+// Hedefin devre kesicisi API sürekli hata verirken turları duraklatır.
+public class TargetState {
+    private final WatchTarget target;
+    private final CircuitBreaker breaker;
+    private final AtomicReference<TargetSnapshot> current = new AtomicReference<>(TargetSnapshot.INITIAL);
+    private final AtomicLong cycles = new AtomicLong();
+
+    public TargetState(WatchTarget target, CircuitBreaker.Settings breakerSettings) {
+        this.target = target;
+        this.breaker = new CircuitBreaker(breakerSettings);
+    }
+
+    public WatchTarget getTarget() {
+        return target;
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    public TargetSnapshot get() {
+        return current.get();
+    }
+
+    boolean compareAndSet(TargetSnapshot expected, TargetSnapshot next) {
+        return current.compareAndSet(expected, next);
+    }
+
+    // Durum dosyasından yüklenen envanter; henüz tur çalışmadıysa uygulanır. Cycle -1 kalır, ilk tur
+    // bu envantere göre fark hesaplar ve ilk çalıştırma özetini göndermez.
+    boolean restore(InventorySnapshot inventory, int totalMatches) {
+        return current.compareAndSet(TargetSnapshot.INITIAL,
+                TargetSnapshot.INITIAL.withInventory(TargetSnapshot.INITIAL.getCycle(), inventory, totalMatches));
+    }
+
+    // Tur başında alınır; daha yeni bir turun sonucu yayınlandıysa eski turun sonucu atılır
+    long nextCycle() {
+        return cycles.getAndIncrement();
+    }
+}
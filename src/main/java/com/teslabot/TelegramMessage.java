@@ -0,0 +1,177 @@
+package com.teslabot;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+// Gönderilecek tek bir mesaj: hedef sohbet, metin, biçim ve önem derecesi
+public final class TelegramMessage {
+
+    public enum ParseMode {
+        NONE(null),
+        MARKDOWN("Markdown"),
+        HTML("HTML");
+
+        private final String apiValue;
+
+        ParseMode(String apiValue) {
+            this.apiValue = apiValue;
+        }
+
+        public String apiValue() {
+            return apiValue;
+        }
+    }
+
+    public enum Severity {
+        INFO,
+        WARNING,
+        ERROR
+    }
+
+    private final String chatId;
+    private final String text;
+    private final String title; // Loglar için kısa açıklama
+    private final ParseMode parseMode;
+    private final Severity severity;
+    private final boolean disablePreview;
+    private final boolean groupable; // Aynı sohbete giden diğer gruplanabilir mesajlarla birleştirilebilir
+    private final long detectedAtMillis; // Mesaja konu ilanın ilk görüldüğü an, yoksa 0
+    private final MediaCache.Image image; // Fotoğraflı gönderimde araç görseli, yoksa null
+    private final List<TelegramMessage> group; // Tek albümde gönderilecek fotoğraflı mesajlar, yoksa boş
+
+    private TelegramMessage(Builder builder) {
+        this.chatId = Objects.requireNonNull(builder.chatId, "chatId");
+        this.text = Objects.requireNonNull(builder.text, "text");
+        this.title = builder.title != null ? builder.title : "";
+        this.parseMode = builder.parseMode;
+        this.severity = builder.severity;
+        this.disablePreview = builder.disablePreview;
+        this.groupable = builder.groupable;
+        this.detectedAtMillis = builder.detectedAtMillis;
+        this.image = builder.image;
+        this.group = builder.group;
+    }
+
+    public static Builder builder(String chatId, String text) {
+        return new Builder(chatId, text);
+    }
+
+    public Builder toBuilder() {
+        return new Builder(chatId, text).title(title).parseMode(parseMode).severity(severity)
+                .disablePreview(disablePreview).groupable(groupable).detectedAt(detectedAtMillis).image(image)
+                .group(group);
+    }
+
+    public String getChatId() {
+        return chatId;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public ParseMode getParseMode() {
+        return parseMode;
+    }
+
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    public boolean isDisablePreview() {
+        return disablePreview;
+    }
+
+    public boolean isGroupable() {
+        return groupable;
+    }
+
+    public long getDetectedAtMillis() {
+        return detectedAtMillis;
+    }
+
+    public MediaCache.Image getImage() {
+        return image;
+    }
+
+    public List<TelegramMessage> getGroup() {
+        return group;
+    }
+
+    public static final class Builder {
+        private String chatId;
+        private String text;
+        private String title;
+        private ParseMode parseMode = ParseMode.NONE;
+        private Severity severity = Severity.INFO;
+        private boolean disablePreview = false;
+        private boolean groupable = false;
+        private long detectedAtMillis = 0;
+        private MediaCache.Image image;
+        private List<TelegramMessage> group = Collections.emptyList();
+
+        private Builder(String chatId, String text) {
+            this.chatId = chatId;
+            this.text = text;
+        }
+
+        public Builder chatId(String chatId) {
+            this.chatId = chatId;
+            return this;
+        }
+
+        public Builder text(String text) {
+            this.text = text;
+            return this;
+        }
+
+        public Builder title(String title) {
+            this.title = title;
+            return this;
+        }
+
+        public Builder parseMode(ParseMode parseMode) {
+            this.parseMode = parseMode;
+            return this;
+        }
+
+        public Builder severity(Severity severity) {
+            this.severity = severity;
+            return this;
+        }
+
+        public Builder disablePreview(boolean disablePreview) {
+            this.disablePreview = disablePreview;
+            return this;
+        }
+
+        public Builder groupable(boolean groupable) {
+            this.groupable = groupable;
+            return this;
+        }
+
+        public Builder detectedAt(long detectedAtMillis) {
+            this.detectedAtMillis = detectedAtMillis;
+            return this;
+        }
+
+        public Builder image(MediaCache.Image image) {
+            this.image = image;
+            return this;
+        }
+
+        public Builder group(List<TelegramMessage> group) {
+            this.group = Collections.unmodifiableList(group);
+            return this;
+        }
+
+        public TelegramMessage build() {
+            return new TelegramMessage(this);
+        }
+    }
+}
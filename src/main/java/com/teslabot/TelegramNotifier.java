@@ -1,192 +1,268 @@
 package com.teslabot;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import okhttp3.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+// Bot'un bildirim cephesi: mesaj türlerini TelegramMessage'a çevirir ve NotificationDispatcher'a verir.
+// Sohbet ID'leri virgülle ayrılmış liste olabilir; mesaj her sohbete ve her hedefe (sink) dağıtılır.
 public class TelegramNotifier {
     private static final Logger logger = LoggerFactory.getLogger(TelegramNotifier.class);
 
-    private final OkHttpClient httpClient;
-    private final ObjectMapper objectMapper;
-    private final String botToken;
-    private final String chatId;
-    private final String newCarsChatId; // Yeni araçlar için ayrı chat ID
+    private volatile Chats chats; // Yapılandırma yeniden yüklenince setChats ile bütün olarak değişir
+    private final NotificationDispatcher dispatcher;
+    private final MediaCache mediaCache; // Fotoğraflı bildirim kapalıysa null
+
+    // Sohbet listeleri ve dilleri
+    public static final class Chats {
+        // Chats.fromEnv()'in okuduğu anahtarlar (LiveConfig)
+        public static final List<String> KEYS = List.of("TELEGRAM_CHAT_ID", "TELEGRAM_NEW_CARS_CHAT_ID",
+                "TELEGRAM_CHAT_LANGUAGES", "MESSAGE_LANGUAGE");
+
+        final List<String> chatIds;
+        final List<String> newCarsChatIds; // Yeni araçlar için ayrı chat ID'ler
+        final Map<String, String> chatLanguages; // Sohbet ID -> mesaj dili
+        final String defaultLanguage;
+
+        // newCarsChatIds boşsa yeni araçlar da chatIds'e gider
+        public Chats(List<String> chatIds, List<String> newCarsChatIds, Map<String, String> chatLanguages,
+                String defaultLanguage) {
+            this.chatIds = Collections.unmodifiableList(new ArrayList<>(chatIds));
+            this.newCarsChatIds = newCarsChatIds.isEmpty() ? this.chatIds
+                    : Collections.unmodifiableList(new ArrayList<>(newCarsChatIds));
+            this.chatLanguages = Collections.unmodifiableMap(new HashMap<>(chatLanguages));
+            this.defaultLanguage = defaultLanguage;
+        }
 
-    private static final String TELEGRAM_API_URL = "https://api.telegram.org/bot";
+        public static Chats fromEnv() {
+            return new Chats(parseChatIds(Env.get("TELEGRAM_CHAT_ID", null)),
+                    parseChatIds(Env.get("TELEGRAM_NEW_CARS_CHAT_ID", null)), // Yeni araçlar için chat ID
+                    parseChatLanguages(Env.get("TELEGRAM_CHAT_LANGUAGES", null)),
+                    Env.get("MESSAGE_LANGUAGE", MessageRenderer.DEFAULT_LANGUAGE).toLowerCase());
+        }
 
-    public TelegramNotifier() {
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .build();
-        this.objectMapper = new ObjectMapper();
+        public boolean isEmpty() {
+            return chatIds.isEmpty();
+        }
 
+        @Override
+        public String toString() {
+            return String.format("%d sohbet, yeni araçlar: %s, dil: %s", chatIds.size(),
+                    newCarsChatIds == chatIds ? "ana sohbetler" : newCarsChatIds.size() + " sohbet", defaultLanguage);
+        }
+    }
+
+    public TelegramNotifier() {
         // Environment variables'dan Telegram bilgilerini al
-        this.botToken = System.getenv("TELEGRAM_BOT_TOKEN");
-        this.chatId = System.getenv("TELEGRAM_CHAT_ID");
-        this.newCarsChatId = System.getenv("TELEGRAM_NEW_CARS_CHAT_ID"); // Yeni araçlar için chat ID
+        String botToken = Env.get("TELEGRAM_BOT_TOKEN", null);
+        this.chats = Chats.fromEnv();
 
-        if (botToken == null || chatId == null) {
+        if (botToken == null || chats.isEmpty()) {
             logger.warn(
                     "Telegram bilgileri eksik! TELEGRAM_BOT_TOKEN ve TELEGRAM_CHAT_ID environment variable'larını ayarlayın.");
         }
 
-        if (newCarsChatId == null) {
+        if (chats.newCarsChatIds == chats.chatIds) {
             logger.info("TELEGRAM_NEW_CARS_CHAT_ID ayarlanmamış. Yeni araçlar ana chat ID'ye gönderilecek.");
         }
+
+        this.mediaCache = botToken == null || botToken.isEmpty() ? null : openMediaCache();
+        this.dispatcher = new NotificationDispatcher(buildSinks(botToken, mediaCache));
     }
 
-    public void sendNotification(String title, String message) {
-        if (botToken == null || chatId == null) {
-            logger.error("Telegram bilgileri eksik olduğu için bildirim gönderilemedi");
-            return;
-        }
+    public TelegramNotifier(NotificationDispatcher dispatcher, List<String> chatIds, List<String> newCarsChatIds) {
+        this(dispatcher, chatIds, newCarsChatIds, Collections.emptyMap(), MessageRenderer.DEFAULT_LANGUAGE);
+    }
 
-        try {
-            String fullMessage = String.format("🔔 *%s*\n\n%s", title, message);
-
-            RequestBody formBody = new FormBody.Builder()
-                    .add("chat_id", chatId)
-                    .add("text", fullMessage)
-                    .add("parse_mode", "Markdown")
-                    .add("disable_web_page_preview", "true")
-                    .build();
-
-            Request request = new Request.Builder()
-                    .url(TELEGRAM_API_URL + botToken + "/sendMessage")
-                    .post(formBody)
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (response.isSuccessful()) {
-                    logger.info("Telegram bildirimi başarıyla gönderildi: {}", title);
-                } else {
-                    logger.error("Telegram bildirimi gönderilemedi. HTTP: {} - {}",
-                            response.code(), response.message());
-                }
-            }
+    public TelegramNotifier(NotificationDispatcher dispatcher, List<String> chatIds, List<String> newCarsChatIds,
+            Map<String, String> chatLanguages, String defaultLanguage) {
+        this.dispatcher = dispatcher;
+        this.chats = new Chats(chatIds, newCarsChatIds, chatLanguages, defaultLanguage);
+        this.mediaCache = null;
+    }
 
+    // Sonraki bildirimlerden itibaren geçerlidir; kuyrukta bekleyen mesajlar eski sohbetlerine gider
+    public void setChats(Chats chats) {
+        this.chats = chats;
+        logger.info("Bildirim sohbetleri güncellendi: {}", chats);
+    }
+
+    // Görsel önbelleği açılamazsa bildirimler metin olarak gönderilir
+    private static MediaCache openMediaCache() {
+        try {
+            return MediaCache.fromEnv();
         } catch (IOException e) {
-            logger.error("Telegram bildirimi gönderilirken hata oluştu: {}", e.getMessage());
+            logger.error("Görsel önbelleği açılamadı, bildirimler metin olarak gönderilecek: {}", e.getMessage());
+            return null;
         }
     }
 
-    public void sendErrorNotification(String title, String message) {
-        if (botToken == null || chatId == null) {
-            logger.error("Telegram bilgileri eksik olduğu için hata bildirimi gönderilemedi");
-            return;
+    private static List<MessageSink> buildSinks(String botToken, MediaCache mediaCache) {
+        List<MessageSink> sinks = new ArrayList<>();
+        if (botToken != null && !botToken.isEmpty()) {
+            sinks.add(new TelegramSink(botToken, mediaCache));
         }
-
-        try {
-            String fullMessage = String.format("🚨 *%s*\n\n%s", title, message);
-
-            RequestBody formBody = new FormBody.Builder()
-                    .add("chat_id", chatId)
-                    .add("text", fullMessage)
-                    .add("parse_mode", "Markdown")
-                    .add("disable_web_page_preview", "true")
-                    .build();
-
-            Request request = new Request.Builder()
-                    .url(TELEGRAM_API_URL + botToken + "/sendMessage")
-                    .post(formBody)
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (response.isSuccessful()) {
-                    logger.info("Telegram hata bildirimi başarıyla gönderildi: {}", title);
-                } else {
-                    logger.error("Telegram hata bildirimi gönderilemedi. HTTP: {} - {}",
-                            response.code(), response.message());
-                }
+        String file = Env.get("NOTIFY_FILE", null);
+        if (file != null) {
+            try {
+                sinks.add(new FileSink(Paths.get(file)));
+            } catch (IOException e) {
+                logger.error("Bildirim dosyası açılamadı ({}): {}", file, e.getMessage());
             }
-
-        } catch (IOException e) {
-            logger.error("Telegram hata bildirimi gönderilirken hata oluştu: {}", e.getMessage());
         }
+        String webhook = Env.get("NOTIFY_WEBHOOK_URL", null);
+        if (webhook != null) {
+            sinks.add(new WebhookSink(webhook));
+        }
+        for (MessageSink sink : sinks) {
+            logger.info("Bildirim hedefi etkin: {}", sink.name());
+        }
+        return sinks;
     }
 
-    public void sendInventoryUpdate(String title, String message) {
-        if (botToken == null || chatId == null) {
-            logger.error("Telegram bilgileri eksik olduğu için envanter güncellemesi gönderilemedi");
-            return;
+    static List<String> parseChatIds(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptyList();
         }
-
-        try {
-            String fullMessage = title + "\n\n" + message;
-
-            RequestBody formBody = new FormBody.Builder()
-                    .add("chat_id", chatId)
-                    .add("text", fullMessage)
-                    // .add("parse_mode", "Markdown") // KALDIRILDI
-                    .add("disable_web_page_preview", "false")
-                    .build();
-
-            Request request = new Request.Builder()
-                    .url(TELEGRAM_API_URL + botToken + "/sendMessage")
-                    .post(formBody)
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (response.isSuccessful()) {
-                    logger.info("Telegram envanter güncellemesi başarıyla gönderildi: {}", title);
-                } else {
-                    logger.error("Telegram envanter güncellemesi gönderilemedi. HTTP: {} - {}",
-                            response.code(), response.message());
-                }
+        List<String> ids = new ArrayList<>();
+        for (String id : value.split(",")) {
+            if (!id.trim().isEmpty()) {
+                ids.add(id.trim());
             }
+        }
+        return Collections.unmodifiableList(ids);
+    }
 
-        } catch (IOException e) {
-            logger.error("Telegram envanter güncellemesi gönderilirken hata oluştu: {}", e.getMessage());
+    // "chatId:dil,chatId:dil" biçimi, ör. "-100123:en,456:de"
+    static Map<String, String> parseChatLanguages(String value) {
+        Map<String, String> languages = new HashMap<>();
+        for (String entry : parseChatIds(value)) {
+            int colon = entry.lastIndexOf(':');
+            String language = colon > 0 ? entry.substring(colon + 1).trim().toLowerCase() : "";
+            if (!MessageRenderer.isSupportedLanguage(language)) {
+                logger.warn("TELEGRAM_CHAT_LANGUAGES girdisi atlandı: {}", entry);
+                continue;
+            }
+            languages.put(entry.substring(0, colon).trim(), language);
         }
+        return Collections.unmodifiableMap(languages);
+    }
+
+    public String languageFor(String chatId) {
+        return languageFor(chats, chatId);
+    }
+
+    private static String languageFor(Chats chats, String chatId) {
+        return chats.chatLanguages.getOrDefault(chatId, chats.defaultLanguage);
+    }
+
+    public void sendNotification(String title, String message) {
+        send(chats.chatIds, TelegramMessage.builder("", "🔔 *" + title + "*\n\n" + message)
+                .title(title)
+                .parseMode(TelegramMessage.ParseMode.MARKDOWN)
+                .disablePreview(true));
+    }
+
+    public void sendErrorNotification(String title, String message) {
+        send(chats.chatIds, TelegramMessage.builder("", "🚨 *" + title + "*\n\n" + message)
+                .title(title)
+                .parseMode(TelegramMessage.ParseMode.MARKDOWN)
+                .severity(TelegramMessage.Severity.ERROR)
+                .disablePreview(true));
+    }
+
+    public void sendInventoryUpdate(String title, String message) {
+        send(chats.chatIds, TelegramMessage.builder("", title + "\n\n" + message)
+                .title(title));
     }
 
     // Yeni araçlar için ayrı chat ID'ye gönderme metodu
     public void sendNewCarNotification(String title, String message) {
-        if (botToken == null) {
-            logger.error("Telegram bot token eksik olduğu için yeni araç bildirimi gönderilemedi");
+        sendNewCarNotification(title, message, 0);
+    }
+
+    // detectedAtMillis: ilanın ilk görüldüğü an, tespit-teslim gecikmesi metriği için
+    public void sendNewCarNotification(String title, String message, long detectedAtMillis) {
+        send(chats.newCarsChatIds, TelegramMessage.builder("", title + "\n\n" + message)
+                .title(title)
+                .groupable(true)
+                .detectedAt(detectedAtMillis));
+    }
+
+    // Metin dil başına bir kez oluşturulur, her sohbete kendi dilinde gönderilir
+    public void sendNewCarNotification(String title, Function<String, String> textForLanguage,
+            TelegramMessage.ParseMode parseMode, long detectedAtMillis) {
+        sendNewCarNotification(title, textForLanguage, parseMode, detectedAtMillis, Collections.emptySet());
+    }
+
+    public void sendNewCarNotification(String title, Function<String, String> textForLanguage,
+            TelegramMessage.ParseMode parseMode, long detectedAtMillis, Collection<String> subscriberChatIds) {
+        sendNewCarNotification(title, textForLanguage, parseMode, detectedAtMillis, subscriberChatIds, null);
+    }
+
+    // subscriberChatIds: ilanla eşleşen abone kurallarının sohbetleri; yeni araç sohbetlerine ek olarak
+    // ve her sohbete bir kez gönderilir. car verilmişse ve görsel önbelleği açıksa mesaj fotoğraflı gider;
+    // görsel bağlantı önizlemesinin yerini aldığından önizleme kapatılır.
+    public void sendNewCarNotification(String title, Function<String, String> textForLanguage,
+            TelegramMessage.ParseMode parseMode, long detectedAtMillis, Collection<String> subscriberChatIds,
+            InventoryCar car) {
+        Chats chats = this.chats;
+        Set<String> targetChatIds = new LinkedHashSet<>(chats.newCarsChatIds);
+        targetChatIds.addAll(subscriberChatIds);
+        if (dispatcher.getSinks().isEmpty() || targetChatIds.isEmpty()) {
+            logger.error("Telegram bilgileri eksik olduğu için bildirim gönderilemedi");
             return;
         }
+        MediaCache.Image image = mediaCache == null || car == null ? null : mediaCache.imageFor(car);
+        Map<String, String> rendered = new HashMap<>(4);
+        for (String chatId : targetChatIds) {
+            String text = rendered.computeIfAbsent(languageFor(chats, chatId), textForLanguage);
+            dispatcher.dispatch(TelegramMessage.builder(chatId, text)
+                    .title(title)
+                    .parseMode(parseMode)
+                    .groupable(true)
+                    .detectedAt(detectedAtMillis)
+                    .image(image)
+                    .disablePreview(image != null)
+                    .build());
+        }
+    }
 
-        // Eğer yeni araçlar için ayrı chat ID varsa onu kullan, yoksa ana chat ID'yi
-        // kullan
-        String targetChatId = (newCarsChatId != null && !newCarsChatId.isEmpty()) ? newCarsChatId : chatId;
-
-        if (targetChatId == null) {
-            logger.error("Chat ID eksik olduğu için yeni araç bildirimi gönderilemedi");
+    // Her sohbet için mesajın bir kopyasını gönderim hattına verir
+    private void send(List<String> targetChatIds, TelegramMessage.Builder message) {
+        if (dispatcher.getSinks().isEmpty() || targetChatIds.isEmpty()) {
+            logger.error("Telegram bilgileri eksik olduğu için bildirim gönderilemedi");
             return;
         }
+        for (String targetChatId : targetChatIds) {
+            dispatcher.dispatch(message.chatId(targetChatId).build());
+        }
+    }
 
-        try {
-            String fullMessage = title + "\n\n" + message;
-
-            RequestBody formBody = new FormBody.Builder()
-                    .add("chat_id", targetChatId)
-                    .add("text", fullMessage)
-                    .add("disable_web_page_preview", "false")
-                    .build();
-
-            Request request = new Request.Builder()
-                    .url(TELEGRAM_API_URL + botToken + "/sendMessage")
-                    .post(formBody)
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (response.isSuccessful()) {
-                    logger.info("Yeni araç bildirimi başarıyla gönderildi (Chat ID: {}): {}", targetChatId, title);
-                } else {
-                    logger.error("Yeni araç bildirimi gönderilemedi. HTTP: {} - {}",
-                            response.code(), response.message());
-                }
-            }
+    public void dispatch(TelegramMessage message) {
+        dispatcher.dispatch(message);
+    }
 
-        } catch (IOException e) {
-            logger.error("Yeni araç bildirimi gönderilirken hata oluştu: {}", e.getMessage());
+    public int getQueueDepth() {
+        return dispatcher.getQueueDepth();
+    }
+
+    public void shutdown(long timeout, TimeUnit unit) {
+        dispatcher.shutdown(timeout, unit);
+        if (mediaCache != null) {
+            mediaCache.close();
         }
     }
-}
\ No newline at end of file
+}
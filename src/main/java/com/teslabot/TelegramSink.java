@@ -0,0 +1,284 @@
+package com.teslabot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.FormBody;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Telegram Bot API hedefi. URL ve istek şablonları bir kez oluşturulur. Görsel önbelleği verilmişse
+// fotoğraflı mesajlar sendPhoto, birleştirilmiş olanlar sendMediaGroup ile gönderilir; file_id'si bilinen
+// görseller yeniden yüklenmez, albümde aynı görseli paylaşan araçlar için görsel bir kez yüklenir.
+public class TelegramSink implements MessageSink {
+    private static final Logger logger = LoggerFactory.getLogger(TelegramSink.class);
+
+    private static final String TELEGRAM_API_BASE_URL = "https://api.telegram.org";
+    private static final int TELEGRAM_MAX_MESSAGE_LENGTH = 4096;
+    private static final int TELEGRAM_MAX_CAPTION_LENGTH = 1024;
+    private static final MediaType PHOTO = MediaType.get("image/jpeg");
+
+    private final OkHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Request sendMessageTemplate;
+    private final Request sendPhotoTemplate;
+    private final Request sendMediaGroupTemplate;
+    private final MediaCache mediaCache; // Fotoğraflı bildirim kapalıysa null
+    private final long chatIntervalMillis;
+    private final long globalIntervalMillis;
+
+    public TelegramSink(String botToken) {
+        this(botToken, null);
+    }
+
+    public TelegramSink(String botToken, MediaCache mediaCache) {
+        this(botToken, Env.getLong("TELEGRAM_CHAT_INTERVAL_MS", 1000), Env.getLong("TELEGRAM_GLOBAL_INTERVAL_MS", 35),
+                Env.get("TELEGRAM_API_BASE_URL", TELEGRAM_API_BASE_URL), mediaCache);
+    }
+
+    public TelegramSink(String botToken, long chatIntervalMillis, long globalIntervalMillis) {
+        this(botToken, chatIntervalMillis, globalIntervalMillis, TELEGRAM_API_BASE_URL);
+    }
+
+    // Telegram limitleri: sohbet başına ~1 mesaj/sn (gruplarda 20/dk), toplamda ~30 mesaj/sn
+    // apiBaseUrl: yerel bir Telegram taklidine yönlendirmek için değiştirilebilir
+    public TelegramSink(String botToken, long chatIntervalMillis, long globalIntervalMillis, String apiBaseUrl) {
+        this(botToken, chatIntervalMillis, globalIntervalMillis, apiBaseUrl, null);
+    }
+
+    public TelegramSink(String botToken, long chatIntervalMillis, long globalIntervalMillis, String apiBaseUrl,
+            MediaCache mediaCache) {
+        this.httpClient = new OkHttpClient.Builder()
+                .connectTimeout(30, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .build();
+        this.objectMapper = new ObjectMapper();
+        String botUrl = stripTrailingSlash(apiBaseUrl) + "/bot" + botToken;
+        this.sendMessageTemplate = new Request.Builder().url(HttpUrl.get(botUrl + "/sendMessage")).build();
+        this.sendPhotoTemplate = new Request.Builder().url(HttpUrl.get(botUrl + "/sendPhoto")).build();
+        this.sendMediaGroupTemplate = new Request.Builder().url(HttpUrl.get(botUrl + "/sendMediaGroup")).build();
+        this.mediaCache = mediaCache;
+        this.chatIntervalMillis = chatIntervalMillis;
+        this.globalIntervalMillis = globalIntervalMillis;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    @Override
+    public String name() {
+        return "telegram";
+    }
+
+    @Override
+    public long chatIntervalMillis() {
+        return chatIntervalMillis;
+    }
+
+    @Override
+    public long globalIntervalMillis() {
+        return globalIntervalMillis;
+    }
+
+    @Override
+    public int maxMessageLength() {
+        return TELEGRAM_MAX_MESSAGE_LENGTH;
+    }
+
+    @Override
+    public boolean supportsMedia() {
+        return mediaCache != null;
+    }
+
+    @Override
+    public void deliver(TelegramMessage message) throws DeliveryException {
+        if (mediaCache != null && message.getImage() != null) {
+            deliverPhotos(message);
+            return;
+        }
+        deliverText(message);
+    }
+
+    private void deliverText(TelegramMessage message) throws DeliveryException {
+        FormBody.Builder form = new FormBody.Builder()
+                .add("chat_id", message.getChatId())
+                .add("text", message.getText())
+                .add("disable_web_page_preview", message.isDisablePreview() ? "true" : "false");
+        if (message.getParseMode().apiValue() != null) {
+            form.add("parse_mode", message.getParseMode().apiValue());
+        }
+        execute(sendMessageTemplate.newBuilder().post(form.build()).build());
+    }
+
+    // Tek mesaj sendPhoto, albüm sendMediaGroup ile gider. Görsel alınamazsa ya da açıklama Telegram sınırını
+    // aşarsa mesaj metin olarak gönderilir.
+    private void deliverPhotos(TelegramMessage message) throws DeliveryException {
+        List<TelegramMessage> items = message.getGroup().isEmpty()
+                ? Collections.singletonList(message) : message.getGroup();
+        for (TelegramMessage item : items) {
+            if (item.getText().length() > TELEGRAM_MAX_CAPTION_LENGTH) {
+                deliverText(message);
+                return;
+            }
+        }
+
+        // file_id'si olmayan her farklı görsel bir kez eklenir
+        List<String> media = new ArrayList<>(items.size());
+        List<String> cachedKeys = new ArrayList<>();
+        Map<String, String> attachments = new LinkedHashMap<>(); // Anahtar -> ek adı
+        Map<String, MediaCache.Image> uploads = new LinkedHashMap<>();
+        for (TelegramMessage item : items) {
+            MediaCache.Image image = item.getImage();
+            String fileId = mediaCache.fileId(image.getKey());
+            if (fileId != null) {
+                media.add(fileId);
+                cachedKeys.add(image.getKey());
+            } else {
+                String name = attachments.computeIfAbsent(image.getKey(), key -> "photo" + attachments.size());
+                uploads.putIfAbsent(image.getKey(), image);
+                media.add("attach://" + name);
+            }
+        }
+        MultipartBody.Builder body = new MultipartBody.Builder().setType(MultipartBody.FORM)
+                .addFormDataPart("chat_id", message.getChatId());
+        for (Map.Entry<String, MediaCache.Image> upload : uploads.entrySet()) {
+            byte[] bytes;
+            try {
+                bytes = mediaCache.bytes(upload.getValue());
+            } catch (IOException e) {
+                logger.warn("Araç görseli alınamadı, mesaj metin olarak gönderiliyor: {}", e.getMessage());
+                deliverText(message);
+                return;
+            }
+            String name = attachments.get(upload.getKey());
+            body.addFormDataPart(items.size() == 1 ? "photo" : name, name + ".jpg", RequestBody.create(bytes, PHOTO));
+        }
+
+        String parseMode = message.getParseMode().apiValue();
+        Request request;
+        if (items.size() == 1) {
+            if (uploads.isEmpty()) {
+                body.addFormDataPart("photo", media.get(0));
+            }
+            body.addFormDataPart("caption", message.getText());
+            if (parseMode != null) {
+                body.addFormDataPart("parse_mode", parseMode);
+            }
+            request = sendPhotoTemplate.newBuilder().post(body.build()).build();
+        } else {
+            ArrayNode inputMedia = objectMapper.createArrayNode();
+            for (int i = 0; i < items.size(); i++) {
+                ObjectNode photo = inputMedia.addObject()
+                        .put("type", "photo")
+                        .put("media", media.get(i))
+                        .put("caption", items.get(i).getText());
+                if (parseMode != null) {
+                    photo.put("parse_mode", parseMode);
+                }
+            }
+            body.addFormDataPart("media", inputMedia.toString());
+            request = sendMediaGroupTemplate.newBuilder().post(body.build()).build();
+        }
+
+        JsonNode result;
+        try {
+            result = execute(request).path("result");
+        } catch (DeliveryException e) {
+            if (!e.isRetryable() && !cachedKeys.isEmpty()) {
+                // Telegram kayıtlı file_id'yi tanımıyor olabilir; bir sonraki denemede görseller yeniden yüklenir
+                cachedKeys.forEach(mediaCache::forgetFileId);
+                throw DeliveryException.retryable(e.getMessage());
+            }
+            throw e;
+        }
+        if (!uploads.isEmpty()) {
+            logger.debug("{} görsel yüklendi, {} görsel file_id ile gönderildi", uploads.size(), cachedKeys.size());
+        }
+        for (int i = 0; i < items.size() && !uploads.isEmpty(); i++) {
+            JsonNode sent = items.size() == 1 ? result : result.path(i);
+            JsonNode sizes = sent.path("photo");
+            // Telegram görseli birkaç boyutta döndürür; en büyüğü sonda. Aynı eki paylaşan mesajlardan
+            // ilkinin file_id'si saklanır.
+            String fileId = sizes.path(sizes.size() - 1).path("file_id").asText("");
+            if (!fileId.isEmpty() && uploads.remove(items.get(i).getImage().getKey()) != null) {
+                mediaCache.rememberFileId(items.get(i).getImage().getKey(), fileId);
+            }
+        }
+    }
+
+    // Başarılı yanıtın gövdesi; başarısızsa yeniden denenip denenmeyeceği DeliveryException ile belirtilir
+    private JsonNode execute(Request request) throws DeliveryException {
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (response.isSuccessful()) {
+                ResponseBody body = response.body();
+                try {
+                    return body == null ? objectMapper.nullNode() : objectMapper.readTree(body.string());
+                } catch (IOException e) {
+                    // Mesaj gönderildi; yalnızca yanıt okunamadı
+                    logger.debug("Telegram yanıtı okunamadı: {}", e.getMessage());
+                    return objectMapper.nullNode();
+                }
+            }
+            String status = "HTTP: " + response.code() + " - " + response.message();
+            if (response.code() == 429) {
+                throw DeliveryException.rateLimited(status, TimeUnit.SECONDS.toMillis(retryAfterSeconds(response)));
+            }
+            if (response.code() >= 500) {
+                throw DeliveryException.retryable(status);
+            }
+            throw DeliveryException.permanent(status);
+        } catch (DeliveryException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new DeliveryException(e.getMessage(), e);
+        }
+    }
+
+    private long retryAfterSeconds(Response response) {
+        try {
+            ResponseBody body = response.body();
+            if (body != null) {
+                JsonNode json = objectMapper.readTree(body.string());
+                long retryAfter = json.path("parameters").path("retry_after").asLong(0);
+                if (retryAfter > 0) {
+                    return retryAfter;
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("429 yanıtı okunamadı: {}", e.getMessage());
+        }
+        String header = response.header("Retry-After");
+        if (header != null) {
+            try {
+                return Long.parseLong(header.trim());
+            } catch (NumberFormatException ignored) {
+                // Başlık tarih formatındaysa varsayılana düş
+            }
+        }
+        return 5;
+    }
+
+    @Override
+    public void close() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+}
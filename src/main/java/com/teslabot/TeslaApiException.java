@@ -0,0 +1,17 @@
+package com.teslabot;
+
+import java.io.IOException;
+
+// Tesla API'sinin başarısız HTTP yanıtı (403, 429, 5xx ...)
+public class TeslaApiException extends IOException {
+    private final int statusCode;
+
+    public TeslaApiException(int statusCode, String message) {
+        super("HTTP Hatası: " + statusCode + " " + message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
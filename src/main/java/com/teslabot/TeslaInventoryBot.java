@@ -1,170 +1,356 @@
 package com.teslabot;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import okhttp3.ConnectionPool;
-import okhttp3.OkHttpClient;
-import okhttp3.Protocol;
-import okhttp3.Request;
-import okhttp3.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.net.InetSocketAddress;
-import java.net.Proxy;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class TeslaInventoryBot {
     private static final Logger logger = LoggerFactory.getLogger(TeslaInventoryBot.class);
 
-    private final OkHttpClient httpClient;
+    private static final MetricsRegistry metrics = MetricsRegistry.getDefault();
+    private static final MetricsRegistry.Family<MetricsRegistry.Histogram> POLL_DURATION = metrics.histogram(
+            "tesla_poll_duration_seconds", "Bir hedefin tüm sayfalarıyla birlikte kontrol süresi",
+            MetricsRegistry.LATENCY_BUCKETS, "market", "model");
+    private static final MetricsRegistry.Family<MetricsRegistry.Counter> POLLS = metrics.counter(
+            "tesla_polls_total", "Kontrol turları ve sonuçları (changed, unchanged, error, paused)",
+            "market", "model", "outcome");
+    private static final MetricsRegistry.Family<MetricsRegistry.Counter> INVENTORY_EVENTS = metrics.counter(
+            "tesla_inventory_events_total", "Turlar arası envanter olayları", "market", "type");
+
+    private final HttpClientRegistry httpClients;
+    private final InventoryFetcher inventoryFetcher;
     private final ObjectMapper objectMapper;
     private final TelegramNotifier telegramNotifier;
+    private final MessageRenderer messageRenderer; // Hedef ve dil başına derlenmiş araç mesajı şablonları
     private final ScheduledExecutorService scheduler;
-
-    private static final String TESLA_API_BASE_URL = "https://www.tesla.com/coinorder/api/v4/inventory-results";
-
-    private int lastTotalMatches = 0;
-    private boolean isErrorState = false;
-    private LocalDateTime lastErrorTime = null;
-    private static final int ERROR_NOTIFICATION_INTERVAL_MINUTES = 30;
-
-    private List<String> proxyList = new ArrayList<>();
-    private final AtomicInteger currentProxyIndex = new AtomicInteger(0); // Proxy sırayla kullanım için
-    private final Set<String> sentVins = new HashSet<>(); // Gönderilen VIN'leri takip etmek için
-    private static final String SENT_VINS_FILE = "sent_vins.txt"; // VIN'leri saklamak için dosya
-
-    private final String botActiveStart;
-    private final String botActiveEnd;
-    private final ZoneId istanbulZone = ZoneId.of("Europe/Istanbul");
+    private final ExecutorService pollWorkers; // Hedefleri paralel kontrol eden havuz (sanal modda tur başına iş parçacığı)
+
+    // Yapılandırma yeniden yüklenince bütün olarak değiştirilir (değiştirilemez kopya)
+    private volatile Map<WatchTarget, TargetState> targetStates;
+    private final CircuitBreaker.Settings breakerSettings;
+    private final ErrorDigest errorDigest; // Hata bildirimleri toplanıp özet olarak gönderilir
+
+    private final ProxyManager proxyManager; // Sağlık skoruna göre proxy seçimi
+    private final VinStore sentVins; // Tüm hedefler için ortak, kalıcı VIN kaydı
+    private final RuleIndex watchRules; // Abone kuralları (WATCH_RULES_FILE yoksa boş)
+    private final HistoryStore history; // İlan ve fiyat geçmişi (HISTORY_ENABLED=false ise null)
+    private final ClusterCoordinator cluster; // Küme modu (CLUSTER_DIR tanımlı değilse null)
+    private final ResponseCapture capture; // Yanıt yakalama modu (CAPTURE_FILE tanımlı değilse null)
+    private final LiveConfig liveConfig; // BOT_CONFIG_FILE tanımlı değilse null
+
+    private final AdaptiveScheduler pollScheduler;
+    private final StateStore stateStore; // Yeniden başlatmada sıcak devam için çalışma durumu (kapalıysa null)
+    private StateStore.State restoredState; // start()'ta zamanlayıcıya uygulandıktan sonra bırakılır
+    private MetricsServer metricsServer; // METRICS_PORT tanımlı değilse null
 
     public TeslaInventoryBot() {
+        // Dosyadaki değerler diğer bileşenler Env'i okumadan önce geçerli olmalı
+        this.liveConfig = LiveConfig.fromEnv();
         this.objectMapper = new ObjectMapper();
         this.telegramNotifier = new TelegramNotifier();
-        this.scheduler = Executors.newScheduledThreadPool(1);
-        loadProxyList();
-        loadSentVins(); // Gönderilen VIN'leri yükle
-        this.httpClient = null; // Artık kullanılmayacak, her istekte yeni client oluşturulacak
-        this.botActiveStart = System.getenv("BOT_ACTIVE_START");
-        this.botActiveEnd = System.getenv("BOT_ACTIVE_END");
+        this.messageRenderer = new MessageRenderer();
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1);
+        // Kapanışta ileri tarihli kontroller (ör. devre kesici duraklatması) beklenmez
+        timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.scheduler = timer;
+        this.errorDigest = new ErrorDigest(telegramNotifier);
+        List<WatchTarget> targets = WatchTarget.fromEnv();
+        this.breakerSettings = CircuitBreaker.Settings.forTargets();
+        Map<WatchTarget, TargetState> states = new LinkedHashMap<>();
+        for (WatchTarget target : targets) {
+            states.put(target, new TargetState(target, breakerSettings));
+        }
+        this.targetStates = Collections.unmodifiableMap(states);
+        logger.info("Hedef devre kesicisi: {}", breakerSettings);
+        int pollThreads = Env.getInt("TESLA_POLL_THREADS", Math.min(targets.size(), 4));
+        ExecutionMode executionMode = ExecutionMode.getDefault();
+        this.pollWorkers = executionMode.newExecutor(pollThreads);
+        logger.info("{} hedef takip edilecek: {} ({})", targets.size(), targets,
+                executionMode.isVirtual() ? "sanal iş parçacıkları" : pollThreads + " iş parçacığı");
+        this.proxyManager = new ProxyManager();
+        this.sentVins = openVinStore(); // Gönderilen VIN'leri yükle
+        this.httpClients = new HttpClientRegistry(); // Proxy başına kalıcı client ve bağlantı havuzu
+        proxyManager.setRemovalListener(endpoint -> httpClients.evict(endpoint.getProxy()));
+        this.inventoryFetcher = new InventoryFetcher(httpClients, proxyManager, objectMapper);
+        this.capture = openCapture();
+        inventoryFetcher.setCapture(capture);
+        this.watchRules = loadWatchRules(objectMapper);
+        this.history = Env.getBoolean("HISTORY_ENABLED", true) ? openHistoryStore() : null;
+        applyUpstreamOptions();
+        this.pollScheduler = new AdaptiveScheduler(scheduler, pollWorkers, ActiveHours.fromEnv());
+        this.cluster = openCluster(targets);
+        if (cluster != null) {
+            pollScheduler.setPhaseAligner(cluster::align);
+        }
+        this.stateStore = Env.getBoolean("STATE_SNAPSHOT_ENABLED", true) ? new StateStore() : null;
+        restoreState();
+        registerMetrics();
+        registerConfigSections();
     }
 
-    private void loadProxyList() {
-        try (BufferedReader br = new BufferedReader(new FileReader("proxy-list.txt"))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (!line.isEmpty() && line.contains(":")) {
-                    proxyList.add(line);
-                }
+    private void applyUpstreamOptions() {
+        if (!watchRules.isEmpty() && Env.getBoolean("WATCH_RULES_UPSTREAM_FILTER", false)) {
+            Map<WatchTarget, Map<String, List<String>>> options = new LinkedHashMap<>();
+            for (WatchTarget target : targetStates.keySet()) {
+                options.put(target, watchRules.upstreamOptions(target));
             }
-            logger.info("{} adet proxy yüklendi", proxyList.size());
-        } catch (Exception e) {
-            logger.error("Proxy listesi yüklenemedi: {}", e.getMessage());
+            inventoryFetcher.setUpstreamOptions(options);
         }
     }
 
-    private void loadSentVins() {
-        try {
-            if (Files.exists(Paths.get(SENT_VINS_FILE))) {
-                List<String> lines = Files.readAllLines(Paths.get(SENT_VINS_FILE));
-                for (String line : lines) {
-                    String vin = line.trim();
-                    if (!vin.isEmpty()) {
-                        sentVins.add(vin);
-                    }
-                }
-                logger.info("{} adet gönderilmiş VIN yüklendi", sentVins.size());
-            } else {
-                logger.info("Gönderilmiş VIN dosyası bulunamadı, yeni dosya oluşturulacak");
+    // Çalışırken değiştirilebilen ayarlar; diğer anahtarlar yeniden başlatınca geçerli olur
+    private void registerConfigSections() {
+        if (liveConfig == null) {
+            return;
+        }
+        liveConfig.register("hedefler", List.of("TESLA_TARGETS", "TESLA_MARKET", "TESLA_LANGUAGE"), () -> {
+            List<WatchTarget> targets = WatchTarget.fromEnv();
+            return () -> setTargets(targets);
+        });
+        liveConfig.register("zamanlama", AdaptiveScheduler.Timing.KEYS, () -> {
+            if (Env.get("BOT_ACTIVE_START", null) != null && Env.get("BOT_ACTIVE_END", null) != null
+                    && ActiveHours.fromEnv().isAlwaysActive()) {
+                throw new IllegalArgumentException("BOT_ACTIVE_START/BOT_ACTIVE_END okunamadı (beklenen: SS:dd)");
             }
-        } catch (Exception e) {
-            logger.error("Gönderilmiş VIN'ler yüklenemedi: {}", e.getMessage());
+            AdaptiveScheduler.Timing timing = AdaptiveScheduler.Timing.fromEnv();
+            return () -> pollScheduler.setTiming(timing);
+        });
+        liveConfig.register("sohbetler", TelegramNotifier.Chats.KEYS, () -> {
+            TelegramNotifier.Chats chats = TelegramNotifier.Chats.fromEnv();
+            if (chats.isEmpty()) {
+                throw new IllegalArgumentException("TELEGRAM_CHAT_ID boş olamaz");
+            }
+            return () -> telegramNotifier.setChats(chats);
+        });
+        liveConfig.register("proxy", List.of("PROXY_LIST_FILE"), () -> {
+            Path file = Paths.get(Env.get("PROXY_LIST_FILE", "proxy-list.txt"));
+            if (!Files.isReadable(file)) {
+                throw new IllegalArgumentException("Proxy listesi okunamıyor: " + file);
+            }
+            return () -> proxyManager.setProxyFile(file);
+        });
+        liveConfig.setRejectionListener(message -> telegramNotifier.sendErrorNotification(
+                "Tesla Bot Yapılandırma Hatası",
+                "⚠️ Yapılandırma değişikliği uygulanmadı, önceki değerlerle devam ediliyor: " + message));
+    }
+
+    // Kalan hedeflerin durumu (envanter, devre kesici, aralık) korunur; yeni hedefler hemen kontrol edilir ve
+    // ilk turda bot yeni başlatılmış gibi bildirim gönderir. Çıkarılan hedeflerin sürmekte olan turu tamamlanır.
+    private synchronized void setTargets(List<WatchTarget> targets) {
+        Map<WatchTarget, TargetState> current = targetStates;
+        Map<WatchTarget, TargetState> updated = new LinkedHashMap<>();
+        List<TargetState> added = new ArrayList<>();
+        for (WatchTarget target : targets) {
+            TargetState state = current.get(target);
+            if (state == null) {
+                state = new TargetState(target, breakerSettings);
+                added.add(state);
+            }
+            updated.put(target, state);
         }
+        List<WatchTarget> removed = new ArrayList<>(current.keySet());
+        removed.removeAll(updated.keySet());
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        targetStates = Collections.unmodifiableMap(updated);
+        applyUpstreamOptions();
+        if (cluster != null) {
+            List<String> shards = new ArrayList<>();
+            for (WatchTarget target : updated.keySet()) {
+                shards.add(target.key());
+            }
+            cluster.setShards(shards);
+        }
+        for (WatchTarget target : removed) {
+            pollScheduler.remove(target.key());
+            errorDigest.recordRecovered(target.toString());
+        }
+        for (TargetState state : added) {
+            pollScheduler.add(state.getTarget().key(), () -> poll(state), 0);
+        }
+        logger.info("Hedefler güncellendi: eklenen {}, çıkarılan {}, takip edilen {}", added.size(), removed,
+                updated.keySet());
     }
 
-    private void saveSentVins() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(SENT_VINS_FILE))) {
-            for (String vin : sentVins) {
-                writer.println(vin);
+    // Son envanter ve proxy sağlığı hemen uygulanır; ilk tur önceki envantere göre fark hesaplar ve
+    // ilk çalıştırma bildirimlerini tekrar göndermez. Okunamayan ya da çok eski dosyada soğuk başlanır.
+    private void restoreState() {
+        if (stateStore == null) {
+            return;
+        }
+        StateStore.State state;
+        try {
+            state = stateStore.load();
+        } catch (IOException e) {
+            logger.warn("Durum dosyası okunamadı, önceki durum olmadan başlanıyor ({}): {}", stateStore.getFile(),
+                    e.getMessage());
+            return;
+        }
+        if (state == null) {
+            return;
+        }
+        long maxAge = TimeUnit.HOURS.toMillis(Env.getLong("STATE_MAX_AGE_HOURS", 24));
+        if (maxAge > 0 && System.currentTimeMillis() - state.getSavedAtMillis() > maxAge) {
+            logger.info("Durum dosyası çok eski, önceki durum olmadan başlanıyor");
+            return;
+        }
+        int restored = 0;
+        for (TargetState targetState : targetStates.values()) {
+            StateStore.TargetEntry entry = state.getTargets().get(targetState.getTarget().key());
+            if (entry != null && targetState.restore(entry.getInventory(), entry.getTotalMatches())) {
+                restored++;
             }
-            logger.info("{} adet VIN dosyaya kaydedildi", sentVins.size());
-        } catch (Exception e) {
-            logger.error("VIN'ler dosyaya kaydedilemedi: {}", e.getMessage());
         }
+        int proxies = proxyManager.restoreHealth(state.getProxies());
+        logger.info("Önceki durumdan devam ediliyor: {}/{} hedef, {} proxy", restored, targetStates.size(), proxies);
+        this.restoredState = state;
     }
 
-    private Proxy getNextProxy() {
-        if (proxyList.isEmpty())
-            return Proxy.NO_PROXY;
+    private void saveState() {
+        if (stateStore == null) {
+            return;
+        }
+        Map<String, StateStore.TargetEntry> entries = new LinkedHashMap<>();
+        for (TargetState state : targetStates.values()) {
+            TargetSnapshot snapshot = state.get();
+            if (snapshot.getInventory() == null) {
+                continue;
+            }
+            String key = state.getTarget().key();
+            entries.put(key, new StateStore.TargetEntry(snapshot.getInventory(), snapshot.getTotalMatches(),
+                    pollScheduler.currentIntervalMillis(key), Math.max(0, pollScheduler.consecutiveErrors(key))));
+        }
+        try {
+            stateStore.save(entries, proxyManager.health());
+        } catch (IOException e) {
+            logger.error("Durum dosyası yazılamadı ({}): {}", stateStore.getFile(), e.getMessage());
+        }
+    }
 
-        int index = currentProxyIndex.getAndIncrement() % proxyList.size();
-        String proxyStr = proxyList.get(index);
-        String[] parts = proxyStr.split(":");
-        String host = parts[0];
-        int port = Integer.parseInt(parts[1]);
+    // Değeri başka bileşenlerde tutulan metrikler scrape anında okunur
+    private void registerMetrics() {
+        metrics.gauge("notification_queue_depth", "Gönderilmeyi bekleyen bildirim sayısı",
+                telegramNotifier::getQueueDepth);
+        metrics.gauge("tesla_response_cache_entries", "Sayfa önbelleğindeki yanıt sayısı",
+                inventoryFetcher.getResponseCache()::size);
+        HedgedRequestExecutor hedger = inventoryFetcher.getHedgedExecutor();
+        metrics.gauge("tesla_hedge_delay_seconds", "Yedek isteğin gönderileceği güncel gecikme (-1: kapalı)",
+                () -> hedger.currentHedgeDelayMillis() < 0 ? -1 : hedger.currentHedgeDelayMillis() / 1000.0);
+        metrics.gauge("tesla_request_timeout_seconds", "Gözlenen gecikmeden türetilen güncel istek zaman aşımı",
+                () -> hedger.currentTimeoutMillis() / 1000.0);
+        metrics.gauge("vin_store_size", "Kalıcı kayıttaki gönderilmiş VIN sayısı", sentVins::size);
+        if (cluster != null) {
+            metrics.gauge("tesla_cluster_nodes", "Kümedeki canlı düğüm sayısı", cluster::getLiveNodes);
+        }
+        metrics.collect("tesla_poll_interval_seconds", "Hedefin güncel kontrol aralığı", "gauge",
+                new String[]{"market", "model"}, sink -> {
+                    for (WatchTarget target : targetStates.keySet()) {
+                        sink.sample(pollScheduler.currentIntervalMillis(target.key()) / 1000.0,
+                                target.getMarket(), target.getModel());
+                    }
+                });
+        metrics.collect("tesla_circuit_state", "Hedefin devre kesicisi (0: kapalı, 1: açık, 2: yarı açık)",
+                "gauge", new String[]{"market", "model"}, sink -> {
+                    for (TargetState state : targetStates.values()) {
+                        sink.sample(state.getBreaker().getState().ordinal(), state.getTarget().getMarket(),
+                                state.getTarget().getModel());
+                    }
+                });
+        metrics.collect("tesla_inventory_matches", "Son başarılı turdaki toplam eşleşme", "gauge",
+                new String[]{"market", "model"}, sink -> {
+                    for (TargetState state : targetStates.values()) {
+                        sink.sample(state.get().getTotalMatches(), state.getTarget().getMarket(),
+                                state.getTarget().getModel());
+                    }
+                });
+        HandshakeMetrics handshakes = httpClients.getHandshakeMetrics();
+        metrics.collect("http_client_events_total", "HTTP istek, TCP bağlantı ve TLS el sıkışma sayıları",
+                "counter", new String[]{"event"}, sink -> {
+                    sink.sample(handshakes.getCalls(), "call");
+                    sink.sample(handshakes.getConnects(), "connect");
+                    sink.sample(handshakes.getTlsHandshakes(), "tls_handshake");
+                });
+        metrics.collect("proxy_requests_total", "Proxy başına başarılı ve başarısız istekler", "counter",
+                new String[]{"proxy", "result"}, sink -> {
+                    for (ProxyEndpoint.Stats stat : proxyManager.stats()) {
+                        sink.sample(stat.successes, stat.key, "success");
+                        sink.sample(stat.failures, stat.key, "failure");
+                        sink.sample(stat.throttles, stat.key, "throttled");
+                    }
+                });
+        metrics.collect("proxy_latency_ewma_seconds", "Proxy başına üstel ortalama yanıt süresi", "gauge",
+                new String[]{"proxy"}, sink -> {
+                    for (ProxyEndpoint.Stats stat : proxyManager.stats()) {
+                        sink.sample(stat.ewmaLatencyMillis / 1000.0, stat.key);
+                    }
+                });
+        metrics.collect("proxy_quarantined", "Proxy karantinadaysa 1", "gauge", new String[]{"proxy"}, sink -> {
+            for (ProxyEndpoint.Stats stat : proxyManager.stats()) {
+                sink.sample(stat.state == CircuitBreaker.State.OPEN ? 1 : 0, stat.key);
+            }
+        });
+    }
 
-        logger.debug("Proxy kullanılıyor: {} (index: {})", proxyStr, index);
-        return new Proxy(Proxy.Type.HTTP, new InetSocketAddress(host, port));
+    private static RuleIndex loadWatchRules(ObjectMapper objectMapper) {
+        String file = Env.get("WATCH_RULES_FILE", null);
+        if (file == null) {
+            return RuleIndex.empty();
+        }
+        try {
+            RuleIndex index = new RuleIndex(WatchRule.load(Paths.get(file), objectMapper));
+            logger.info("{} abone kuralı yüklendi ({})", index.size(), file);
+            return index;
+        } catch (IOException e) {
+            throw new IllegalStateException("Abone kuralları okunamadı (" + file + "): " + e.getMessage(), e);
+        }
     }
 
-    private OkHttpClient buildHttpClientWithProxy(Proxy proxy) {
-        return new OkHttpClient.Builder()
-                .connectTimeout(60, TimeUnit.SECONDS)
-                .readTimeout(60, TimeUnit.SECONDS)
-                .writeTimeout(60, TimeUnit.SECONDS)
-                .retryOnConnectionFailure(true)
-                .protocols(java.util.Arrays.asList(Protocol.HTTP_1_1))
-                .proxy(proxy)
-                .cookieJar(new okhttp3.CookieJar() {
-                    @Override
-                    public void saveFromResponse(okhttp3.HttpUrl url, List<okhttp3.Cookie> cookies) {
-                    }
+    private static ResponseCapture openCapture() {
+        try {
+            return ResponseCapture.fromEnv();
+        } catch (IOException e) {
+            throw new IllegalStateException("Yakalama dosyası açılamadı: " + e.getMessage(), e);
+        }
+    }
 
-                    @Override
-                    public List<okhttp3.Cookie> loadForRequest(okhttp3.HttpUrl url) {
-                        return new ArrayList<>();
-                    }
-                })
-                .build();
+    private static ClusterCoordinator openCluster(List<WatchTarget> targets) {
+        try {
+            return ClusterCoordinator.fromEnv(targets);
+        } catch (IOException e) {
+            throw new IllegalStateException("Küme dizini açılamadı: " + e.getMessage(), e);
+        }
     }
 
-    private boolean isWithinActiveHours() {
-        if (botActiveStart == null || botActiveEnd == null) {
-            return true; // Saat aralığı tanımlı değilse her zaman çalış
+    private static HistoryStore openHistoryStore() {
+        try {
+            return new HistoryStore();
+        } catch (IOException e) {
+            throw new IllegalStateException("İlan geçmişi dizini açılamadı: " + e.getMessage(), e);
         }
+    }
+
+    private static VinStore openVinStore() {
         try {
-            LocalTime now = LocalTime.now(istanbulZone);
-            LocalTime start = LocalTime.parse(botActiveStart);
-            LocalTime end = LocalTime.parse(botActiveEnd);
-            if (start.isBefore(end)) {
-                return !now.isBefore(start) && !now.isAfter(end);
-            } else {
-                // Gece yarısı aralığı (örn: 22:00 - 06:00)
-                return !now.isBefore(start) || !now.isAfter(end);
-            }
-        } catch (Exception e) {
-            logger.warn("Çalışma saati kontrolünde hata: {}", e.getMessage());
-            return true;
+            return new VinStore();
+        } catch (IOException e) {
+            throw new IllegalStateException("Gönderilmiş VIN kaydı açılamadı: " + e.getMessage(), e);
         }
     }
 
@@ -176,13 +362,39 @@ public class TeslaInventoryBot {
             telegramNotifier.sendNotification("Tesla Bot Başlatıldı",
                     "🚀 Tesla Envanter Bot başarıyla başlatıldı ve çalışıyor.");
 
-            // İlk kontrolü hemen yap
-            checkInventory();
+            proxyManager.startMaintenance(scheduler);
+            errorDigest.start(scheduler);
+            if (cluster != null) {
+                cluster.start();
+            }
 
-            // Her 10 saniye kontrol et
-            scheduler.scheduleAtFixedRate(this::checkInventory, 10, 10, TimeUnit.SECONDS);
+            startMetricsServer();
+
+            // İlk kontrol hemen yapılır; hedeflerin başlangıcı temel aralık boyunca yayılır
+            long stagger = pollScheduler.getBaseMillis() / targetStates.size();
+            int index = 0;
+            for (TargetState state : targetStates.values()) {
+                String key = state.getTarget().key();
+                StateStore.TargetEntry resumed = restoredState == null ? null : restoredState.getTargets().get(key);
+                if (resumed != null) {
+                    pollScheduler.add(key, () -> poll(state), index++ * stagger, resumed.getIntervalMillis(),
+                            resumed.getConsecutiveErrors());
+                } else {
+                    pollScheduler.add(key, () -> poll(state), index++ * stagger);
+                }
+            }
+            restoredState = null;
+            // Hedef listesi ancak ilk planlamadan sonra değişebilir
+            if (liveConfig != null) {
+                liveConfig.start();
+            }
 
-            logger.info("Bot başlatıldı. Her 10 saniye Tesla envanteri kontrol edilecek.");
+            long stateSeconds = Env.getLong("STATE_SNAPSHOT_SECONDS", 60);
+            if (stateStore != null && stateSeconds > 0) {
+                scheduler.scheduleWithFixedDelay(this::saveState, stateSeconds, stateSeconds, TimeUnit.SECONDS);
+            }
+
+            logger.info("Bot başlatıldı. Tesla envanteri uyarlanabilir aralıklarla kontrol edilecek.");
 
         } catch (Exception e) {
             logger.error("Bot başlatılırken hata oluştu: {}", e.getMessage());
@@ -196,25 +408,53 @@ public class TeslaInventoryBot {
         logger.info("Bot durduruluyor...");
 
         try {
-            // VIN'leri kaydet
-            saveSentVins();
-
             // Bot kapatma bildirimi gönder
             telegramNotifier.sendNotification("Tesla Bot Durduruldu",
                     "🛑 Tesla Envanter Bot durduruldu.");
 
+            if (liveConfig != null) {
+                liveConfig.close();
+            }
+            pollScheduler.stop();
             scheduler.shutdown();
+            pollWorkers.shutdown();
             try {
-                if (!scheduler.awaitTermination(60, TimeUnit.SECONDS)) {
+                if (!scheduler.awaitTermination(60, TimeUnit.SECONDS)
+                        || !pollWorkers.awaitTermination(60, TimeUnit.SECONDS)) {
                     scheduler.shutdownNow();
+                    pollWorkers.shutdownNow();
                     logger.warn("Bot zorla durduruldu.");
                 }
             } catch (InterruptedException e) {
                 scheduler.shutdownNow();
+                pollWorkers.shutdownNow();
                 Thread.currentThread().interrupt();
                 logger.warn("Bot durdurulurken interrupt edildi.");
             }
 
+            // Turlar bittikten sonra son durum yazılır ve bekleyen hatalar bildirilir
+            saveState();
+            errorDigest.flush();
+            if (cluster != null) {
+                cluster.close();
+            }
+
+            inventoryFetcher.shutdown();
+            if (capture != null) {
+                capture.close();
+            }
+            if (metricsServer != null) {
+                metricsServer.stop();
+            }
+            proxyManager.logStats();
+            httpClients.close();
+
+            // Journal'ı snapshot'a sıkıştır ve kapat
+            sentVins.close();
+            if (history != null) {
+                history.close();
+            }
+
             logger.info("Bot durduruldu.");
 
         } catch (Exception e) {
@@ -226,260 +466,266 @@ public class TeslaInventoryBot {
             } catch (Exception notificationError) {
                 logger.error("Durdurma hatası bildirimi gönderilemedi: {}", notificationError.getMessage());
             }
+        } finally {
+            // Kuyrukta bekleyen bildirimleri (kapatma mesajı dahil) gönder
+            telegramNotifier.shutdown(30, TimeUnit.SECONDS);
         }
     }
 
-    private String buildTeslaApiUrl() {
-        String market = System.getenv("TESLA_MARKET");
-        String language = System.getenv("TESLA_LANGUAGE");
-
-        // Varsayılan değerler
-        if (market == null || market.isEmpty()) {
-            market = "DE";
-        }
-        if (language == null || language.isEmpty()) {
-            language = "de";
-        }
-
-        // Super region belirleme
-        String superRegion = "europe";
-        if ("US".equals(market) || "CA".equals(market)) {
-            superRegion = "north america";
-        }
-
-        String query = String.format(
-                "{\"query\":{\"model\":\"my\",\"condition\":\"new\",\"options\":{},\"arrangeby\":\"Price\",\"order\":\"asc\",\"market\":\"%s\",\"language\":\"%s\",\"super_region\":\"%s\",\"lng\":\"\",\"lat\":\"\",\"zip\":\"\",\"range\":0},\"offset\":0,\"count\":24,\"outsideOffset\":0,\"outsideSearch\":false,\"isFalconDeliverySelectionEnabled\":true,\"version\":\"v2\"}",
-                market, language, superRegion);
-
-        return TESLA_API_BASE_URL + "?query="
-                + java.net.URLEncoder.encode(query, java.nio.charset.StandardCharsets.UTF_8);
+    public List<WatchTarget> getTargets() {
+        return new ArrayList<>(targetStates.keySet());
     }
 
-    private String buildTeslaCarLink(String vin) {
-        String market = System.getenv("TESLA_MARKET");
-        String language = System.getenv("TESLA_LANGUAGE");
-
-        // Varsayılan değerler
-        if (market == null || market.isEmpty()) {
-            market = "DE";
-        }
-        if (language == null || language.isEmpty()) {
-            language = "de";
+    // Zamanlayıcıyı beklemeden hedef için tek bir kontrol turu çalıştırır (benchmark ve elle tetikleme)
+    public PollOutcome pollNow(WatchTarget target) {
+        TargetState state = targetStates.get(target);
+        if (state == null) {
+            throw new IllegalArgumentException("Takip edilmeyen hedef: " + target);
         }
-
-        // Market ve language'i birleştir (örn: DE + de = de_DE)
-        String locale = language.toLowerCase() + "_" + market.toUpperCase();
-
-        return String.format(
-                "https://www.tesla.com/%s/my/order/%s?titleStatus=new&redirect=no#overview",
-                locale, vin);
+        return poll(state);
     }
 
-    private String buildCarDetailsMessage(JsonNode car, int carIndex, int totalCars) {
-        StringBuilder message = new StringBuilder();
-
-        // Temel bilgiler
-        String vin = car.path("VIN").asText("");
-        String model = car.path("Model").asText("");
-        String trimName = car.path("TrimName").asText("");
-        String year = car.path("Year").asText("");
-        String price = car.path("Price").asText("");
-        String currency = car.path("CurrencyCode").asText("");
-
-        // Başlık
-        message.append(String.format("%s %s %s\n", year, model, trimName));
-
-        // Fiyat bilgisi
-        if (price != null && !price.isEmpty()) {
-            message.append(String.format("Fiyat: %s %s\n", price, currency));
-        }
-
-        // VIN
-        if (vin != null && !vin.isEmpty()) {
-            message.append(String.format("VIN: %s\n", vin));
-        }
-
-        // Renk
-        JsonNode paint = car.path("PAINT");
-        if (paint.isArray() && paint.size() > 0) {
-            String paintColor = paint.get(0).asText();
-            if (paintColor != null && !paintColor.isEmpty()) {
-                message.append(String.format("Renk: %s\n", paintColor));
+    // Tüm hedefler için birer tur başlatır ve hepsi bitene kadar bekler
+    public void pollAllNow() throws IOException {
+        try (CycleScope scope = new CycleScope(pollWorkers)) {
+            for (TargetState state : targetStates.values()) {
+                scope.fork(() -> poll(state));
             }
+            scope.join();
         }
+    }
 
-        // İç mekan
-        JsonNode interior = car.path("INTERIOR");
-        if (interior.isArray() && interior.size() > 0) {
-            String interiorColor = interior.get(0).asText();
-            if (interiorColor != null && !interiorColor.isEmpty()) {
-                message.append(String.format("İç Mekan: %s\n", interiorColor));
+    // Metrik sunucusu açılamazsa bot metriksiz çalışmaya devam eder
+    private void startMetricsServer() {
+        try {
+            metricsServer = MetricsServer.fromEnv(metrics);
+            if (metricsServer != null) {
+                metricsServer.start();
             }
+        } catch (IOException e) {
+            logger.error("Metrik sunucusu başlatılamadı: {}", e.getMessage());
         }
+    }
 
-        // Tesla link
-        if (vin != null && !vin.isEmpty()) {
-            String carLink = buildTeslaCarLink(vin);
-            message.append(String.format("\nTesla'da Görüntüle: %s", carLink));
+    // Kontrol turunu devre kesici, süre ve sonuç metrikleriyle sarar. Devre açıksa istek yapılmaz; açık
+    // kalma süresi dolduysa bu tur tek deneme isteğidir.
+    private PollOutcome poll(TargetState state) {
+        WatchTarget target = state.getTarget();
+        CircuitBreaker breaker = state.getBreaker();
+        PollOutcome outcome;
+        if (!breaker.tryAcquire(System.currentTimeMillis())) {
+            logger.debug("[{}] Devre açık, kontrol atlandı", target);
+            outcome = PollOutcome.PAUSED;
+        } else {
+            if (breaker.getState() == CircuitBreaker.State.HALF_OPEN) {
+                logger.info("[{}] Devre yarı açık, deneme kontrolü yapılıyor", target);
+            }
+            long start = System.nanoTime();
+            outcome = checkInventory(state);
+            POLL_DURATION.labels(target.getMarket(), target.getModel()).observeNanos(System.nanoTime() - start);
+            if (outcome != PollOutcome.ERROR) {
+                breaker.recordSuccess(System.currentTimeMillis());
+            }
         }
-
-        logger.info("Araç detayları oluşturuldu: VIN={}, Model={}, Fiyat={}", vin, model, price);
-
-        return message.toString();
+        POLLS.labels(target.getMarket(), target.getModel(), outcome.name().toLowerCase()).inc();
+        return outcome;
     }
 
-    private void checkInventory() {
-        if (!isWithinActiveHours()) {
-            logger.info("Bot şu an çalışma saatleri dışında. Kontrol atlandı. (Saat aralığı: {} - {})", botActiveStart,
-                    botActiveEnd);
-            return;
-        }
+    private PollOutcome checkInventory(TargetState state) {
+        WatchTarget target = state.getTarget();
         try {
-            logger.info("Tesla envanter kontrol ediliyor...");
-
-            String apiUrl = buildTeslaApiUrl();
-            Proxy proxy = getNextProxy();
-            OkHttpClient httpClient = buildHttpClientWithProxy(proxy);
-            Request request = new Request.Builder()
-                    .url(apiUrl)
-                    .addHeader("User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36")
-                    .addHeader("Accept", "application/json")
-                    .addHeader("Referer", "https://www.tesla.com/tr_tr/inventory/new/my")
-                    .addHeader("priority", "u=1, i")
-                    .addHeader("sec-ch-ua",
-                            "\"Not)A;Brand\";v=\"8\", \"Chromium\";v=\"138\", \"Google Chrome\";v=\"138\"")
-                    .addHeader("sec-ch-ua-mobile", "?0")
-                    .addHeader("sec-ch-ua-platform", "\"macOS\"")
-                    .addHeader("sec-fetch-dest", "empty")
-                    .addHeader("sec-fetch-mode", "cors")
-                    .addHeader("sec-fetch-site", "same-origin")
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    handleError("HTTP Hatası: " + response.code() + " " + response.message());
-                    return;
+            logger.info("[{}] Tesla envanter kontrol ediliyor...", target);
+
+            long cycle = state.nextCycle();
+            long cycleStart = System.nanoTime();
+            InventoryResult inventory = inventoryFetcher.fetchAll(target);
+            long detectedAt = System.currentTimeMillis();
+            int totalMatches = inventory.getTotalMatches();
+            List<InventoryCar> results = inventory.getCars();
+
+            logger.info("[{}] Toplam eşleşme: {}, Exact: {}, Approximate: {} ({} sayfa, {} ms, {}, {})",
+                    target, totalMatches, results.size(), inventory.getApproximateCount(),
+                    inventory.getPageCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - cycleStart),
+                    httpClients.getHandshakeMetrics(), inventoryFetcher.getResponseCache());
+
+            // Yeni durum compareAndSet ile yayınlanır; başka bir tur araya girdiyse onun sonucuna göre
+            // yeniden denenir, böylece her fark yayınlanmış bir önceki duruma göre bir kez hesaplanır
+            TargetSnapshot previousState;
+            InventorySnapshot snapshot = null;
+            while (true) {
+                previousState = state.get();
+                if (previousState.getCycle() > cycle) {
+                    logger.debug("[{}] Daha sonra başlayan bir tur zaten işlendi, bu turun sonucu atlandı", target);
+                    return PollOutcome.UNCHANGED;
                 }
-
-                String responseBody = response.body().string();
-                JsonNode jsonNode = objectMapper.readTree(responseBody);
-
-                int totalMatches = jsonNode.path("total_matches_found").asInt();
-                JsonNode results = jsonNode.path("results");
-
-                // results bir array ise doğrudan kullan, değilse exact/approximate alt
-                // yollarını dene
-                int resultsCount = 0;
-                if (results.isArray()) {
-                    resultsCount = results.size();
-                    logger.info("Toplam eşleşme: {}, Results (array): {}", totalMatches, resultsCount);
-                } else {
-                    JsonNode exactResults = results.path("exact");
-                    JsonNode approximateResults = results.path("approximate");
-                    resultsCount = exactResults.size() + approximateResults.size();
-                    logger.info("Toplam eşleşme: {}, Exact: {}, Approximate: {}",
-                            totalMatches, exactResults.size(), approximateResults.size());
+                // Yanıtlar önceki turla birebir aynıysa snapshot ve fark hesabı atlanır
+                if (inventory.isUnchanged() && previousState.getInventory() != null) {
+                    recordHistory(target, previousState.getInventory(), Collections.emptyList(), detectedAt);
+                    if (!previousState.isErrorState()) {
+                        logger.debug("[{}] Yanıt değişmedi, karşılaştırma atlandı", target);
+                        return PollOutcome.UNCHANGED;
+                    }
+                    if (state.compareAndSet(previousState, previousState.withoutError())) {
+                        logger.info("[{}] API hatası düzeldi. Normal kontroller devam ediyor.", target);
+                        errorDigest.recordRecovered(target.toString());
+                        return PollOutcome.UNCHANGED;
+                    }
+                    continue;
                 }
-
-                // Hata durumunu temizle
-                if (isErrorState) {
-                    isErrorState = false;
-                    lastErrorTime = null;
-                    logger.info("API hatası düzeldi. Normal kontroller devam ediyor.");
+                if (snapshot == null) {
+                    snapshot = InventorySnapshot.of(results);
                 }
-
-                // Yeni araç geldi mi kontrol et
-                if (totalMatches != lastTotalMatches && lastTotalMatches > 0) {
-                    int newCars = totalMatches - lastTotalMatches;
-                    StringBuilder message = new StringBuilder();
-                    message.append(String.format("🎉 Tesla envanterinde %d yeni araç bulundu!\n", newCars));
-                    message.append(String.format("Toplam: %d araç\n\n", totalMatches));
-
-                    // Yeni araçların detaylarını tek tek gönder
-                    if (results.isArray() && results.size() > 0) {
-                        logger.info("{} yeni araç bulundu, detaylı mesajlar gönderiliyor...", results.size());
-                        for (int i = 0; i < results.size(); i++) {
-                            JsonNode car = results.get(i);
-                            String vin = car.path("VIN").asText("");
-                            if (vin != null && !vin.isEmpty() && !sentVins.contains(vin)) {
-                                String carDetails = buildCarDetailsMessage(car, i + 1, results.size());
-                                logger.info("Araç {} için mesaj gönderiliyor...", i + 1);
-                                telegramNotifier.sendNewCarNotification("🚗 Yeni Tesla Araç", carDetails);
-                                sentVins.add(vin);
-                                saveSentVins(); // VIN'i kaydet
-                                logger.info("VIN {} gönderildi ve kaydedildi", vin);
-                            } else {
-                                logger.debug("Araç {} VIN ({}) zaten gönderildi veya VIN yok.", i + 1, vin);
-                            }
-                        }
-                    } else {
-                        logger.warn("Results array boş veya null: {}", results);
-                    }
-
-                    telegramNotifier.sendInventoryUpdate("Tesla Envanter Güncellemesi", message.toString());
-                    logger.info("Yeni araç bildirimi gönderildi");
+                if (state.compareAndSet(previousState, previousState.withInventory(cycle, snapshot, totalMatches))) {
+                    break;
                 }
-
-                // İlk çalıştırma veya araç sayısı değişti
-                if (lastTotalMatches == 0 && totalMatches > 0) {
+            }
+            if (previousState.isErrorState()) {
+                logger.info("[{}] API hatası düzeldi. Normal kontroller devam ediyor.", target);
+                errorDigest.recordRecovered(target.toString());
+            }
+            InventorySnapshot previous = previousState.getInventory();
+            List<InventoryEvent> events = previous == null ? Collections.emptyList() : snapshot.diff(previous);
+            recordHistory(target, snapshot, events, detectedAt);
+
+            // İlk çalıştırma: mevcut envanteri özetle ve henüz gönderilmemiş araçları gönder
+            if (previous == null) {
+                // Küme modunda özet yalnızca hedefin ilk dilimini tutan düğümden gider
+                if (totalMatches > 0 && (cluster == null || cluster.isPrimary(target.key()))) {
                     StringBuilder message = new StringBuilder();
-                    message.append(String.format("📊 Tesla envanterinde %d araç bulundu\n\n", totalMatches));
+                    message.append(String.format("📊 Tesla envanterinde (%s) %d araç bulundu\n\n", target, totalMatches));
                     telegramNotifier.sendInventoryUpdate("Tesla Envanter Durumu", message.toString());
-
-                    // Araçların detaylarını tek tek gönder
-                    if (results.isArray() && results.size() > 0) {
-                        for (int i = 0; i < results.size(); i++) {
-                            JsonNode car = results.get(i);
-                            String vin = car.path("VIN").asText("");
-                            if (vin != null && !vin.isEmpty() && !sentVins.contains(vin)) {
-                                String carDetails = buildCarDetailsMessage(car, i + 1, results.size());
-                                telegramNotifier.sendNewCarNotification("🚗 Tesla Araç", carDetails);
-                                sentVins.add(vin);
-                                saveSentVins(); // VIN'i kaydet
-                                logger.info("İlk başlatmada VIN {} gönderildi ve kaydedildi", vin);
-                            } else {
-                                logger.debug("Araç {} VIN ({}) zaten gönderildi veya VIN yok.", i + 1, vin);
-                            }
-                        }
+                }
+                int sent = 0;
+                for (int i = 0; i < results.size(); i++) {
+                    if (notifyNewCar(target, results.get(i), i + 1, MessageRenderer.Headline.CAR, detectedAt)) {
+                        sent++;
                     }
-                    logger.info("İlk başlatmada araç detayları gönderildi. Toplam: {}", results.size());
                 }
+                logger.info("İlk başlatmada araç detayları gönderildi. Toplam: {}, gönderilen: {}", results.size(), sent);
+                return PollOutcome.CHANGED;
+            }
 
-                lastTotalMatches = totalMatches;
+            // Sonraki turlar: toplam sayıya değil VIN farkına göre bildirim
+            if (events.isEmpty()) {
+                return PollOutcome.UNCHANGED;
+            }
+            logger.info("[{}] {} envanter olayı: {}", target, events.size(), events);
+
+            int newCars = 0;
+            for (InventoryEvent event : events) {
+                INVENTORY_EVENTS.labels(target.getMarket(), event.getType().name().toLowerCase()).inc();
+                switch (event.getType()) {
+                    case ADDED:
+                        if (notifyNewCar(target, event.getCar(), newCars + 1, MessageRenderer.Headline.NEW_CAR,
+                                detectedAt)) {
+                            newCars++;
+                        }
+                        break;
+                    case PRICE_CHANGED:
+                        if (event.isPriceDrop() && claim("price-" + event.getVin() + "-" + event.getNewPrice())) {
+                            InventoryCar car = event.getCar();
+                            long oldPrice = event.getOldPrice();
+                            telegramNotifier.sendNewCarNotification("💸 Tesla Fiyat Düşüşü",
+                                    language -> messageRenderer.renderPriceDrop(target, language, car, oldPrice),
+                                    messageRenderer.getFormat().parseMode(), detectedAt,
+                                    watchRules.chatIdsFor(target, car), car);
+                        }
+                        break;
+                    default:
+                        // Kaldırılan ve durum değiştiren ilanlar yalnızca loglanır
+                        logger.debug("[{}] {}", target, event);
+                        break;
+                }
+            }
 
-            } catch (IOException e) {
-                handleError("API isteği hatası: " + e.getMessage());
+            if (newCars > 0) {
+                StringBuilder message = new StringBuilder();
+                message.append(String.format("🎉 Tesla envanterinde (%s) %d yeni araç bulundu!\n", target, newCars));
+                message.append(String.format("Toplam: %d araç\n\n", totalMatches));
+                telegramNotifier.sendInventoryUpdate("Tesla Envanter Güncellemesi", message.toString());
+                logger.info("Yeni araç bildirimi gönderildi");
             }
+            return PollOutcome.CHANGED;
 
+        } catch (TeslaApiException e) {
+            handleError(state, e.getMessage(), ProxyManager.isProxyFailure(e.getStatusCode()));
+        } catch (IOException e) {
+            handleError(state, "API isteği hatası: " + e.getMessage(), false);
         } catch (Exception e) {
-            handleError("Beklenmeyen hata: " + e.getMessage());
+            handleError(state, "Beklenmeyen hata: " + e.getMessage(), false);
         }
+        return PollOutcome.ERROR;
     }
 
-    private void handleError(String errorMessage) {
-        logger.error("Hata: {}", errorMessage);
+    private void recordHistory(WatchTarget target, InventorySnapshot inventory, List<InventoryEvent> events,
+            long timestamp) {
+        if (history != null) {
+            history.record(target, inventory, events, timestamp);
+        }
+    }
 
-        if (!isErrorState) {
-            // İlk hata
-            isErrorState = true;
-            lastErrorTime = LocalDateTime.now();
-            telegramNotifier.sendErrorNotification("Tesla Bot Hatası",
-                    "❌ Tesla API'sine erişim hatası: " + errorMessage);
-            logger.info("İlk hata bildirimi gönderildi");
-        } else {
-            // Sürekli hata durumu - 30 dakika kontrol et
-            if (lastErrorTime != null &&
-                    LocalDateTime.now().minusMinutes(ERROR_NOTIFICATION_INTERVAL_MINUTES).isAfter(lastErrorTime)) {
-
-                telegramNotifier.sendErrorNotification("Tesla Bot Sürekli Hata",
-                        "⚠️ Tesla API hatası 30 dakikadır devam ediyor: " + errorMessage);
-                lastErrorTime = LocalDateTime.now();
-                logger.info("Sürekli hata bildirimi gönderildi");
-            }
+    // Küme modunda bildirimi ilk talep eden düğüm gönderir; tek düğümde her zaman true
+    private boolean claim(String key) {
+        return cluster == null || cluster.claim(key);
+    }
+
+    // VIN daha önce gönderilmediyse araç detaylarını gönderir ve kaydeder
+    private boolean notifyNewCar(WatchTarget target, InventoryCar car, int carIndex,
+            MessageRenderer.Headline headline, long detectedAt) {
+        String vin = car.getVin();
+        if (vin.isEmpty() || !sentVins.markSent(vin) || !claim(vin)) {
+            logger.debug("Araç {} VIN ({}) zaten gönderildi veya VIN yok.", carIndex, vin);
+            return false;
         }
+        telegramNotifier.sendNewCarNotification(headline == MessageRenderer.Headline.NEW_CAR
+                        ? "🚗 Yeni Tesla Araç" : "🚗 Tesla Araç",
+                language -> messageRenderer.renderCar(target, language, headline, car),
+                messageRenderer.getFormat().parseMode(), detectedAt, watchRules.chatIdsFor(target, car), car);
+        logger.debug("VIN {} gönderildi ve kaydedildi: {}", vin, car);
+        return true;
+    }
+
+    // Hata durumu işaretlenir ve özete eklenir; severe (403/429/5xx) art arda gelirse ya da kayan penceredeki
+    // hata oranı eşiği aşarsa devre açılır ve hedefin turları açık kalma süresince duraklatılır
+    private void handleError(TargetState state, String errorMessage, boolean severe) {
+        WatchTarget target = state.getTarget();
+        logger.error("[{}] Hata: {}", target, errorMessage);
+
+        long now = System.currentTimeMillis();
+        TargetSnapshot current = state.get();
+        while (!current.isErrorState() && !state.compareAndSet(current, current.withError(now))) {
+            current = state.get();
+        }
+        errorDigest.recordError(target.toString(), errorMessage, now);
+
+        long openMillis = state.getBreaker().recordFailure(severe, now);
+        if (openMillis > 0) {
+            logger.warn("[{}] Devre kesici açıldı, kontroller {} sn duraklatıldı", target,
+                    TimeUnit.MILLISECONDS.toSeconds(openMillis));
+            pollScheduler.pause(target.key(), now + openMillis);
+            errorDigest.recordPaused(target.toString(), now + openMillis);
+        }
+    }
+
+    // AppCDS arşivi için eğitim çalıştırması: bot kurulur, bir tur çalıştırılır ve durum dosyası yazılır;
+    // böylece açılışta yüklenen sınıflar listelenir. Bildirim gönderilmez, zamanlayıcı başlatılmaz.
+    private static void trainClassDataSharing() {
+        TeslaInventoryBot bot = new TeslaInventoryBot();
+        try {
+            bot.pollAllNow();
+        } catch (IOException e) {
+            logger.info("CDS eğitim turu hatayla bitti: {}", e.getMessage());
+        }
+        bot.saveState();
+        logger.info("CDS eğitim çalıştırması tamamlandı");
+        System.exit(0);
     }
 
     public static void main(String[] args) {
+        if (args.length > 0 && "--cds-train".equals(args[0])) {
+            trainClassDataSharing();
+            return;
+        }
         TeslaInventoryBot bot = new TeslaInventoryBot();
 
         // Graceful shutdown için shutdown hook ekle
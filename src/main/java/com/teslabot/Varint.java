@@ -0,0 +1,89 @@
+package com.teslabot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// İkili dosyalar (durum dosyası, geçmiş blokları) için ortak kodlama: 7 bitlik varint, işaretli değerler için
+// zigzag, big-endian sabit genişlikli sayılar ve uzunluk önekli UTF-8 metin
+final class Varint {
+
+    private Varint() {
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    // Küçük mutlak değerli negatif farklar da tek baytta kalır
+    static void writeZigZag(ByteArrayOutputStream out, long value) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    static void writeLong(ByteArrayOutputStream out, long value) {
+        writeInt(out, (int) (value >>> 32));
+        writeInt(out, (int) value);
+    }
+
+    static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length);
+        out.write(utf8, 0, utf8.length);
+    }
+
+    static long readVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("geçersiz varint");
+    }
+
+    static long readZigZag(ByteBuffer buffer) throws IOException {
+        long value = readVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int readVarInt(ByteBuffer buffer) throws IOException {
+        long value = readVarLong(buffer);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("geçersiz değer: " + value);
+        }
+        return (int) value;
+    }
+
+    static String readString(ByteBuffer buffer, int maxBytes) throws IOException {
+        int size = readVarInt(buffer);
+        if (size > maxBytes) {
+            throw new IOException("çok uzun metin: " + size);
+        }
+        byte[] utf8 = new byte[size];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    // Sayaçlar kalan bayt sayısını aşamaz; bozuk dosya büyük bellek ayırtmaz
+    static int readCount(ByteBuffer buffer) throws IOException {
+        int count = readVarInt(buffer);
+        if (count > buffer.remaining()) {
+            throw new IOException("geçersiz kayıt sayısı: " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,293 @@
+package com.teslabot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Gönderilmiş VIN'lerin kalıcı kaydı.
+// Yeni VIN'ler sadece journal dosyasına eklenir (append-only), fsync toplu yapılır.
+// Journal belirli aralıklarla snapshot dosyasına sıkıştırılır (geçici dosya + atomik rename),
+// böylece yazma sırasında çökme geçmişi silmez. Açılışta snapshot bellek eşlemeli okunur.
+public class VinStore {
+    private static final Logger logger = LoggerFactory.getLogger(VinStore.class);
+
+    static final String SNAPSHOT_FILE = "sent_vins.txt";
+    static final String JOURNAL_FILE = "sent_vins.journal";
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final long ttlMillis; // 0: süresiz
+    private final int fsyncBatch;
+    private final int compactThreshold;
+
+    private final Map<String, Long> vins = new ConcurrentHashMap<>(); // VIN -> ilk gönderim zamanı (epoch ms)
+    private final Object journalLock = new Object();
+    private final ScheduledExecutorService maintenance;
+    private final FileChannel journal;
+    private int unsyncedEntries = 0;
+    private int journalEntries = 0;
+
+    public VinStore() throws IOException {
+        this(Paths.get(Env.get("VIN_STORE_DIR", ".")),
+                TimeUnit.DAYS.toMillis(Env.getLong("VIN_TTL_DAYS", 0)),
+                Env.getInt("VIN_STORE_FSYNC_BATCH", 32),
+                Env.getLong("VIN_STORE_FSYNC_MS", 1000),
+                Env.getInt("VIN_STORE_COMPACT_THRESHOLD", 10_000),
+                Env.getLong("VIN_STORE_COMPACT_MINUTES", 60));
+    }
+
+    public VinStore(Path directory, long ttlMillis, int fsyncBatch, long fsyncIntervalMillis, int compactThreshold,
+            long compactIntervalMinutes) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        this.journalPath = directory.resolve(JOURNAL_FILE);
+        this.ttlMillis = Math.max(0, ttlMillis);
+        this.fsyncBatch = Math.max(1, fsyncBatch);
+        this.compactThreshold = Math.max(1, compactThreshold);
+
+        long start = System.nanoTime();
+        loadSnapshot();
+        journalEntries = replayJournal();
+        this.journal = openJournal();
+        logger.info("{} adet gönderilmiş VIN yüklendi ({} journal kaydı, {} ms)", vins.size(), journalEntries,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "vin-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::syncQuietly, fsyncIntervalMillis, fsyncIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        maintenance.scheduleWithFixedDelay(this::compactQuietly, compactIntervalMinutes, compactIntervalMinutes,
+                TimeUnit.MINUTES);
+    }
+
+    // VIN daha önce gönderilmediyse (veya TTL'i dolduysa) kaydeder ve true döner. Atomiktir.
+    public boolean markSent(String vin) {
+        long now = System.currentTimeMillis();
+        Long previous = vins.putIfAbsent(vin, now);
+        if (previous != null) {
+            if (!isExpired(previous, now) || !vins.replace(vin, previous, now)) {
+                return false;
+            }
+        }
+        append(vin, now);
+        return true;
+    }
+
+    public boolean contains(String vin) {
+        Long sentAt = vins.get(vin);
+        return sentAt != null && !isExpired(sentAt, System.currentTimeMillis());
+    }
+
+    public int size() {
+        return vins.size();
+    }
+
+    private boolean isExpired(long sentAt, long now) {
+        return ttlMillis > 0 && now - sentAt > ttlMillis;
+    }
+
+    private void append(String vin, long sentAt) {
+        byte[] line = (vin + "\t" + sentAt + "\n").getBytes(StandardCharsets.US_ASCII);
+        boolean compact;
+        synchronized (journalLock) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    journal.write(buffer);
+                }
+                journalEntries++;
+                if (++unsyncedEntries >= fsyncBatch) {
+                    journal.force(false);
+                    unsyncedEntries = 0;
+                }
+            } catch (IOException e) {
+                logger.error("VIN journal'a yazılamadı: {}", e.getMessage());
+            }
+            compact = journalEntries >= compactThreshold;
+        }
+        if (compact) {
+            maintenance.execute(this::compactQuietly);
+        }
+    }
+
+    private void syncQuietly() {
+        synchronized (journalLock) {
+            if (unsyncedEntries == 0) {
+                return;
+            }
+            try {
+                journal.force(false);
+                unsyncedEntries = 0;
+            } catch (IOException e) {
+                logger.error("VIN journal fsync hatası: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            logger.error("VIN kaydı sıkıştırılamadı: {}", e.getMessage());
+        }
+    }
+
+    // Güncel kümeyi yeni snapshot olarak yazar ve journal'ı sıfırlar.
+    // Rename ile truncate arasında çökülürse journal tekrar oynatılır; işlem idempotenttir.
+    public void compact() throws IOException {
+        synchronized (journalLock) {
+            if (journalEntries == 0 && ttlMillis == 0) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            vins.entrySet().removeIf(entry -> isExpired(entry.getValue(), now));
+
+            Path tmp = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.US_ASCII)) {
+                for (Map.Entry<String, Long> entry : vins.entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write('\t');
+                    writer.write(Long.toString(entry.getValue()));
+                    writer.write('\n');
+                }
+            }
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            journal.truncate(0);
+            journal.force(true);
+            journalEntries = 0;
+            unsyncedEntries = 0;
+            logger.info("{} adet VIN snapshot dosyasına sıkıştırıldı", vins.size());
+        }
+    }
+
+    public void close() {
+        maintenance.shutdownNow();
+        compactQuietly();
+        synchronized (journalLock) {
+            try {
+                journal.force(true);
+                journal.close();
+            } catch (IOException e) {
+                logger.error("VIN journal kapatılamadı: {}", e.getMessage());
+            }
+        }
+    }
+
+    private FileChannel openJournal() throws IOException {
+        return FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // Snapshot bellek eşlemeli okunur; eski format (sadece VIN) satırları da kabul edilir
+    private void loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            logger.info("Gönderilmiş VIN dosyası bulunamadı, yeni dosya oluşturulacak");
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            parseLines(buffer, true);
+        }
+    }
+
+    private int replayJournal() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return 0;
+        }
+        byte[] bytes;
+        try (InputStream in = Files.newInputStream(journalPath)) {
+            bytes = in.readAllBytes();
+        }
+        // Son satır yarım kaldıysa (yazma sırasında çökme) atlanır ve dosyadan kesilir; kesilmezse journal
+        // APPEND ile açıldığında sonraki VIN yarım satırın sonuna eklenir ve bir sonraki açılışta kaybolur
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end < bytes.length) {
+            logger.warn("VIN journal sonundaki yarım kayıt atıldı ({} bayt)", bytes.length - end);
+            try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+        }
+        return parseLines(ByteBuffer.wrap(bytes, 0, end), false);
+    }
+
+    private int parseLines(ByteBuffer buffer, boolean acceptUnterminated) {
+        long now = System.currentTimeMillis();
+        byte[] line = new byte[64];
+        int length = 0;
+        int count = 0;
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                if (addLine(line, length, now)) {
+                    count++;
+                }
+                length = 0;
+            } else if (b != '\r') {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, line.length * 2);
+                }
+                line[length++] = b;
+            }
+        }
+        if (length > 0 && acceptUnterminated && addLine(line, length, now)) {
+            count++;
+        }
+        return count;
+    }
+
+    private boolean addLine(byte[] line, int length, long now) {
+        String text = new String(line, 0, length, StandardCharsets.US_ASCII).trim();
+        if (text.isEmpty()) {
+            return false;
+        }
+        int tab = text.indexOf('\t');
+        String vin = tab < 0 ? text : text.substring(0, tab);
+        long sentAt = now;
+        if (tab >= 0) {
+            try {
+                sentAt = Long.parseLong(text.substring(tab + 1).trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Geçersiz VIN kaydı atlandı: {}", text);
+                return false;
+            }
+        }
+        if (isExpired(sentAt, now)) {
+            return false;
+        }
+        vins.merge(vin, sentAt, Math::max);
+        return true;
+    }
+}
@@ -0,0 +1,153 @@
+package com.teslabot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Bir abonenin bildirim kuralı: hangi sohbete, hangi hedefte, hangi trim / renk / iç mekan / yıl ve
+// fiyat aralığındaki araçların gönderileceği. Boş küme o özellikte kısıt yok demektir.
+public final class WatchRule {
+    private final String id;
+    private final String chatId;
+    private final String market; // null: tüm marketler
+    private final String model; // null: tüm modeller
+    private final Set<String> trims;
+    private final Set<String> paints;
+    private final Set<String> interiors;
+    private final Set<String> years;
+    private final long minPrice;
+    private final long maxPrice; // Long.MAX_VALUE: üst sınır yok
+
+    public WatchRule(String id, String chatId, String market, String model, Set<String> trims, Set<String> paints,
+            Set<String> interiors, Set<String> years, long minPrice, long maxPrice) {
+        this.id = id;
+        this.chatId = chatId;
+        this.market = market == null ? null : market.toUpperCase(Locale.ROOT);
+        this.model = model == null ? null : model.toLowerCase(Locale.ROOT);
+        this.trims = normalize(trims);
+        this.paints = normalize(paints);
+        this.interiors = normalize(interiors);
+        this.years = normalize(years);
+        this.minPrice = Math.max(0, minPrice);
+        this.maxPrice = maxPrice <= 0 ? Long.MAX_VALUE : maxPrice;
+    }
+
+    // WATCH_RULES_FILE: kural dizisi içeren JSON dosyası
+    //   [{"id": "lr-white", "chatId": "123", "market": "DE", "model": "my", "trims": ["LRAWD"],
+    //     "paints": ["WHITE"], "interiors": [], "years": [2024, 2025], "minPrice": 0, "maxPrice": 45000}]
+    public static List<WatchRule> load(Path file, ObjectMapper objectMapper) throws IOException {
+        JsonNode root = objectMapper.readTree(file.toFile());
+        if (!root.isArray()) {
+            throw new IllegalArgumentException("Kural dosyası bir JSON dizisi olmalı: " + file);
+        }
+        List<WatchRule> rules = new ArrayList<>(root.size());
+        for (JsonNode node : root) {
+            rules.add(parse(node, rules.size()));
+        }
+        return rules;
+    }
+
+    static WatchRule parse(JsonNode node, int index) {
+        String chatId = node.path("chatId").asText("");
+        if (chatId.isEmpty()) {
+            throw new IllegalArgumentException("Kural " + index + " için chatId gerekli");
+        }
+        return new WatchRule(node.path("id").asText("rule-" + index), chatId, textOrNull(node, "market"),
+                textOrNull(node, "model"), strings(node, "trims"), strings(node, "paints"),
+                strings(node, "interiors"), strings(node, "years"), node.path("minPrice").asLong(0),
+                node.path("maxPrice").asLong(0));
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        String value = node.path(field).asText("");
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Set<String> strings(JsonNode node, String field) {
+        Set<String> values = new LinkedHashSet<>();
+        for (JsonNode value : node.path(field)) {
+            values.add(value.asText());
+        }
+        return values;
+    }
+
+    private static Set<String> normalize(Set<String> values) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value != null && !value.trim().isEmpty()) {
+                normalized.add(normalizeValue(value));
+            }
+        }
+        return Collections.unmodifiableSet(normalized);
+    }
+
+    // Kural ve ilan değerleri aynı biçimde karşılaştırılır
+    static String normalizeValue(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getChatId() {
+        return chatId;
+    }
+
+    public String getMarket() {
+        return market;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public Set<String> getTrims() {
+        return trims;
+    }
+
+    public Set<String> getPaints() {
+        return paints;
+    }
+
+    public Set<String> getInteriors() {
+        return interiors;
+    }
+
+    public Set<String> getYears() {
+        return years;
+    }
+
+    public long getMinPrice() {
+        return minPrice;
+    }
+
+    public long getMaxPrice() {
+        return maxPrice;
+    }
+
+    public boolean appliesTo(WatchTarget target) {
+        return (market == null || market.equals(target.getMarket()))
+                && (model == null || model.equals(target.getModel()));
+    }
+
+    public boolean matchesPrice(long price) {
+        return price >= minPrice && price <= maxPrice;
+    }
+
+    @Override
+    public String toString() {
+        return id + " -> " + chatId;
+    }
+}
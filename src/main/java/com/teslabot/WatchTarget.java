@@ -0,0 +1,122 @@
+package com.teslabot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+// Takip edilen tek bir (market, dil, model, durum) kombinasyonu
+public final class WatchTarget {
+    private final String market;
+    private final String language;
+    private final String model;
+    private final String condition;
+
+    public WatchTarget(String market, String language, String model, String condition) {
+        this.market = market.toUpperCase(Locale.ROOT);
+        this.language = language.toLowerCase(Locale.ROOT);
+        this.model = model.toLowerCase(Locale.ROOT);
+        this.condition = condition.toLowerCase(Locale.ROOT);
+    }
+
+    // TESLA_TARGETS formatı: "TR:tr:my:new,DE:de:m3:new" (model ve durum opsiyonel, varsayılan my / new)
+    public static List<WatchTarget> fromEnv() {
+        String spec = Env.get("TESLA_TARGETS", null);
+        if (spec == null) {
+            return Collections.singletonList(new WatchTarget(
+                    Env.get("TESLA_MARKET", "DE"), Env.get("TESLA_LANGUAGE", "de"), "my", "new"));
+        }
+        return parse(spec);
+    }
+
+    // Aynı market/model/durum yalnızca dille ayrışıyorsa reddedilir: envanter aynıdır ve key() (zamanlayıcı,
+    // önbellek, durum dosyası, küme dilimi anahtarı) dili içermediği için biri diğerinin üzerine yazardı
+    public static List<WatchTarget> parse(String spec) {
+        List<WatchTarget> targets = new ArrayList<>();
+        Map<String, WatchTarget> byKey = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            String[] parts = entry.split(":");
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Geçersiz hedef tanımı: " + entry
+                        + " (beklenen: MARKET:dil[:model[:durum]])");
+            }
+            String model = parts.length > 2 && !parts[2].isEmpty() ? parts[2] : "my";
+            String condition = parts.length > 3 && !parts[3].isEmpty() ? parts[3] : "new";
+            WatchTarget target = new WatchTarget(parts[0].trim(), parts[1].trim(), model.trim(), condition.trim());
+            WatchTarget existing = byKey.putIfAbsent(target.key(), target);
+            if (existing == null) {
+                targets.add(target);
+            } else if (!existing.equals(target)) {
+                throw new IllegalArgumentException("Hedef iki kez tanımlanmış: " + entry + " ve "
+                        + existing.getMarket() + ":" + existing.getLanguage() + " (aynı market, model ve durum "
+                        + "farklı dille takip edilemez)");
+            }
+        }
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("TESLA_TARGETS boş olamaz");
+        }
+        return targets;
+    }
+
+    public String getMarket() {
+        return market;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public String getSuperRegion() {
+        if ("US".equals(market) || "CA".equals(market)) {
+            return "north america";
+        }
+        return "europe";
+    }
+
+    // Market ve language'i birleştir (örn: DE + de = de_DE)
+    public String getLocale() {
+        return language + "_" + market;
+    }
+
+    public String key() {
+        return market + "/" + model + "/" + condition;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WatchTarget)) {
+            return false;
+        }
+        WatchTarget other = (WatchTarget) o;
+        return market.equals(other.market) && language.equals(other.language)
+                && model.equals(other.model) && condition.equals(other.condition);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(market, language, model, condition);
+    }
+
+    @Override
+    public String toString() {
+        return market + " " + model + " (" + condition + ")";
+    }
+}
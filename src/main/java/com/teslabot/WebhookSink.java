@@ -0,0 +1,64 @@
+package com.teslabot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Mesajları JSON olarak bir webhook adresine POST eder
+public class WebhookSink implements MessageSink {
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private final OkHttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Request template;
+
+    public WebhookSink(String url) {
+        this.httpClient = new OkHttpClient.Builder()
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(10, TimeUnit.SECONDS)
+                .build();
+        this.template = new Request.Builder().url(HttpUrl.get(url)).build();
+    }
+
+    @Override
+    public String name() {
+        return "webhook:" + template.url().host();
+    }
+
+    @Override
+    public void deliver(TelegramMessage message) throws DeliveryException {
+        ObjectNode json = objectMapper.createObjectNode()
+                .put("chat_id", message.getChatId())
+                .put("title", message.getTitle())
+                .put("text", message.getText())
+                .put("severity", message.getSeverity().name())
+                .put("parse_mode", message.getParseMode().name());
+        Request request = template.newBuilder().post(RequestBody.create(json.toString(), JSON)).build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                String status = "HTTP: " + response.code() + " - " + response.message();
+                throw response.code() >= 500 || response.code() == 429
+                        ? DeliveryException.retryable(status)
+                        : DeliveryException.permanent(status);
+            }
+        } catch (DeliveryException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new DeliveryException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+}